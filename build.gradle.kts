@@ -16,12 +16,23 @@ repositories {
 
 val vertxVersion = "4.5.22"
 val junitJupiterVersion = "5.9.1"
+val jmhVersion = "1.37"
+val jacksonVersion = "2.18.3"
 
 val mainVerticleName = "mcp_demo.MainVerticle"
 val launcherClassName = "mcp_demo.Main"
 
+// The batch calculator uses the incubating Vector API; without the module it falls back to scalar loops
+val vectorModuleArgs = listOf("--add-modules", "jdk.incubator.vector")
+
 application {
   mainClass.set(launcherClassName)
+  applicationDefaultJvmArgs = vectorModuleArgs
+}
+
+// Annotation processor that generates the build-time bean container (mcp_demo.cdi.GeneratedContainer)
+sourceSets {
+  create("processor")
 }
 
 dependencies {
@@ -30,16 +41,40 @@ dependencies {
   implementation("io.vertx:vertx-mysql-client")
   implementation("org.kinotic:vertx-mcp:4.5.2")
   implementation("org.jboss.weld.se:weld-se-core:4.0.3.Final")
+  implementation("com.fasterxml.jackson.module:jackson-module-blackbird:$jacksonVersion")
+  runtimeOnly("io.vertx:vertx-hazelcast")
+  annotationProcessor(sourceSets["processor"].output)
+  testImplementation(sourceSets["processor"].output)
   testImplementation("io.vertx:vertx-junit5")
   testImplementation("org.junit.jupiter:junit-jupiter:$junitJupiterVersion")
   testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
+sourceSets {
+  create("jmh") {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+  }
+}
+
+val jmhImplementation by configurations.getting {
+  extendsFrom(configurations.implementation.get())
+}
+
+dependencies {
+  jmhImplementation("org.openjdk.jmh:jmh-core:$jmhVersion")
+  "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
+}
+
 java {
   sourceCompatibility = JavaVersion.VERSION_21
   targetCompatibility = JavaVersion.VERSION_21
 }
 
+tasks.withType<JavaCompile> {
+  options.compilerArgs.addAll(vectorModuleArgs)
+}
+
 tasks.withType<ShadowJar> {
   archiveClassifier.set("fat")
   manifest {
@@ -50,11 +85,57 @@ tasks.withType<ShadowJar> {
 
 tasks.withType<Test> {
   useJUnitPlatform()
+  jvmArgs(vectorModuleArgs)
   testLogging {
     events = setOf(PASSED, SKIPPED, FAILED)
   }
 }
 
+// Runs the JMH benchmarks in src/jmh. Pass JMH options with -PjmhArgs, e.g.
+//   ./gradlew jmh -PjmhArgs="CalculatorToolBenchmark -prof gc -f 1"
+tasks.register<JavaExec>("jmh") {
+  group = "benchmark"
+  description = "Runs the JMH microbenchmarks"
+  classpath = sourceSets["jmh"].runtimeClasspath
+  mainClass.set("org.openjdk.jmh.Main")
+  args((findProperty("jmhArgs") as String? ?: "-rf json -rff build/reports/jmh/results.json").split(" ").filter { it.isNotBlank() })
+  doFirst { file("build/reports/jmh").mkdirs() }
+}
+
+// Load test against an in-process server (or --url=...). Pass options with -PloadArgs, e.g.
+//   ./gradlew loadTest -PloadArgs="--clients=50 --rate=2000 --mix=calculator:3,calculator-repeat:1"
+tasks.register<JavaExec>("loadTest") {
+  group = "verification"
+  description = "Runs the load-generation harness and writes build/reports/load/report.json"
+  classpath = sourceSets.test.get().runtimeClasspath
+  mainClass.set("mcp_demo.load.LoadGenerator")
+  environment("CALCULATOR_DELAY_MS", findProperty("calculatorDelayMs") as String? ?: "0")
+  args(((findProperty("loadArgs") as String? ?: "") + " --out=build/reports/load/report.json").split(" ").filter { it.isNotBlank() })
+}
+
+// Replays a capture written with MCP_CAPTURE against an in-process server (or --url=...). Pass options with
+// -PreplayArgs, e.g.
+//   ./gradlew replay -PreplayArgs="--file=capture.jsonl.gz --speed=10"
+tasks.register<JavaExec>("replay") {
+  group = "verification"
+  description = "Replays captured tool calls and writes build/reports/replay/report.json"
+  classpath = sourceSets.test.get().runtimeClasspath
+  mainClass.set("mcp_demo.load.TrafficReplay")
+  environment("CALCULATOR_DELAY_MS", findProperty("calculatorDelayMs") as String? ?: "0")
+  args(((findProperty("replayArgs") as String? ?: "") + " --out=build/reports/replay/report.json").split(" ").filter { it.isNotBlank() })
+}
+
+// Cold start of the build-time container vs Weld, each in fresh JVMs. Pass options with -PstartupArgs, e.g.
+//   ./gradlew startupComparison -PstartupArgs="--runs=10"
+tasks.register<JavaExec>("startupComparison") {
+  group = "verification"
+  description = "Compares server startup with MCP_CONTAINER=static and weld, writes build/reports/startup/report.json"
+  classpath = sourceSets.test.get().runtimeClasspath
+  mainClass.set("mcp_demo.load.StartupComparison")
+  args(((findProperty("startupArgs") as String? ?: "") + " --out=build/reports/startup/report.json").split(" ").filter { it.isNotBlank() })
+}
+
 tasks.withType<JavaExec> {
   // Weld-based application - no Vert.x launcher args needed
+  jvmArgs(vectorModuleArgs)
 }
@@ -0,0 +1,93 @@
+package mcp_demo.tools;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import mcp_demo.schema.InvalidArgumentsException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Batch evaluation against one calculator call per element.
+ * scalarKernel and vectorKernel compare the two kernels on the same buffers, evaluateBatch covers
+ * binding plus evaluation of a whole request, callPerElement the same work as size single calculations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class BatchCalculatorBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    public int size;
+
+    private final ArithmeticKernel scalar = new ScalarArithmeticKernel();
+    private final ArithmeticKernel vector = new VectorArithmeticKernel();
+    private final BatchCalculatorTool tool = new BatchCalculatorTool();
+
+    private double[] a;
+    private double[] b;
+    private double[] out;
+    private Map<String, Object> arguments;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        a = random.doubles(size).toArray();
+        b = random.doubles(size).map(d -> d + 1).toArray();
+        out = new double[size];
+
+        // Shaped like the map Jackson produces for the JSON arrays
+        List<Double> aList = new ArrayList<>(size);
+        List<Double> bList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            aList.add(a[i]);
+            bList.add(b[i]);
+        }
+        arguments = new HashMap<>();
+        arguments.put("operation", "multiply");
+        arguments.put("a", aList);
+        arguments.put("b", bList);
+    }
+
+    @Benchmark
+    public double[] scalarKernel() {
+        scalar.apply(ArithmeticKernel.MULTIPLY, a, b, out, 0, size);
+        return out;
+    }
+
+    @Benchmark
+    public double[] vectorKernel() {
+        vector.apply(ArithmeticKernel.MULTIPLY, a, b, out, 0, size);
+        return out;
+    }
+
+    @Benchmark
+    public double[] evaluateBatch() throws InvalidArgumentsException {
+        return tool.evaluate(BatchCalculatorTool.BINDER.bind(arguments));
+    }
+
+    @Benchmark
+    public double callPerElement() {
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += CalculatorTool.calculate("multiply", a[i], b[i]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,167 @@
+package mcp_demo.tools;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.modelcontextprotocol.server.McpAsyncServerExchange;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.server.McpTransportContext;
+import io.modelcontextprotocol.spec.McpLoggableSession;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.buffer.Buffer;
+import mcp_demo.schema.InvalidArgumentsException;
+import mcp_demo.transport.JsonCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+/**
+ * Per-call cost of the calculator tool, split into the stages of the hot path.
+ * bindArguments covers schema validation plus typed binding, rejectInvalidArguments the cost of
+ * turning away a malformed call.
+ *
+ * Run with allocation profiling to track per-call garbage:
+ *   ./gradlew jmh -PjmhArgs="CalculatorToolBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculatorToolBenchmark {
+
+    // Default mapper, as MainVerticle configured the vertx-mcp transport before the buffer transport
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonCodec codec = new JsonCodec();
+
+    private Map<String, Object> arguments;
+    private Map<String, Object> invalidArguments;
+    private McpSchema.CallToolRequest request;
+    private McpSchema.CallToolResult result;
+    private McpServerFeatures.AsyncToolSpecification spec;
+    private McpAsyncServerExchange exchange;
+
+    @Setup
+    public void setUp() {
+        // Shaped like the map Jackson produces for {"operation":"add","a":41,"b":1.5,"simulateBlocking":false}
+        arguments = new LinkedHashMap<>();
+        arguments.put("operation", "add");
+        arguments.put("a", 41);
+        arguments.put("b", 1.5);
+        arguments.put("simulateBlocking", false);
+        request = new McpSchema.CallToolRequest("calculator", arguments);
+        invalidArguments = new LinkedHashMap<>(arguments);
+        invalidArguments.put("a", "41");
+        result = buildResult();
+
+        CalculatorTool tool = new CalculatorTool();
+        tool.delayMs = 0;
+        spec = tool.getToolSpec();
+        exchange = new McpAsyncServerExchange("jmh-session", new NoopSession(),
+            McpSchema.ClientCapabilities.builder().build(),
+            new McpSchema.Implementation("jmh", "1.0.0"),
+            McpTransportContext.EMPTY);
+    }
+
+    @Benchmark
+    public CalculatorTool.Arguments bindArguments() throws InvalidArgumentsException {
+        return CalculatorTool.Arguments.of(CalculatorTool.BINDER.bind(arguments));
+    }
+
+    @Benchmark
+    public InvalidArgumentsException rejectInvalidArguments() {
+        try {
+            CalculatorTool.BINDER.bind(invalidArguments);
+            throw new IllegalStateException("Invalid arguments were accepted");
+        } catch (InvalidArgumentsException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public McpSchema.CallToolResult buildResult() {
+        return McpSchema.CallToolResult.builder()
+            .textContent(List.of(
+                String.valueOf(42.5),
+                "Delay type: NON-BLOCKING (Mono.delayElement)"
+            ))
+            .isError(false)
+            .build();
+    }
+
+    @Benchmark
+    public byte[] serializeResult() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new McpSchema.JSONRPCResponse(McpSchema.JSONRPC_VERSION, 1, result, null));
+    }
+
+    /** What a transport that serializes to a String does before writing the response. */
+    @Benchmark
+    public Buffer serializeResultViaString() throws JsonProcessingException {
+        return Buffer.buffer(objectMapper.writeValueAsString(new McpSchema.JSONRPCResponse(McpSchema.JSONRPC_VERSION, 1, result, null)));
+    }
+
+    /** The buffer transport: straight into a pooled direct buffer, released as Netty would after the write. */
+    @Benchmark
+    public int encodeResult() throws IOException {
+        ByteBuf json = codec.encode(new McpSchema.JSONRPCResponse(McpSchema.JSONRPC_VERSION, 1, result, null));
+        int length = json.readableBytes();
+        json.release();
+        return length;
+    }
+
+    @Benchmark
+    public McpSchema.CallToolResult callHandler() {
+        return spec.callHandler().apply(exchange, request).block();
+    }
+
+    /**
+     * Session that drops everything, so the handler runs without a transport.
+     */
+    static final class NoopSession implements McpLoggableSession {
+
+        @Override
+        public <T> Mono<T> sendRequest(String method, Object requestParams, TypeReference<T> typeRef) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> sendNotification(String method, Object params) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> closeGracefully() {
+            return Mono.empty();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void setMinLoggingLevel(McpSchema.LoggingLevel minLoggingLevel) {
+        }
+
+        @Override
+        public boolean isNotificationForLevelAllowed(McpSchema.LoggingLevel loggingLevel) {
+            return false;
+        }
+    }
+}
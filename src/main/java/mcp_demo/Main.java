@@ -1,25 +1,53 @@
 package mcp_demo;
 
+import java.lang.management.ManagementFactory;
+
 import org.jboss.weld.environment.se.Weld;
 import org.jboss.weld.environment.se.WeldContainer;
 import io.vertx.core.Vertx;
+import mcp_demo.cdi.BeanContainer;
+import mcp_demo.cdi.GeneratedContainer;
 
 public class Main {
     public static void main(String[] args) {
-        Weld weld = new Weld();
-        // Explicitly add packages to scan (works around Gradle's split output directories)
-        weld.addPackages(true, MainVerticle.class);
-        
-        try (WeldContainer container = weld.initialize()) {
-            MainVerticle verticle = container.select(MainVerticle.class).get();
-            Vertx vertx = Vertx.vertx();
-            vertx.deployVerticle(verticle);
-            
+        // MCP_CONTAINER=static (default) uses the container generated at build time, "weld" scans the classpath
+        String mode = System.getenv().getOrDefault("MCP_CONTAINER", "static");
+        long start = System.nanoTime();
+
+        try (BeanContainer container = "weld".equalsIgnoreCase(mode) ? weld() : new GeneratedContainer()) {
+            // Weld closes its container from its own shutdown hook; the generated one is closed here on SIGTERM or
+            // Ctrl+C, so that the audit log, tracer and traffic capture flush. Closing twice is a no-op.
+            if (container instanceof GeneratedContainer) {
+                Runtime.getRuntime().addShutdownHook(new Thread(container::close, "container-shutdown"));
+            }
+            MainVerticle verticle = container.select(MainVerticle.class);
+            Vertx vertx = container.select(Vertx.class);
+            long wiredMs = (System.nanoTime() - start) / 1_000_000;
+            vertx.deployVerticle(verticle).onSuccess(id -> System.out.println("Startup: " + mode + " container wired in "
+                + wiredMs + "ms, serving " + ManagementFactory.getRuntimeMXBean().getUptime() + "ms after JVM start"));
+
             // Keep application running
             Thread.currentThread().join();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
     }
-}
 
+    private static BeanContainer weld() {
+        Weld weld = new Weld();
+        // Explicitly add packages to scan (works around Gradle's split output directories)
+        weld.addPackages(true, MainVerticle.class);
+        WeldContainer container = weld.initialize();
+        return new BeanContainer() {
+            @Override
+            public <T> T select(Class<T> type) {
+                return container.select(type).get();
+            }
+
+            @Override
+            public void close() {
+                container.close();
+            }
+        };
+    }
+}
@@ -1,22 +1,49 @@
 package mcp_demo;
 
 import java.util.ArrayList;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
 
 import io.modelcontextprotocol.server.McpServer;
 import io.modelcontextprotocol.server.McpServerFeatures;
 import io.modelcontextprotocol.spec.McpSchema.ServerCapabilities;
+import io.modelcontextprotocol.spec.McpStreamableServerTransportProvider;
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
 import io.vertx.core.Promise;
-import io.vertx.core.Vertx;
 import io.vertx.ext.mcp.McpVerticle;
 import io.vertx.ext.mcp.transport.VertxMcpStreamableServerTransportProvider;
+import io.vertx.sqlclient.Pool;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
+import mcp_demo.audit.AuditLog;
+import mcp_demo.cache.ToolResultCache;
+import mcp_demo.capture.TrafficCapture;
 import mcp_demo.cdi.McpTool;
+import mcp_demo.cdi.ToolMetadata;
 import mcp_demo.cdi.ToolProvider;
+import mcp_demo.cdi.VertxProducer;
+import mcp_demo.db.MySqlClientProducer;
+import mcp_demo.db.PoolErrors;
+import mcp_demo.dispatch.AdmissionController;
+import mcp_demo.dispatch.BlockingToolDispatcher;
+import mcp_demo.dispatch.CallCancellations;
+import mcp_demo.dispatch.CallCoalescer;
+import mcp_demo.dispatch.CallDeadlines;
+import mcp_demo.dispatch.StallGuard;
+import mcp_demo.metrics.AdminRoutes;
+import mcp_demo.metrics.AdminVerticle;
+import mcp_demo.metrics.EventLoopMonitor;
+import mcp_demo.metrics.PoolMetricsCollector;
+import mcp_demo.metrics.PrometheusWriter;
+import mcp_demo.metrics.ToolMetrics;
+import mcp_demo.trace.Tracer;
+import mcp_demo.transport.BufferStreamableTransportProvider;
+import mcp_demo.transport.JsonCodec;
+import mcp_demo.transport.McpHttpVerticle;
+import mcp_demo.transport.SharedDataSessionStore;
+import mcp_demo.transport.TransportErrors;
 
 @ApplicationScoped
 public class MainVerticle extends AbstractVerticle {
@@ -25,41 +52,145 @@ public class MainVerticle extends AbstractVerticle {
     @McpTool
     Instance<ToolProvider> toolProviders;
 
+    @Inject
+    BlockingToolDispatcher blockingToolDispatcher;
+
+    @Inject
+    StallGuard stallGuard;
+
+    @Inject
+    AdmissionController admissionController;
+
+    @Inject
+    CallCoalescer callCoalescer;
+
+    @Inject
+    CallDeadlines callDeadlines;
+
+    @Inject
+    CallCancellations callCancellations;
+
+    @Inject
+    ToolResultCache toolResultCache;
+
+    @Inject
+    ToolMetrics toolMetrics;
+
+    @Inject
+    AuditLog auditLog;
+
+    @Inject
+    Tracer tracer;
+
+    @Inject
+    TrafficCapture trafficCapture;
+
+    @Inject
+    EventLoopMonitor eventLoopMonitor;
+
+    @Inject
+    PrometheusWriter prometheusWriter;
+
+    @Inject
+    JsonCodec jsonCodec;
+
+    @Inject
+    TransportErrors transportErrors;
+
+    @Inject
+    Pool mysqlClient;
+
+    @Inject
+    PoolMetricsCollector poolMetricsCollector;
+
     @Override
     public void start(Promise<Void> startPromise) throws Exception {
-        int port = Integer.parseInt(System.getenv().getOrDefault("MCP_PORT", "3001"));
-        String baseUrl = System.getenv().getOrDefault("MCP_BASE_URL", "http://localhost:3001");
+        // Deployment config wins over the environment so the server can be embedded (load tests)
+        int port = config().getInteger("port", Integer.parseInt(System.getenv().getOrDefault("MCP_PORT", "3001")));
+        String baseUrl = config().getString("baseUrl", System.getenv().getOrDefault("MCP_BASE_URL", "http://localhost:" + port));
+        int adminPort = config().getInteger("adminPort", Integer.parseInt(System.getenv().getOrDefault("MCP_ADMIN_PORT", "3002")));
+        int instances = Integer.parseInt(System.getenv().getOrDefault("MCP_INSTANCES",
+            String.valueOf(Runtime.getRuntime().availableProcessors())));
 
-        Vertx vertx = Vertx.vertx();
+        // Collect all tool specifications from CDI-managed providers.
+        // Tools marked @McpTool(blocking = true) run off the event loop; the others are watched for event-loop
+        // stalls and moved off it once they stall it repeatedly. Identical in-flight calls of
+        // @Coalesce tools share one execution, and @Cacheable tools are answered from the result cache
+        // before any dispatch happens. Calls that reach the handler pass admission control, which sheds load
+        // past the adaptive concurrency limits. A saturated MySQL pool surfaces as an isError result. Every
+        // call is cancelled at its deadline or when the client cancels it. Every tool is instrumented, sampled
+        // calls are traced and every call is written behind to the audit log, cache hits, rejections and
+        // cancellations included. With MCP_CAPTURE set, every call is captured for replay as it arrives.
+        var toolSpecs = new ArrayList<McpServerFeatures.AsyncToolSpecification>();
+        var mysqlPoolStats = poolMetricsCollector.find("sql", MySqlClientProducer.POOL_NAME).orElse(null);
+        toolProviders.forEach(provider -> {
+            var spec = provider.getToolSpec();
+            if (ToolMetadata.isBlocking(provider)) {
+                spec = blockingToolDispatcher.offload(spec);
+            } else {
+                spec = stallGuard.wrap(spec);
+            }
+            spec = PoolErrors.wrap(spec, mysqlPoolStats);
+            spec = admissionController.wrap(spec);
+            spec = callCoalescer.wrap(provider, spec);
+            spec = toolResultCache.wrap(provider, spec);
+            spec = callDeadlines.wrap(provider, spec);
+            toolSpecs.add(trafficCapture.wrap(auditLog.wrap(tracer.wrap(toolMetrics.wrap(spec)))));
+        });
 
-        // Create transport
-        var transport = VertxMcpStreamableServerTransportProvider.builder()
-            .objectMapper(new ObjectMapper())
-            .mcpEndpoint("/mcp")
-            .vertx(vertx)
-            .build();
+        // Create the transport. It is shared by every verticle instance so a session
+        // created on one event loop can be served by any other.
+        // MCP_TRANSPORT=buffer (default) writes responses from pooled buffers, "vertx-mcp" uses the library's transport.
+        // Deploy one verticle per event loop; Vert.x balances connections on the shared port across them.
+        // AdminVerticle serves /metrics, /health and /stalls on the admin port; the buffer transport serves them on
+        // the MCP port too, next to /mcp. The library's McpVerticle owns its router, so there it is /mcp only.
+        var deploymentOptions = new DeploymentOptions().setInstances(instances);
+        var adminRoutes = new AdminRoutes(prometheusWriter, eventLoopMonitor, stallGuard, mysqlClient);
+        Future<String> mcpDeployment;
+        if ("vertx-mcp".equalsIgnoreCase(System.getenv().getOrDefault("MCP_TRANSPORT", "buffer"))) {
+            var transport = VertxMcpStreamableServerTransportProvider.builder()
+                .objectMapper(jsonCodec.mapper())
+                .mcpEndpoint("/mcp")
+                .vertx(vertx)
+                .build();
+            var mcpServerSpec = serverSpec(transport, toolSpecs);
+            mcpDeployment = vertx.deployVerticle(() -> new McpVerticle(port, transport, mcpServerSpec), deploymentOptions);
+        } else {
+            // JSON bodies from MCP_COMPRESS_MIN_BYTES on are compressed for clients that accept it, -1 turns it off
+            int compressMinBytes = Integer.parseInt(System.getenv().getOrDefault("MCP_COMPRESS_MIN_BYTES", "1024"));
+            long maxBodyBytes = Long.parseLong(System.getenv().getOrDefault("MCP_MAX_BODY_BYTES", "4194304"));
+            // Sessions idle for MCP_SESSION_TTL_MS expire; with MCP_CLUSTERED=true they are shared by every node
+            long sessionTtlMs = Long.parseLong(System.getenv().getOrDefault("MCP_SESSION_TTL_MS", "1800000"));
+            var transport = new BufferStreamableTransportProvider(vertx, jsonCodec,
+                new SharedDataSessionStore(vertx, sessionTtlMs), "/mcp", compressMinBytes, maxBodyBytes, transportErrors);
+            serverSpec(transport, toolSpecs).build();
+            mcpDeployment = vertx.deployVerticle(
+                () -> new McpHttpVerticle(port, transport, compressMinBytes >= 0, adminRoutes::mount), deploymentOptions);
+        }
 
-        // Collect all tool specifications from CDI-managed providers
-        var toolSpecs = new ArrayList<McpServerFeatures.AsyncToolSpecification>();
-        toolProviders.forEach(provider -> toolSpecs.add(provider.getToolSpec()));
+        mcpDeployment
+            .compose(id -> eventLoopMonitor.deploy(vertx, VertxProducer.eventLoopPoolSize()))
+            .compose(id -> vertx.deployVerticle(new AdminVerticle(adminPort, adminRoutes)))
+            .onComplete(ar -> {
+                if (ar.succeeded()) {
+                    System.out.println("MCP Server started on port " + port + " (" + instances + " instances)");
+                    System.out.println("Endpoint: " + baseUrl + "/mcp");
+                    System.out.println("Metrics: http://localhost:" + adminPort + "/metrics");
+                    System.out.println("Health check: http://localhost:" + adminPort + "/health");
+                    startPromise.complete();
+                } else {
+                    System.err.println("Failed to start MCP Server: " + ar.cause());
+                    startPromise.fail(ar.cause());
+                }
+            });
+    }
 
-        // Create MCP server specification
-        var mcpServerSpec = McpServer.async(transport)
+    // The decorated transport cancels requests named by notifications/cancelled
+    private McpServer.AsyncSpecification<?> serverSpec(McpStreamableServerTransportProvider transport,
+            List<McpServerFeatures.AsyncToolSpecification> toolSpecs) {
+        return McpServer.async(callCancellations.decorate(transport))
             .serverInfo("production-server", "1.0.0")
             .capabilities(ServerCapabilities.builder().tools(true).build())
             .tools(toolSpecs.toArray(new McpServerFeatures.AsyncToolSpecification[0]));
-
-        // Deploy the verticle
-        vertx.deployVerticle(new McpVerticle(port, transport, mcpServerSpec), ar -> {
-            if (ar.succeeded()) {
-                System.out.println("MCP Server started on port " + port);
-                System.out.println("Endpoint: " + baseUrl + "/sse");
-                System.out.println("Health check: " + baseUrl + "/health");
-                startPromise.complete();
-            } else {
-                System.err.println("Failed to start MCP Server: " + ar.cause());
-                startPromise.fail(ar.cause());
-            }
-        });
     }
 }
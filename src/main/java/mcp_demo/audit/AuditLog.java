@@ -0,0 +1,274 @@
+package mcp_demo.audit;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Tuple;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import mcp_demo.cache.CallKey;
+import mcp_demo.dispatch.AdmissionController;
+import mcp_demo.dispatch.CallDeadlines;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Write-behind audit log of tool calls in the MySQL table tool_calls.
+ *
+ * A finished call only offers a {@link CallRecord} to a bounded buffer. One flusher, running on a Vert.x context,
+ * drains up to MCP_AUDIT_BATCH_SIZE records into one executeBatch insert on a single pooled connection, whenever
+ * that many are buffered or every MCP_AUDIT_FLUSH_MS. At most one batch is in flight: while the database lags,
+ * records pile up in the buffer, and once it is full new records are dropped and counted instead of slowing the
+ * calls down. A batch that fails to insert is lost and counted as well.
+ */
+@ApplicationScoped
+public class AuditLog {
+
+    static final String CREATE_TABLE = """
+        CREATE TABLE IF NOT EXISTS tool_calls (
+          id BIGINT AUTO_INCREMENT PRIMARY KEY,
+          started_at DATETIME(3) NOT NULL,
+          tool VARCHAR(128) NOT NULL,
+          arguments_hash BIGINT NOT NULL,
+          duration_us BIGINT NOT NULL,
+          outcome VARCHAR(16) NOT NULL,
+          session_id VARCHAR(64),
+          KEY tool_started_at (tool, started_at)
+        )""";
+    static final String INSERT = "INSERT INTO tool_calls (started_at, tool, arguments_hash, duration_us, outcome, session_id)"
+        + " VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    Pool mysqlClient;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final ArrayBlockingQueue<CallRecord> buffer;
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private Context context;
+    private Function<List<Tuple>, Future<?>> writer;
+    private long timer = -1;
+    // Only used on the context
+    private boolean lastBatchFailed;
+    private boolean stopped;
+    private Future<?> lastBatch = Future.succeededFuture();
+
+    public AuditLog() {
+        this(Boolean.parseBoolean(System.getenv().getOrDefault("MCP_AUDIT", "true")),
+            Integer.parseInt(System.getenv().getOrDefault("MCP_AUDIT_BUFFER", "10000")),
+            Integer.parseInt(System.getenv().getOrDefault("MCP_AUDIT_BATCH_SIZE", "500")),
+            Long.parseLong(System.getenv().getOrDefault("MCP_AUDIT_FLUSH_MS", "1000")));
+    }
+
+    AuditLog(boolean enabled, int capacity, int batchSize, long flushIntervalMs) {
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        mysqlClient.withConnection(conn -> conn.query(CREATE_TABLE).execute())
+            .onFailure(e -> System.out.println("Failed to create the tool_calls audit table: " + e));
+        start(vertx, batch -> mysqlClient.withConnection(conn -> conn.preparedQuery(INSERT).executeBatch(batch)));
+    }
+
+    /** Starts flushing through the writer, which inserts one batch of rows. */
+    void start(Vertx vertx, Function<List<Tuple>, Future<?>> writer) {
+        this.vertx = vertx;
+        this.context = vertx.getOrCreateContext();
+        this.writer = writer;
+        this.timer = vertx.setPeriodic(flushIntervalMs, id -> requestFlush());
+    }
+
+    /** Returns a copy of the specification that records each of its calls, or the specification itself when disabled. */
+    public McpServerFeatures.AsyncToolSpecification wrap(McpServerFeatures.AsyncToolSpecification spec) {
+        if (!enabled) {
+            return spec;
+        }
+        var handler = spec.callHandler();
+        String toolName = spec.tool().name();
+        return McpServerFeatures.AsyncToolSpecification.builder()
+            .tool(spec.tool())
+            .callHandler((exchange, toolReq) -> Mono.defer(() -> {
+                long startedAt = System.currentTimeMillis();
+                long start = System.nanoTime();
+                String sessionId = exchange == null ? null : exchange.sessionId();
+                CallRecord.Outcome[] outcome = {CallRecord.Outcome.OK};
+                return Mono.defer(() -> handler.apply(exchange, toolReq))
+                    .doOnNext(result -> {
+                        if (Boolean.TRUE.equals(result.isError())) {
+                            outcome[0] = CallRecord.Outcome.ERROR;
+                        }
+                    })
+                    .doOnError(e -> outcome[0] = outcome(e))
+                    .doFinally(signal -> record(new CallRecord(startedAt, toolName, toolReq.arguments(),
+                        TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start),
+                        signal == SignalType.CANCEL ? CallRecord.Outcome.CANCELLED : outcome[0], sessionId)));
+            }))
+            .build();
+    }
+
+    /** Buffers the record, or drops it when the buffer is full. Never blocks. */
+    public void record(CallRecord record) {
+        if (!buffer.offer(record)) {
+            dropped.increment();
+            return;
+        }
+        if (buffer.size() >= batchSize) {
+            requestFlush();
+        }
+    }
+
+    public long written() {
+        return written.sum();
+    }
+
+    /** Records dropped because the buffer was full. */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /** Records lost because their batch failed to insert. */
+    public long failed() {
+        return failed.sum();
+    }
+
+    public int buffered() {
+        return buffer.size();
+    }
+
+    private void requestFlush() {
+        if (context != null && flushing.compareAndSet(false, true)) {
+            context.runOnContext(v -> flush());
+        }
+    }
+
+    // Runs on the context, with flushing set; once stopped, flushing stays set
+    private void flush() {
+        if (stopped) {
+            return;
+        }
+        List<CallRecord> records = new ArrayList<>(Math.min(batchSize, buffer.size()));
+        buffer.drainTo(records, batchSize);
+        if (records.isEmpty()) {
+            flushing.set(false);
+            return;
+        }
+        List<Tuple> batch = new ArrayList<>(records.size());
+        for (CallRecord record : records) {
+            batch.add(row(record));
+        }
+        lastBatch = writer.apply(batch);
+        lastBatch.onComplete(ar -> {
+            if (ar.succeeded()) {
+                written.add(batch.size());
+            } else {
+                failed.add(batch.size());
+                // One line per outage, not one per batch
+                if (!lastBatchFailed) {
+                    System.out.println("Failed to write " + batch.size() + " audit records: " + ar.cause());
+                }
+            }
+            lastBatchFailed = ar.failed();
+            flushing.set(false);
+            if (buffer.size() >= batchSize) {
+                requestFlush();
+            }
+        });
+    }
+
+    static Tuple row(CallRecord record) {
+        return Tuple.of(
+            LocalDateTime.ofInstant(Instant.ofEpochMilli(record.startedAtMillis()), ZoneOffset.UTC),
+            record.tool(),
+            argumentsHash(record.tool(), record.arguments()),
+            record.durationMicros(),
+            record.outcome().column(),
+            record.sessionId());
+    }
+
+    /** 64-bit FNV-1a of the canonical call key, so equal arguments hash alike whatever their order or number format. */
+    static long argumentsHash(String tool, Map<String, Object> arguments) {
+        String key = CallKey.of(tool, arguments, Set.of());
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static CallRecord.Outcome outcome(Throwable e) {
+        if (CallDeadlines.isDeadlineExceeded(e)) {
+            return CallRecord.Outcome.TIMEOUT;
+        }
+        return AdmissionController.isOverloaded(e) ? CallRecord.Outcome.REJECTED : CallRecord.Outcome.ERROR;
+    }
+
+    /** Waits for the batch in flight, then writes what is still buffered before the pool and Vertx go away. */
+    @PreDestroy
+    void shutdown() {
+        if (timer < 0) {
+            return;
+        }
+        vertx.cancelTimer(timer);
+        // Stop the flusher and let its batch in flight land, so that the final batch does not race it
+        Promise<Void> idle = Promise.promise();
+        context.runOnContext(v -> {
+            stopped = true;
+            lastBatch.onComplete(ar -> idle.complete());
+        });
+        try {
+            idle.future().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            System.out.println("Audit batch still in flight on shutdown: " + e);
+        }
+        List<CallRecord> records = new ArrayList<>(buffer.size());
+        buffer.drainTo(records);
+        List<Tuple> batch = new ArrayList<>(records.size());
+        for (CallRecord record : records) {
+            batch.add(row(record));
+        }
+        if (!batch.isEmpty()) {
+            try {
+                writer.apply(batch).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+                written.add(batch.size());
+            } catch (Exception e) {
+                failed.add(batch.size());
+                System.out.println("Failed to write " + batch.size() + " audit records on shutdown: " + e);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package mcp_demo.audit;
+
+import java.util.Map;
+
+/**
+ * One tool call as written to the audit table. The arguments are kept as received and only hashed when the
+ * record is flushed, so the call itself pays for nothing but the allocation of the record.
+ */
+public record CallRecord(long startedAtMillis, String tool, Map<String, Object> arguments, long durationMicros,
+        Outcome outcome, String sessionId) {
+
+    public enum Outcome {
+        OK, ERROR, TIMEOUT, CANCELLED, REJECTED;
+
+        /** The value stored in the outcome column. */
+        public String column() {
+            return name().toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package mcp_demo.cache;
+
+/**
+ * Point-in-time counters of the {@link ToolResultCache}.
+ */
+public record CacheStats(long hits, long misses, long evictions, long expirations, int size, int maxEntries) {
+
+    public double hitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
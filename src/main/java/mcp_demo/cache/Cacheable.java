@@ -0,0 +1,21 @@
+package mcp_demo.cache;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Opts a deterministic tool into the {@link ToolResultCache}.
+ * Only put this on tools whose result depends on nothing but their arguments.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Cacheable {
+
+    /** How long a cached result stays valid. */
+    long ttlSeconds() default 60;
+
+    /** Top-level arguments that do not influence the result and are left out of the cache key. */
+    String[] ignoredArguments() default {};
+}
@@ -0,0 +1,94 @@
+package mcp_demo.cache;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Builds a canonical string key for a tool call: the tool name plus its arguments with map keys sorted
+ * and numbers normalized, so {"a": 1, "b": 2} and {"b": 2.0, "a": 1} produce the same key.
+ */
+public final class CallKey {
+
+    private CallKey() {
+    }
+
+    public static String of(String toolName, Map<String, Object> arguments, Set<String> ignoredArguments) {
+        StringBuilder sb = new StringBuilder(64).append(toolName).append('(');
+        if (arguments != null) {
+            boolean first = true;
+            for (var entry : new TreeMap<>(arguments).entrySet()) {
+                if (ignoredArguments.contains(entry.getKey())) {
+                    continue;
+                }
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                appendString(sb, entry.getKey());
+                sb.append(':');
+                appendValue(sb, entry.getValue());
+            }
+        }
+        return sb.append(')').toString();
+    }
+
+    private static void appendValue(StringBuilder sb, Object value) {
+        if (value instanceof Map<?, ?> map) {
+            sb.append('{');
+            boolean first = true;
+            for (var entry : new TreeMap<>(map).entrySet()) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                appendString(sb, String.valueOf(entry.getKey()));
+                sb.append(':');
+                appendValue(sb, entry.getValue());
+            }
+            sb.append('}');
+        } else if (value instanceof List<?> list) {
+            sb.append('[');
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                appendValue(sb, list.get(i));
+            }
+            sb.append(']');
+        } else if (value instanceof Number number) {
+            appendNumber(sb, number);
+        } else if (value instanceof String string) {
+            appendString(sb, string);
+        } else {
+            sb.append(value);
+        }
+    }
+
+    private static void appendNumber(StringBuilder sb, Number number) {
+        if (number instanceof Double || number instanceof Float) {
+            double d = number.doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                sb.append(d);
+                return;
+            }
+            number = BigDecimal.valueOf(d);
+        }
+        BigDecimal decimal = number instanceof BigDecimal bd ? bd : new BigDecimal(number.toString());
+        sb.append(decimal.signum() == 0 ? "0" : decimal.stripTrailingZeros().toPlainString());
+    }
+
+    private static void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+}
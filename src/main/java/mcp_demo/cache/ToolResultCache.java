@@ -0,0 +1,130 @@
+package mcp_demo.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import jakarta.enterprise.context.ApplicationScoped;
+import mcp_demo.cdi.ToolMetadata;
+import mcp_demo.cdi.ToolProvider;
+import reactor.core.publisher.Mono;
+
+/**
+ * Size-bounded LRU cache of successful tool results, shared by all {@link Cacheable} tools.
+ *
+ * The cache holds at most MCP_CACHE_MAX_ENTRIES results (default 10000). Entries expire after the
+ * tool's {@link Cacheable#ttlSeconds()}; expired entries are dropped lazily when looked up.
+ * Error results and failed Monos are never cached.
+ */
+@ApplicationScoped
+public class ToolResultCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public ToolResultCache() {
+        this(Integer.parseInt(System.getenv().getOrDefault("MCP_CACHE_MAX_ENTRIES",
+            String.valueOf(DEFAULT_MAX_ENTRIES))));
+    }
+
+    ToolResultCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > ToolResultCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Wraps the provider's specification with the cache if the provider is annotated with {@link Cacheable},
+     * otherwise returns the specification unchanged.
+     */
+    public McpServerFeatures.AsyncToolSpecification wrap(ToolProvider provider, McpServerFeatures.AsyncToolSpecification spec) {
+        Cacheable cacheable = ToolMetadata.find(provider.getClass(), Cacheable.class);
+        if (cacheable == null) {
+            return spec;
+        }
+        return wrap(spec, Duration.ofSeconds(cacheable.ttlSeconds()), Set.of(cacheable.ignoredArguments()));
+    }
+
+    public McpServerFeatures.AsyncToolSpecification wrap(McpServerFeatures.AsyncToolSpecification spec,
+                                                         Duration ttl, Set<String> ignoredArguments) {
+        var handler = spec.callHandler();
+        String toolName = spec.tool().name();
+        long ttlNanos = ttl.toNanos();
+        return McpServerFeatures.AsyncToolSpecification.builder()
+            .tool(spec.tool())
+            .callHandler((exchange, toolReq) -> {
+                String key = CallKey.of(toolName, toolReq.arguments(), ignoredArguments);
+                McpSchema.CallToolResult cached = get(key);
+                if (cached != null) {
+                    return Mono.just(cached);
+                }
+                return handler.apply(exchange, toolReq)
+                    .doOnNext(result -> {
+                        if (!Boolean.TRUE.equals(result.isError())) {
+                            put(key, result, ttlNanos);
+                        }
+                    });
+            })
+            .build();
+    }
+
+    public CacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), size, maxEntries);
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private McpSchema.CallToolResult get(String key) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (now - entry.expiresAt() < 0) {
+                    hits.increment();
+                    return entry.result();
+                }
+                entries.remove(key);
+                expirations.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    private void put(String key, McpSchema.CallToolResult result, long ttlNanos) {
+        Entry entry = new Entry(result, System.nanoTime() + ttlNanos);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    private record Entry(McpSchema.CallToolResult result, long expiresAt) {
+    }
+}
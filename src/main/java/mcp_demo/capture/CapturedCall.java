@@ -0,0 +1,66 @@
+package mcp_demo.capture;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * One tool call of a capture file, offsetMicros after the capture started.
+ *
+ * A capture file has one JSON object per line, gzipped when its name ends in .gz: a header
+ * {"capture":1,"startedAt":"..."} followed by the calls as {"t":offsetMicros,"s":sessionId,"tool":name,"args":{...}}.
+ */
+public record CapturedCall(long offsetMicros, String sessionId, String tool, Map<String, Object> arguments) {
+
+    static final int VERSION = 1;
+    private static final TypeReference<Map<String, Object>> LINE = new TypeReference<>() {
+    };
+
+    /** The calls of a capture file, in the order they were captured, read with the mapper of the JsonCodec. */
+    @SuppressWarnings("unchecked")
+    public static List<CapturedCall> read(Path file, ObjectMapper mapper) throws IOException {
+        List<CapturedCall> calls = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(file), StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            if (line == null) {
+                return calls;
+            }
+            Map<String, Object> header = mapper.readValue(line, LINE);
+            if (!Integer.valueOf(VERSION).equals(header.get("capture"))) {
+                throw new IOException(file + " is not a capture file of version " + VERSION);
+            }
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Map<String, Object> call = mapper.readValue(line, LINE);
+                calls.add(new CapturedCall(((Number) call.get("t")).longValue(), (String) call.get("s"),
+                    (String) call.get("tool"), (Map<String, Object>) call.get("args")));
+            }
+        } catch (EOFException e) {
+            // A server that did not stop cleanly leaves a gzip stream without its trailer; every line before is intact
+        }
+        return calls;
+    }
+
+    static boolean gzipped(Path file) {
+        return file.getFileName().toString().endsWith(".gz");
+    }
+
+    private static InputStream open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        return gzipped(file) ? new GZIPInputStream(in) : in;
+    }
+}
@@ -0,0 +1,186 @@
+package mcp_demo.capture;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import mcp_demo.transport.JsonCodec;
+import reactor.core.publisher.Mono;
+
+/**
+ * Opt-in capture of the tool calls the server receives, for replay against another server (see TrafficReplay in the
+ * load tests).
+ *
+ * With MCP_CAPTURE set to a file, every call is recorded when it arrives, before caching, coalescing or admission
+ * control, with its offset from the start of the capture, its session id, its tool and its arguments (see
+ * {@link CapturedCall} for the format; a name ending in .gz is gzipped). Recording only offers the call to a buffer
+ * of MCP_CAPTURE_BUFFER entries (default 65536); a daemon thread writes it out, and calls arriving while the buffer
+ * is full are dropped and counted.
+ */
+@ApplicationScoped
+public class TrafficCapture {
+
+    private static final int WRITE_BATCH = 1024;
+    private static final long IDLE_POLL_MS = 100;
+
+    @Inject
+    JsonCodec codec;
+
+    private final Path file;
+    private final ArrayBlockingQueue<CapturedCall> buffer;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private long startNanos;
+    private volatile boolean running;
+    private Thread writer;
+
+    public TrafficCapture() {
+        this(captureFile(System.getenv().getOrDefault("MCP_CAPTURE", "")),
+            Integer.parseInt(System.getenv().getOrDefault("MCP_CAPTURE_BUFFER", "65536")));
+    }
+
+    TrafficCapture(Path file, int capacity) {
+        this.file = file;
+        this.buffer = file == null ? null : new ArrayBlockingQueue<>(capacity);
+    }
+
+    private static Path captureFile(String value) {
+        return value.isBlank() ? null : Path.of(value);
+    }
+
+    /** Opens the capture file, replacing an earlier capture, and starts the writer. */
+    @PostConstruct
+    void start() {
+        if (file == null) {
+            return;
+        }
+        ObjectMapper mapper = codec.mapper();
+        OutputStream out;
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            out = Files.newOutputStream(file);
+            // Sync flushes keep a capture readable up to its last write when the server does not stop cleanly
+            out = CapturedCall.gzipped(file) ? new GZIPOutputStream(out, 65536, true) : new BufferedOutputStream(out, 65536);
+            Map<String, Object> header = new LinkedHashMap<>();
+            header.put("capture", CapturedCall.VERSION);
+            header.put("startedAt", Instant.now().toString());
+            writeLine(mapper, out, header);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open capture file " + file, e);
+        }
+        startNanos = System.nanoTime();
+        running = true;
+        OutputStream stream = out;
+        writer = Thread.ofPlatform().daemon().name("mcp-capture-writer").start(() -> writeLoop(mapper, stream));
+        System.out.println("Capturing tool calls to " + file);
+    }
+
+    /** Writes the calls still buffered and closes the file. */
+    @PreDestroy
+    void stop() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    /** Returns a copy of the specification that captures each call, or the specification itself when off. */
+    public McpServerFeatures.AsyncToolSpecification wrap(McpServerFeatures.AsyncToolSpecification spec) {
+        if (!isEnabled()) {
+            return spec;
+        }
+        var handler = spec.callHandler();
+        String toolName = spec.tool().name();
+        return McpServerFeatures.AsyncToolSpecification.builder()
+            .tool(spec.tool())
+            .callHandler((exchange, toolReq) -> Mono.defer(() -> {
+                record(new CapturedCall(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos),
+                    exchange == null ? null : exchange.sessionId(), toolName, toolReq.arguments()));
+                return handler.apply(exchange, toolReq);
+            }))
+            .build();
+    }
+
+    void record(CapturedCall call) {
+        if (!buffer.offer(call)) {
+            dropped.increment();
+        }
+    }
+
+    public long written() {
+        return written.sum();
+    }
+
+    /** Calls not captured because the writer fell a full buffer behind. */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    private void writeLoop(ObjectMapper mapper, OutputStream out) {
+        List<CapturedCall> batch = new ArrayList<>(WRITE_BATCH);
+        Map<String, Object> line = new LinkedHashMap<>();
+        try (out) {
+            while (running || !buffer.isEmpty()) {
+                CapturedCall first = buffer.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, WRITE_BATCH - 1);
+                for (CapturedCall call : batch) {
+                    line.put("t", call.offsetMicros());
+                    line.put("s", call.sessionId());
+                    line.put("tool", call.tool());
+                    line.put("args", call.arguments());
+                    writeLine(mapper, out, line);
+                }
+                written.add(batch.size());
+                batch.clear();
+                if (buffer.isEmpty()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Stopped capturing tool calls to " + file + ": " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void writeLine(ObjectMapper mapper, OutputStream out, Object value) throws IOException {
+        out.write(mapper.writeValueAsBytes(value));
+        out.write('\n');
+    }
+}
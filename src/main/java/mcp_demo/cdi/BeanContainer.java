@@ -0,0 +1,14 @@
+package mcp_demo.cdi;
+
+/**
+ * The object graph {@link mcp_demo.Main} starts from. Either {@code GeneratedContainer}, wired at build time by
+ * mcp_demo.processor.BeanRegistryProcessor, or a Weld SE container that discovers the same beans by scanning.
+ */
+public interface BeanContainer extends AutoCloseable {
+
+    <T> T select(Class<T> type);
+
+    /** Destroys the beans that were created, in reverse order of creation. */
+    @Override
+    void close();
+}
@@ -1,5 +1,6 @@
 package mcp_demo.cdi;
 
+import jakarta.enterprise.util.Nonbinding;
 import jakarta.inject.Qualifier;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -9,5 +10,12 @@ import java.lang.annotation.Target;
 @Qualifier
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ElementType.TYPE, ElementType.METHOD, ElementType.FIELD, ElementType.PARAMETER})
-public @interface McpTool {}
+public @interface McpTool {
 
+    /**
+     * Marks a tool whose call handler may block the calling thread (JDBC, Thread.sleep, file IO...).
+     * Blocking tools are dispatched off the Vert.x event loop by {@link mcp_demo.dispatch.BlockingToolDispatcher}.
+     */
+    @Nonbinding
+    boolean blocking() default false;
+}
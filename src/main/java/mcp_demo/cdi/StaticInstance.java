@@ -0,0 +1,112 @@
+package mcp_demo.cdi;
+
+import java.lang.annotation.Annotation;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import jakarta.enterprise.inject.AmbiguousResolutionException;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Default;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.UnsatisfiedResolutionException;
+import jakarta.enterprise.inject.Vetoed;
+import jakarta.enterprise.util.TypeLiteral;
+
+/**
+ * Instance over beans resolved at build time, injected by {@code GeneratedContainer}.
+ * Beans are only created when iterated or got, and select() narrows them by type and qualifier the way CDI does,
+ * for qualifiers without binding members.
+ */
+@Vetoed
+public final class StaticInstance<T> implements Instance<T> {
+
+    /** A bean the Instance may return: its class, its qualifiers and the container method that returns it. */
+    public record Bean<T>(Class<?> type, Set<Class<? extends Annotation>> qualifiers, Supplier<? extends T> instance) {
+    }
+
+    private final List<Bean<? extends T>> beans;
+
+    public StaticInstance(List<Bean<? extends T>> beans) {
+        this.beans = List.copyOf(beans);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        Iterator<Bean<? extends T>> iterator = beans.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return iterator.next().instance().get();
+            }
+        };
+    }
+
+    @Override
+    public T get() {
+        if (beans.isEmpty()) {
+            throw new UnsatisfiedResolutionException("No bean to get");
+        }
+        if (beans.size() > 1) {
+            throw new AmbiguousResolutionException(beans.size() + " beans to get from");
+        }
+        return beans.get(0).instance().get();
+    }
+
+    @Override
+    public boolean isUnsatisfied() {
+        return beans.isEmpty();
+    }
+
+    @Override
+    public boolean isAmbiguous() {
+        return beans.size() > 1;
+    }
+
+    @Override
+    public Instance<T> select(Annotation... qualifiers) {
+        return narrow(Object.class, qualifiers);
+    }
+
+    @Override
+    public <U extends T> Instance<U> select(Class<U> subtype, Annotation... qualifiers) {
+        return narrow(subtype, qualifiers);
+    }
+
+    @Override
+    public <U extends T> Instance<U> select(TypeLiteral<U> subtype, Annotation... qualifiers) {
+        return narrow(subtype.getRawType(), qualifiers);
+    }
+
+    @Override
+    public void destroy(T instance) {
+        // Beans are destroyed when the container closes
+    }
+
+    @SuppressWarnings("unchecked")
+    private <U> Instance<U> narrow(Class<?> subtype, Annotation... qualifiers) {
+        List<Bean<? extends U>> selected = beans.stream()
+            .filter(bean -> subtype.isAssignableFrom(bean.type()) && qualified(bean, qualifiers))
+            .<Bean<? extends U>>map(bean -> (Bean<? extends U>) bean)
+            .toList();
+        return new StaticInstance<>(selected);
+    }
+
+    private static boolean qualified(Bean<?> bean, Annotation... qualifiers) {
+        for (Annotation qualifier : qualifiers) {
+            Class<? extends Annotation> type = qualifier.annotationType();
+            boolean matches = type == Any.class
+                || (type == Default.class ? bean.qualifiers().isEmpty() : bean.qualifiers().contains(type));
+            if (!matches) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,29 @@
+package mcp_demo.cdi;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Reads tool level annotations from a provider instance.
+ * CDI hands out client proxies for normal scoped beans, so the lookup walks up the class hierarchy
+ * until it reaches the actual bean class.
+ */
+public final class ToolMetadata {
+
+    private ToolMetadata() {
+    }
+
+    public static <A extends Annotation> A find(Class<?> type, Class<A> annotationType) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            A annotation = c.getAnnotation(annotationType);
+            if (annotation != null) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    public static boolean isBlocking(ToolProvider provider) {
+        McpTool mcpTool = find(provider.getClass(), McpTool.class);
+        return mcpTool != null && mcpTool.blocking();
+    }
+}
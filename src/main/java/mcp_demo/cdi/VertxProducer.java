@@ -0,0 +1,50 @@
+package mcp_demo.cdi;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.metrics.MetricsOptions;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Disposes;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import mcp_demo.metrics.PoolMetricsCollector;
+
+/**
+ * Produces the single Vertx instance shared by the verticles, the MCP transport and the MySQL pool.
+ * Every Vertx owns its own event-loop threads, so creating more than one only adds threads
+ * that compete for the same cores. With MCP_CLUSTERED=true it joins a cluster.
+ */
+@ApplicationScoped
+public class VertxProducer {
+
+    @Produces
+    @Singleton
+    public Vertx createVertx(PoolMetricsCollector poolMetrics) {
+        VertxOptions options = new VertxOptions()
+            .setEventLoopPoolSize(eventLoopPoolSize())
+            .setMetricsOptions(new MetricsOptions().setEnabled(true));
+        var builder = Vertx.builder()
+            .with(options)
+            .withMetrics(poolMetrics.metricsFactory());
+        if (clustered()) {
+            // The cluster manager on the classpath (Hazelcast) finds the other nodes
+            return builder.buildClustered().toCompletionStage().toCompletableFuture().join();
+        }
+        return builder.build();
+    }
+
+    /** MCP_CLUSTERED=true joins the other nodes, which then share MCP sessions over the event bus. */
+    public static boolean clustered() {
+        return Boolean.parseBoolean(System.getenv().getOrDefault("MCP_CLUSTERED", "false"));
+    }
+
+    /** Event-loop threads of the shared Vertx: MCP_EVENT_LOOPS, or the Vert.x default of 2 x cores. */
+    public static int eventLoopPoolSize() {
+        String eventLoops = System.getenv("MCP_EVENT_LOOPS");
+        return eventLoops != null ? Integer.parseInt(eventLoops) : VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE;
+    }
+
+    public void closeVertx(@Disposes Vertx vertx) {
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+}
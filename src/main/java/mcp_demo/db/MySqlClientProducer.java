@@ -1,5 +1,8 @@
 package mcp_demo.db;
 
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 import io.vertx.core.Vertx;
 import io.vertx.mysqlclient.MySQLBuilder;
 import io.vertx.mysqlclient.MySQLConnectOptions;
@@ -10,31 +13,66 @@ import jakarta.enterprise.inject.Disposes;
 import jakarta.enterprise.inject.Produces;
 import jakarta.inject.Singleton;
 
+/**
+ * Produces the MySQL pool, configured from the environment. The wait queue and the connection timeout
+ * are bounded so that a saturated pool fails calls fast (see {@link PoolErrors}) instead of queueing them.
+ * A connection timeout fails with {@link PoolTimeoutException} (see {@link TimedPool}).
+ * Usage and wait-time stats are collected under the pool name {@link #POOL_NAME}.
+ *
+ * Use pool.withConnection(...) in tools: the one-shot pool.query(...) does not apply the connection timeout.
+ */
 @ApplicationScoped
 public class MySqlClientProducer {
 
+    public static final String POOL_NAME = "mcp-mysql";
+
     @Produces
     @Singleton
-    public Pool createMySqlPool() {
-        MySQLConnectOptions connectOptions = new MySQLConnectOptions()
-            .setHost("127.0.0.1")
-            .setPort(3306)
-            .setDatabase("mcp_demo")
-            .setUser("cubeguerrero")
-            .setPassword("password");
-
-        PoolOptions poolOptions = new PoolOptions()
-            .setMaxSize(5);
-
-        return MySQLBuilder.pool()
-            .with(poolOptions)
-            .connectingTo(connectOptions)
-            .using(Vertx.vertx())
-            .build();
+    public Pool createMySqlPool(Vertx vertx) {
+        return pool(vertx, System.getenv());
     }
 
     public void closeMySqlPool(@Disposes Pool pool) {
         pool.close();
     }
-}
 
+    static Pool pool(Vertx vertx, Map<String, String> env) {
+        PoolOptions options = poolOptions(env);
+        Pool pool = MySQLBuilder.pool()
+            .with(options)
+            .connectingTo(connectOptions(env))
+            .using(vertx)
+            .build();
+        return options.getConnectionTimeout() > 0 ? new TimedPool(pool, vertx, options.getConnectionTimeout()) : pool;
+    }
+
+    static MySQLConnectOptions connectOptions(Map<String, String> env) {
+        int statementCacheSize = Integer.parseInt(env.getOrDefault("MYSQL_PREPARED_STATEMENT_CACHE_SIZE", "256"));
+        return new MySQLConnectOptions()
+            .setHost(env.getOrDefault("MYSQL_HOST", "127.0.0.1"))
+            .setPort(Integer.parseInt(env.getOrDefault("MYSQL_PORT", "3306")))
+            .setDatabase(env.getOrDefault("MYSQL_DATABASE", "mcp_demo"))
+            .setUser(env.getOrDefault("MYSQL_USER", "cubeguerrero"))
+            .setPassword(env.getOrDefault("MYSQL_PASSWORD", "password"))
+            .setConnectTimeout(Integer.parseInt(env.getOrDefault("MYSQL_CONNECT_TIMEOUT_MS", "5000")))
+            // 0 disables the per-connection prepared statement cache
+            .setCachePreparedStatements(statementCacheSize > 0)
+            .setPreparedStatementCacheMaxSize(Math.max(statementCacheSize, 1));
+    }
+
+    static PoolOptions poolOptions(Map<String, String> env) {
+        return new PoolOptions()
+            .setName(POOL_NAME)
+            .setMaxSize(Integer.parseInt(env.getOrDefault("MYSQL_POOL_MAX_SIZE", "5")))
+            // -1 for an unbounded queue
+            .setMaxWaitQueueSize(Integer.parseInt(env.getOrDefault("MYSQL_POOL_MAX_WAIT_QUEUE", "50")))
+            // How long a request may wait for a connection before it fails, 0 to wait forever
+            .setConnectionTimeout(Integer.parseInt(env.getOrDefault("MYSQL_POOL_CONNECTION_TIMEOUT_MS", "2000")))
+            .setConnectionTimeoutUnit(TimeUnit.MILLISECONDS)
+            .setIdleTimeout(Integer.parseInt(env.getOrDefault("MYSQL_POOL_IDLE_TIMEOUT_S", "300")))
+            .setIdleTimeoutUnit(TimeUnit.SECONDS)
+            // Spread connections over that many event loops instead of the creating context, 0 for the Vert.x default
+            .setEventLoopSize(Integer.parseInt(env.getOrDefault("MYSQL_POOL_EVENT_LOOPS", "0")))
+            .setShared(Boolean.parseBoolean(env.getOrDefault("MYSQL_POOL_SHARED", "false")));
+    }
+}
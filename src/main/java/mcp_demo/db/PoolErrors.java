@@ -0,0 +1,45 @@
+package mcp_demo.db;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.vertx.core.http.ConnectionPoolTooBusyException;
+import mcp_demo.metrics.PoolStats;
+import reactor.core.publisher.Mono;
+
+/**
+ * Turns connection pool saturation into a tool error. When the wait queue is full or no connection
+ * became free within the connection timeout, the call returns an isError result the client can act on
+ * (back off, retry) instead of an opaque internal error.
+ */
+public final class PoolErrors {
+
+    private PoolErrors() {
+    }
+
+    /** True when the pool rejected the request: wait queue full or connection timeout. */
+    public static boolean isSaturated(Throwable e) {
+        return e instanceof ConnectionPoolTooBusyException || e instanceof PoolTimeoutException;
+    }
+
+    /** stats are the pool's {@link PoolStats}, corrected for queue overflows; null when not collected. */
+    public static McpServerFeatures.AsyncToolSpecification wrap(McpServerFeatures.AsyncToolSpecification spec, PoolStats stats) {
+        return McpServerFeatures.AsyncToolSpecification.builder()
+            .tool(spec.tool())
+            .callHandler((exchange, toolReq) -> spec.callHandler().apply(exchange, toolReq)
+                .onErrorResume(PoolErrors::isSaturated, e -> {
+                    if (stats != null && e instanceof ConnectionPoolTooBusyException) {
+                        stats.overflowed();
+                    }
+                    return Mono.just(saturated(e));
+                }))
+            .build();
+    }
+
+    static McpSchema.CallToolResult saturated(Throwable e) {
+        String reason = e instanceof ConnectionPoolTooBusyException ? e.getMessage() : "no connection available in time";
+        return McpSchema.CallToolResult.builder()
+            .addTextContent("Database is saturated (" + reason + "), retry later")
+            .isError(true)
+            .build();
+    }
+}
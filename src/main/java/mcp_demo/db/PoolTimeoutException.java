@@ -0,0 +1,14 @@
+package mcp_demo.db;
+
+/**
+ * Thrown when no pooled connection became available within the connection timeout (see {@link TimedPool}).
+ * Stack traces are not filled in, a saturated pool fails many calls at once.
+ */
+public class PoolTimeoutException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PoolTimeoutException(long timeoutMs) {
+        super("No connection available within " + timeoutMs + "ms", null, false, false);
+    }
+}
@@ -0,0 +1,108 @@
+package mcp_demo.db;
+
+import java.util.function.Function;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.PrepareOptions;
+import io.vertx.sqlclient.PreparedQuery;
+import io.vertx.sqlclient.Query;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.SqlConnection;
+
+/**
+ * A pool whose getConnection() (and so withConnection and withTransaction) fails with a
+ * {@link PoolTimeoutException} when no connection became available within the timeout.
+ *
+ * The pool fails its timed out waiters with an internal Vert.x exception, so the wait is timed here instead.
+ * The pool keeps its own connection timeout, which frees the waiter's queue slot and reports the rejection to
+ * the pool metrics: any failure at or past the deadline is a timeout. A connection that arrives after the
+ * caller gave up goes straight back to the pool.
+ */
+final class TimedPool implements Pool {
+
+    private final Pool pool;
+    private final Vertx vertx;
+    private final long timeoutMs;
+
+    TimedPool(Pool pool, Vertx vertx, long timeoutMs) {
+        this.pool = pool;
+        this.vertx = vertx;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public Future<SqlConnection> getConnection() {
+        Promise<SqlConnection> promise = Promise.promise();
+        long deadline = System.nanoTime() + timeoutMs * 1_000_000;
+        long timer = vertx.setTimer(timeoutMs, id -> promise.tryFail(new PoolTimeoutException(timeoutMs)));
+        pool.getConnection().onComplete(ar -> {
+            vertx.cancelTimer(timer);
+            if (ar.succeeded()) {
+                if (!promise.tryComplete(ar.result())) {
+                    ar.result().close();
+                }
+            } else {
+                promise.tryFail(System.nanoTime() - deadline >= 0 ? new PoolTimeoutException(timeoutMs) : ar.cause());
+            }
+        });
+        return promise.future();
+    }
+
+    @Deprecated
+    @Override
+    public void getConnection(Handler<AsyncResult<SqlConnection>> handler) {
+        getConnection().onComplete(handler);
+    }
+
+    @Override
+    public Query<RowSet<Row>> query(String sql) {
+        return pool.query(sql);
+    }
+
+    @Override
+    public PreparedQuery<RowSet<Row>> preparedQuery(String sql) {
+        return pool.preparedQuery(sql);
+    }
+
+    @Override
+    public PreparedQuery<RowSet<Row>> preparedQuery(String sql, PrepareOptions options) {
+        return pool.preparedQuery(sql, options);
+    }
+
+    @Deprecated
+    @Override
+    public Pool connectHandler(Handler<SqlConnection> handler) {
+        pool.connectHandler(handler);
+        return this;
+    }
+
+    @Deprecated
+    @Override
+    public Pool connectionProvider(Function<Context, Future<SqlConnection>> provider) {
+        pool.connectionProvider(provider);
+        return this;
+    }
+
+    @Override
+    public int size() {
+        return pool.size();
+    }
+
+    @Deprecated
+    @Override
+    public void close(Handler<AsyncResult<Void>> handler) {
+        pool.close().onComplete(handler);
+    }
+
+    @Override
+    public Future<Void> close() {
+        return pool.close();
+    }
+}
@@ -0,0 +1,69 @@
+package mcp_demo.dispatch;
+
+/**
+ * Concurrency limit adjusted from observed latency, after the gradient algorithm of Netflix's
+ * concurrency-limits: limit = limit * gradient + sqrt(limit), smoothed. The gradient is
+ * min(1, TOLERANCE * longRtt / shortRtt), so the limit shrinks as soon as recent latency rises
+ * above its long-term average and grows by about sqrt(limit) while latency holds. It does not grow
+ * while less than half of it is in use.
+ *
+ * Not thread-safe; {@link AdmissionController} updates it under its lock.
+ */
+final class AdaptiveLimit {
+
+    static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double SHORT_WEIGHT = 0.1;
+    private static final double LONG_WEIGHT = 1.0 / 500;
+
+    private final int max;
+    private double estimate;
+    private volatile int limit;
+
+    private double shortRtt;
+    private double longRtt;
+
+    AdaptiveLimit(int initial, int max) {
+        this.max = max;
+        this.estimate = Math.min(initial, max);
+        this.limit = (int) estimate;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    /** Records the latency of one completed call and returns the resulting gradient. */
+    double onSample(long rttNanos, int inFlight) {
+        double gradient = gradient(rttNanos);
+        update(gradient, inFlight);
+        return gradient;
+    }
+
+    /** Applies a gradient measured elsewhere (the global limit follows the gradients of the tools). */
+    void update(double gradient, int inFlight) {
+        // Application limited: latency says nothing about what a higher limit would do
+        if (gradient >= 1.0 && inFlight < estimate / 2) {
+            return;
+        }
+        double target = estimate * gradient + Math.sqrt(estimate);
+        estimate = Math.max(1, Math.min(max, estimate * (1 - SMOOTHING) + target * SMOOTHING));
+        limit = (int) estimate;
+    }
+
+    private double gradient(long rttNanos) {
+        if (longRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return 1.0;
+        }
+        shortRtt += (rttNanos - shortRtt) * SHORT_WEIGHT;
+        // Capped so that a sustained overload does not quickly become the new normal
+        longRtt += (Math.min(rttNanos, TOLERANCE * longRtt) - longRtt) * LONG_WEIGHT;
+        // Latency dropped well below the long-term average (e.g. after an incident): catch up faster
+        if (longRtt > 2 * shortRtt) {
+            longRtt *= 0.95;
+        }
+        return Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+    }
+}
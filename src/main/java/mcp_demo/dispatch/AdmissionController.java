@@ -0,0 +1,243 @@
+package mcp_demo.dispatch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema;
+import jakarta.enterprise.context.ApplicationScoped;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Admission control in front of tool handlers.
+ *
+ * A call runs when both the global and its tool's concurrency limit have room. Both limits adapt to the
+ * latency of completed calls ({@link AdaptiveLimit}). Otherwise the call waits in a bounded FIFO queue
+ * for up to MCP_ADMISSION_QUEUE_TIMEOUT_MS. A call that finds the queue full, or times out in it, fails
+ * immediately with a JSON-RPC {@link #OVERLOADED} error, so excess load is shed instead of piling up.
+ */
+@ApplicationScoped
+public class AdmissionController {
+
+    /** JSON-RPC server error code of rejected calls. */
+    public static final int OVERLOADED = -32000;
+
+    private final int toolInitialLimit;
+    private final int toolMaxLimit;
+    private final int queueCapacity;
+    private final long queueTimeoutMs;
+    private final AdaptiveLimit globalLimit;
+
+    private final Map<String, ToolLimiter> tools = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private final ArrayDeque<Call> queue = new ArrayDeque<>();
+    private volatile int inFlight;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public AdmissionController() {
+        this(Integer.parseInt(System.getenv().getOrDefault("MCP_CONCURRENCY_LIMIT", "400")),
+            Integer.parseInt(System.getenv().getOrDefault("MCP_CONCURRENCY_LIMIT_MAX", "2000")),
+            Integer.parseInt(System.getenv().getOrDefault("MCP_TOOL_CONCURRENCY_LIMIT", "100")),
+            Integer.parseInt(System.getenv().getOrDefault("MCP_TOOL_CONCURRENCY_LIMIT_MAX", "1000")),
+            Integer.parseInt(System.getenv().getOrDefault("MCP_ADMISSION_QUEUE", "200")),
+            Long.parseLong(System.getenv().getOrDefault("MCP_ADMISSION_QUEUE_TIMEOUT_MS", "5000")));
+    }
+
+    AdmissionController(int globalInitialLimit, int globalMaxLimit, int toolInitialLimit, int toolMaxLimit,
+            int queueCapacity, long queueTimeoutMs) {
+        this.globalLimit = new AdaptiveLimit(globalInitialLimit, globalMaxLimit);
+        this.toolInitialLimit = toolInitialLimit;
+        this.toolMaxLimit = toolMaxLimit;
+        this.queueCapacity = queueCapacity;
+        this.queueTimeoutMs = queueTimeoutMs;
+    }
+
+    public McpServerFeatures.AsyncToolSpecification wrap(McpServerFeatures.AsyncToolSpecification spec) {
+        var handler = spec.callHandler();
+        ToolLimiter tool = tools.computeIfAbsent(spec.tool().name(),
+            name -> new ToolLimiter(name, new AdaptiveLimit(toolInitialLimit, toolMaxLimit)));
+        return McpServerFeatures.AsyncToolSpecification.builder()
+            .tool(spec.tool())
+            .callHandler((exchange, toolReq) -> Mono.create(sink -> {
+                Call call = new Call(tool, () -> Mono.defer(() -> handler.apply(exchange, toolReq)), sink);
+                sink.onCancel(() -> cancel(call));
+                offer(call);
+            }))
+            .build();
+    }
+
+    public int limit() {
+        return globalLimit.limit();
+    }
+
+    public int inFlight() {
+        return inFlight;
+    }
+
+    public synchronized int queued() {
+        return queue.size();
+    }
+
+    public long admitted() {
+        return admitted.sum();
+    }
+
+    /** Calls rejected because the queue was full or they waited too long. */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public Collection<ToolLimiter> tools() {
+        return tools.values();
+    }
+
+    /** True when the call was shed by admission control. */
+    public static boolean isOverloaded(Throwable e) {
+        return e instanceof McpError error && error.getJsonRpcError() != null
+            && error.getJsonRpcError().code() == OVERLOADED;
+    }
+
+    private void offer(Call call) {
+        synchronized (this) {
+            if (hasRoom(call.tool)) {
+                acquire(call);
+            } else if (queue.size() < queueCapacity) {
+                queue.add(call);
+                call.timeout = Schedulers.parallel().schedule(() -> expire(call), queueTimeoutMs, TimeUnit.MILLISECONDS);
+                return;
+            } else {
+                call.rejectedBecause = "queue full";
+            }
+        }
+        if (call.rejectedBecause != null) {
+            reject(call);
+        } else {
+            start(call);
+        }
+    }
+
+    private boolean hasRoom(ToolLimiter tool) {
+        return inFlight < globalLimit.limit() && tool.inFlight < tool.limit();
+    }
+
+    private void acquire(Call call) {
+        inFlight++;
+        call.tool.inFlight++;
+    }
+
+    private void start(Call call) {
+        admitted.increment();
+        long startNanos = System.nanoTime();
+        // Subscribed here rather than by the caller, so the caller's context (the trace span) is passed on explicitly
+        Disposable running = call.execution.get()
+            .doFinally(signal -> release(call, signal, System.nanoTime() - startNanos))
+            .contextWrite(call.sink.contextView())
+            .subscribe(call.sink::success, call.sink::error, call.sink::success);
+        synchronized (this) {
+            if (!call.cancelled) {
+                call.running = running;
+                return;
+            }
+        }
+        // Cancelled while the handler was being subscribed
+        running.dispose();
+    }
+
+    private void release(Call call, SignalType signal, long latencyNanos) {
+        List<Call> next;
+        synchronized (this) {
+            if (signal == SignalType.ON_COMPLETE) {
+                // Only successful calls say something about capacity; failures are often fast rejections
+                double gradient = call.tool.limit.onSample(latencyNanos, call.tool.inFlight);
+                globalLimit.update(gradient, inFlight);
+            }
+            inFlight--;
+            call.tool.inFlight--;
+            next = drain();
+        }
+        next.forEach(this::start);
+    }
+
+    /** Queued calls that fit now, in arrival order. A call blocked by its tool limit does not block other tools. */
+    private List<Call> drain() {
+        List<Call> next = new ArrayList<>();
+        Iterator<Call> it = queue.iterator();
+        while (it.hasNext() && inFlight < globalLimit.limit()) {
+            Call call = it.next();
+            if (call.tool.inFlight < call.tool.limit()) {
+                it.remove();
+                call.timeout.dispose();
+                acquire(call);
+                next.add(call);
+            }
+        }
+        return next;
+    }
+
+    private void expire(Call call) {
+        synchronized (this) {
+            if (!queue.remove(call)) {
+                return;
+            }
+            call.rejectedBecause = "waited " + queueTimeoutMs + "ms";
+        }
+        reject(call);
+    }
+
+    private void cancel(Call call) {
+        Disposable running;
+        synchronized (this) {
+            call.cancelled = true;
+            if (queue.remove(call)) {
+                call.timeout.dispose();
+                return;
+            }
+            running = call.running;
+        }
+        // Disposing runs doFinally, which releases the slot
+        if (running != null) {
+            running.dispose();
+        }
+    }
+
+    private void reject(Call call) {
+        rejected.increment();
+        call.sink.error(McpError.builder(OVERLOADED)
+            .message("Server overloaded, retry later: tool " + call.tool.toolName() + " rejected (" + call.rejectedBecause
+                + ", concurrency limit " + call.tool.limit() + ", global limit " + globalLimit.limit() + ")")
+            .build());
+    }
+
+    private static final class Call {
+
+        final ToolLimiter tool;
+        final Supplier<Mono<McpSchema.CallToolResult>> execution;
+        final MonoSink<McpSchema.CallToolResult> sink;
+        Disposable timeout;
+        Disposable running;
+        String rejectedBecause;
+        boolean cancelled;
+
+        Call(ToolLimiter tool, Supplier<Mono<McpSchema.CallToolResult>> execution, MonoSink<McpSchema.CallToolResult> sink) {
+            this.tool = tool;
+            this.execution = execution;
+            this.sink = sink;
+        }
+    }
+}
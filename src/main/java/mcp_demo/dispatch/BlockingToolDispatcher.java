@@ -0,0 +1,55 @@
+package mcp_demo.dispatch;
+
+import java.util.concurrent.Executors;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Moves the call handler of blocking tools off the Vert.x event loop.
+ *
+ * MCP_BLOCKING_POOL selects the execution strategy:
+ * - "virtual" (default): one virtual thread per call
+ * - a number: bounded platform worker pool of that size
+ */
+@ApplicationScoped
+public class BlockingToolDispatcher {
+
+    private static final int QUEUED_TASK_CAP = 10_000;
+
+    private Scheduler scheduler;
+
+    @PostConstruct
+    void init() {
+        String pool = System.getenv().getOrDefault("MCP_BLOCKING_POOL", "virtual");
+        if ("virtual".equalsIgnoreCase(pool)) {
+            scheduler = Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "mcp-blocking");
+        } else {
+            scheduler = Schedulers.newBoundedElastic(Integer.parseInt(pool), QUEUED_TASK_CAP, "mcp-blocking");
+        }
+    }
+
+    /**
+     * Returns a copy of the specification whose handler is invoked on the blocking scheduler.
+     * The handler's Mono is subscribed there as well, so any Thread.sleep or JDBC call inside it
+     * only parks a worker thread while the event loop keeps serving other sessions.
+     */
+    public McpServerFeatures.AsyncToolSpecification offload(McpServerFeatures.AsyncToolSpecification spec) {
+        var handler = spec.callHandler();
+        return McpServerFeatures.AsyncToolSpecification.builder()
+            .tool(spec.tool())
+            .callHandler((exchange, toolReq) -> Mono.defer(() -> handler.apply(exchange, toolReq))
+                .subscribeOn(scheduler))
+            .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.dispose();
+    }
+}
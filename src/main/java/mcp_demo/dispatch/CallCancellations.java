@@ -0,0 +1,189 @@
+package mcp_demo.dispatch;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpStreamableServerSession;
+import io.modelcontextprotocol.spec.McpStreamableServerTransport;
+import io.modelcontextprotocol.spec.McpStreamableServerTransportProvider;
+import jakarta.enterprise.context.ApplicationScoped;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Handles notifications/cancelled, which the MCP SDK ignores: without this a tool keeps running after
+ * its client gave up.
+ *
+ * {@link #decorate} wraps the transport provider so that every session it creates tracks the response
+ * stream of each request in flight. A cancellation naming one of them disposes that stream, which cancels the
+ * tool handler's Mono up the chain: a queued call leaves admission control, delays are disposed and blocking
+ * workers are interrupted. No response is sent for a cancelled request.
+ */
+@ApplicationScoped
+public class CallCancellations {
+
+    public static final String METHOD_NOTIFICATION_CANCELLED = "notifications/cancelled";
+
+    private final LongAdder cancelled = new LongAdder();
+
+    public McpStreamableServerTransportProvider decorate(McpStreamableServerTransportProvider transportProvider) {
+        return new CancellableTransportProvider(transportProvider);
+    }
+
+    /** Requests cancelled by their client while in flight. */
+    public long cancelled() {
+        return cancelled.sum();
+    }
+
+    // JSON-RPC ids are strings or numbers; numbers may be read back as Integer or Long
+    private static Object key(Object requestId) {
+        return requestId instanceof Number number ? (Object) number.longValue() : requestId;
+    }
+
+    private final class CancellableTransportProvider implements McpStreamableServerTransportProvider {
+
+        private final McpStreamableServerTransportProvider delegate;
+
+        CancellableTransportProvider(McpStreamableServerTransportProvider delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void setSessionFactory(McpStreamableServerSession.Factory sessionFactory) {
+            delegate.setSessionFactory(initializeRequest -> {
+                var init = sessionFactory.startSession(initializeRequest);
+                return new McpStreamableServerSession.McpStreamableServerSessionInit(
+                    new CancellableSession(init.session(), initializeRequest), init.initResult());
+            });
+        }
+
+        @Override
+        public List<String> protocolVersions() {
+            return delegate.protocolVersions();
+        }
+
+        @Override
+        public Mono<Void> notifyClients(String method, Object params) {
+            return delegate.notifyClients(method, params);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
+        @Override
+        public Mono<Void> closeGracefully() {
+            return delegate.closeGracefully();
+        }
+    }
+
+    /**
+     * Forwards everything to the session created by the SDK. The state inherited from McpStreamableServerSession
+     * is never used; subclassing is the only way to hand a different session to the transport.
+     */
+    private final class CancellableSession extends McpStreamableServerSession {
+
+        private final McpStreamableServerSession delegate;
+        private final Map<Object, Sinks.Empty<Void>> inFlight = new ConcurrentHashMap<>();
+
+        CancellableSession(McpStreamableServerSession delegate, McpSchema.InitializeRequest initializeRequest) {
+            super(delegate.getId(), initializeRequest.capabilities(), initializeRequest.clientInfo(), Duration.ZERO,
+                Map.of(), Map.of());
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Mono<Void> responseStream(McpSchema.JSONRPCRequest request, McpStreamableServerTransport transport) {
+            Object id = key(request.id());
+            return Mono.defer(() -> {
+                Sinks.Empty<Void> cancel = Sinks.empty();
+                inFlight.put(id, cancel);
+                return Mono.firstWithSignal(delegate.responseStream(request, transport),
+                        cancel.asMono().then(Mono.defer(transport::closeGracefully)))
+                    .doFinally(signal -> inFlight.remove(id, cancel));
+            });
+        }
+
+        @Override
+        public Mono<Void> accept(McpSchema.JSONRPCNotification notification) {
+            if (!METHOD_NOTIFICATION_CANCELLED.equals(notification.method())) {
+                return delegate.accept(notification);
+            }
+            return Mono.fromRunnable(() -> {
+                if (!(notification.params() instanceof Map<?, ?> params)) {
+                    return;
+                }
+                Sinks.Empty<Void> cancel = inFlight.remove(key(params.get("requestId")));
+                // Unknown ids are fine: the request may have completed while the notification was on its way.
+                // The cancelled tool call is counted in its ToolStats when the stream disposes it.
+                if (cancel != null) {
+                    cancelled.increment();
+                    cancel.tryEmitEmpty();
+                }
+            });
+        }
+
+        @Override
+        public Mono<Void> accept(McpSchema.JSONRPCResponse response) {
+            return delegate.accept(response);
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public void setMinLoggingLevel(McpSchema.LoggingLevel minLoggingLevel) {
+            delegate.setMinLoggingLevel(minLoggingLevel);
+        }
+
+        @Override
+        public boolean isNotificationForLevelAllowed(McpSchema.LoggingLevel loggingLevel) {
+            return delegate.isNotificationForLevelAllowed(loggingLevel);
+        }
+
+        @Override
+        public <T> Mono<T> sendRequest(String method, Object requestParams, TypeReference<T> typeRef) {
+            return delegate.sendRequest(method, requestParams, typeRef);
+        }
+
+        @Override
+        public Mono<Void> sendNotification(String method, Object params) {
+            return delegate.sendNotification(method, params);
+        }
+
+        @Override
+        public Mono<Void> delete() {
+            return delegate.delete();
+        }
+
+        @Override
+        public McpStreamableServerSessionStream listeningStream(McpStreamableServerTransport transport) {
+            return delegate.listeningStream(transport);
+        }
+
+        @Override
+        public Flux<McpSchema.JSONRPCMessage> replay(Object lastEventId) {
+            return delegate.replay(lastEventId);
+        }
+
+        @Override
+        public Mono<Void> closeGracefully() {
+            return delegate.closeGracefully();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package mcp_demo.dispatch;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import jakarta.enterprise.context.ApplicationScoped;
+import mcp_demo.cache.CallKey;
+import mcp_demo.cdi.ToolMetadata;
+import mcp_demo.cdi.ToolProvider;
+import mcp_demo.progress.ProgressReporter;
+import reactor.core.publisher.Mono;
+
+/**
+ * Single-flight stage for {@link Coalesce} tools.
+ *
+ * The first call for a given tool and normalized arguments runs the handler; calls with the same key that
+ * arrive while it is in flight, from any session, subscribe to the same result instead of running the handler
+ * again. The shared execution belongs to no session, so the handler gets a null exchange. Calls asking for
+ * progress need their own exchange and always run on their own. Nothing is kept once the execution
+ * terminates, so this is not a cache. If every caller cancels, the shared execution is cancelled too.
+ */
+@ApplicationScoped
+public class CallCoalescer {
+
+    private final Map<String, Mono<McpSchema.CallToolResult>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Wraps the provider's specification if the provider is annotated with {@link Coalesce},
+     * otherwise returns the specification unchanged.
+     */
+    public McpServerFeatures.AsyncToolSpecification wrap(ToolProvider provider, McpServerFeatures.AsyncToolSpecification spec) {
+        Coalesce coalesce = ToolMetadata.find(provider.getClass(), Coalesce.class);
+        if (coalesce == null) {
+            return spec;
+        }
+        return wrap(spec, Set.of(coalesce.ignoredArguments()));
+    }
+
+    public McpServerFeatures.AsyncToolSpecification wrap(McpServerFeatures.AsyncToolSpecification spec, Set<String> ignoredArguments) {
+        var handler = spec.callHandler();
+        String toolName = spec.tool().name();
+        return McpServerFeatures.AsyncToolSpecification.builder()
+            .tool(spec.tool())
+            .callHandler((exchange, toolReq) -> Mono.defer(() -> {
+                if (ProgressReporter.of(exchange, toolReq).isRequested()) {
+                    return handler.apply(exchange, toolReq);
+                }
+                String key = CallKey.of(toolName, toolReq.arguments(), ignoredArguments);
+                Mono<McpSchema.CallToolResult> flight = inFlight.get(key);
+                if (flight != null) {
+                    coalesced.increment();
+                    return flight;
+                }
+                return inFlight.computeIfAbsent(key, k -> {
+                    executions.increment();
+                    return newFlight(k, Mono.defer(() -> handler.apply(null, toolReq)));
+                });
+            }))
+            .build();
+    }
+
+    /** Number of handler executions started by this stage. */
+    public long executions() {
+        return executions.sum();
+    }
+
+    /** Number of calls that joined an execution already in flight. */
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private Mono<McpSchema.CallToolResult> newFlight(String key, Mono<McpSchema.CallToolResult> execution) {
+        // publish().refCount(1) connects on the first subscriber and cancels the upstream once all
+        // subscribers are gone; Mono.share() would keep running after every caller has left.
+        // The entry is removed before the result reaches the callers: a call arriving after that must start
+        // a new execution, not join a flight whose upstream has already completed. doFinally covers cancellation,
+        // and removing by value never drops a newer flight registered under the same key.
+        var self = new AtomicReference<Mono<McpSchema.CallToolResult>>();
+        Runnable land = () -> inFlight.remove(key, self.get());
+        Mono<McpSchema.CallToolResult> flight = execution
+            .doOnTerminate(land)
+            .doFinally(signal -> land.run())
+            .flux()
+            .publish()
+            .refCount(1)
+            .next();
+        self.set(flight);
+        return flight;
+    }
+}
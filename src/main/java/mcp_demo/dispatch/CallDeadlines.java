@@ -0,0 +1,76 @@
+package mcp_demo.dispatch;
+
+import java.time.Duration;
+import java.util.Map;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema;
+import jakarta.enterprise.context.ApplicationScoped;
+import mcp_demo.cdi.ToolMetadata;
+import mcp_demo.cdi.ToolProvider;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bounds how long a tool call may take, including the time it waits for admission.
+ *
+ * The deadline of a call is the tool's default ({@link Deadline}, else MCP_TOOL_DEADLINE_MS), shortened by
+ * the client with "timeoutMs" in the request's _meta. A client can not extend it. Once it passes, the handler's
+ * Mono is cancelled, which disposes pending delays and interrupts blocking workers, and the call fails
+ * with a JSON-RPC {@link #DEADLINE_EXCEEDED} error.
+ */
+@ApplicationScoped
+public class CallDeadlines {
+
+    /** JSON-RPC server error code of calls that ran past their deadline. */
+    public static final int DEADLINE_EXCEEDED = -32001;
+
+    /** Key in the request's _meta of a client supplied timeout in milliseconds. */
+    public static final String TIMEOUT_META = "timeoutMs";
+
+    private final long defaultMillis;
+
+    public CallDeadlines() {
+        this(Long.parseLong(System.getenv().getOrDefault("MCP_TOOL_DEADLINE_MS", "30000")));
+    }
+
+    CallDeadlines(long defaultMillis) {
+        this.defaultMillis = defaultMillis;
+    }
+
+    public McpServerFeatures.AsyncToolSpecification wrap(ToolProvider provider, McpServerFeatures.AsyncToolSpecification spec) {
+        Deadline deadline = ToolMetadata.find(provider.getClass(), Deadline.class);
+        return wrap(spec, deadline != null ? deadline.millis() : defaultMillis);
+    }
+
+    public McpServerFeatures.AsyncToolSpecification wrap(McpServerFeatures.AsyncToolSpecification spec, long toolMillis) {
+        var handler = spec.callHandler();
+        String toolName = spec.tool().name();
+        return McpServerFeatures.AsyncToolSpecification.builder()
+            .tool(spec.tool())
+            .callHandler((exchange, toolReq) -> Mono.defer(() -> {
+                Mono<McpSchema.CallToolResult> call = Mono.defer(() -> handler.apply(exchange, toolReq));
+                long millis = deadline(toolMillis, toolReq.meta());
+                if (millis <= 0) {
+                    return call;
+                }
+                return call.timeout(Duration.ofMillis(millis), Mono.error(() -> McpError.builder(DEADLINE_EXCEEDED)
+                    .message("Tool " + toolName + " did not complete within its deadline of " + millis + "ms")
+                    .build()));
+            }))
+            .build();
+    }
+
+    public static boolean isDeadlineExceeded(Throwable e) {
+        return e instanceof McpError error && error.getJsonRpcError() != null
+            && error.getJsonRpcError().code() == DEADLINE_EXCEEDED;
+    }
+
+    static long deadline(long toolMillis, Map<String, Object> meta) {
+        Object requested = meta == null ? null : meta.get(TIMEOUT_META);
+        if (!(requested instanceof Number number) || number.longValue() <= 0) {
+            return toolMillis;
+        }
+        return toolMillis > 0 ? Math.min(toolMillis, number.longValue()) : number.longValue();
+    }
+}
@@ -0,0 +1,19 @@
+package mcp_demo.dispatch;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lets concurrent identical calls of a tool share a single execution, see {@link CallCoalescer}.
+ * Only put this on tools without side effects, since followers never run the handler themselves.
+ * A shared execution serves callers of several sessions, so its handler gets a null exchange.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Coalesce {
+
+    /** Top-level arguments that do not influence the result and are left out of the coalescing key. */
+    String[] ignoredArguments() default {};
+}
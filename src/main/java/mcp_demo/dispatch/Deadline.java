@@ -0,0 +1,17 @@
+package mcp_demo.dispatch;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Default deadline of a tool's calls, replacing MCP_TOOL_DEADLINE_MS for this tool, see {@link CallDeadlines}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Deadline {
+
+    /** Milliseconds from the start of a call until it is cancelled, 0 for no deadline. */
+    long millis();
+}
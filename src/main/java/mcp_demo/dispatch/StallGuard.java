@@ -0,0 +1,167 @@
+package mcp_demo.dispatch;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.vertx.core.Context;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import reactor.core.publisher.Mono;
+
+/**
+ * Finds tools that block the event loop, and moves them off it.
+ *
+ * Tools not declared blocking are wrapped by this stage instead of the {@link BlockingToolDispatcher}. While such a
+ * handler runs on an event loop (building its Mono and subscribing to it, which is where synchronous work happens),
+ * the loop is marked with the tool. A run longer than MCP_STALL_THRESHOLD_MS counts as a stall of that tool. A
+ * watchdog thread checks the marks every MCP_STALL_CHECK_MS and captures the event-loop stack of a stall in progress.
+ *
+ * After MCP_STALL_QUARANTINE_AFTER stalls (0 never) the tool is quarantined: its later calls go through the blocking
+ * dispatcher, so one misbehaving tool no longer holds up the other sessions on its event loop.
+ */
+@ApplicationScoped
+public class StallGuard {
+
+    @Inject
+    BlockingToolDispatcher blockingToolDispatcher;
+
+    private final long thresholdNanos;
+    private final long checkIntervalMs;
+    private final int quarantineAfter;
+    private final Map<String, ToolStalls> tools = new ConcurrentHashMap<>();
+    private final Map<Thread, Mark> marks = new ConcurrentHashMap<>();
+    private final ThreadLocal<Mark> mark = ThreadLocal.withInitial(() -> marks.computeIfAbsent(Thread.currentThread(), Mark::new));
+
+    private volatile boolean watching;
+    private Thread watchdog;
+
+    public StallGuard() {
+        this(Long.parseLong(System.getenv().getOrDefault("MCP_STALL_THRESHOLD_MS", "200")),
+            Long.parseLong(System.getenv().getOrDefault("MCP_STALL_CHECK_MS", "50")),
+            Integer.parseInt(System.getenv().getOrDefault("MCP_STALL_QUARANTINE_AFTER", "3")));
+    }
+
+    StallGuard(long thresholdMs, long checkIntervalMs, int quarantineAfter) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.checkIntervalMs = checkIntervalMs;
+        this.quarantineAfter = quarantineAfter;
+    }
+
+    @PostConstruct
+    void start() {
+        watching = true;
+        watchdog = Thread.ofPlatform().daemon().name("mcp-stall-watchdog").start(this::watch);
+    }
+
+    @PreDestroy
+    void stop() {
+        watching = false;
+        if (watchdog != null) {
+            watchdog.interrupt();
+        }
+    }
+
+    public McpServerFeatures.AsyncToolSpecification wrap(McpServerFeatures.AsyncToolSpecification spec) {
+        var handler = spec.callHandler();
+        var offloaded = blockingToolDispatcher.offload(spec).callHandler();
+        ToolStalls stalls = tools.computeIfAbsent(spec.tool().name(), ToolStalls::new);
+        return McpServerFeatures.AsyncToolSpecification.builder()
+            .tool(spec.tool())
+            .callHandler((exchange, toolReq) -> {
+                if (stalls.quarantined()) {
+                    return offloaded.apply(exchange, toolReq);
+                }
+                Mono<McpSchema.CallToolResult> call = Mono.defer(() -> handler.apply(exchange, toolReq));
+                return Mono.<McpSchema.CallToolResult>fromDirect(subscriber -> {
+                    if (!Context.isOnEventLoopThread()) {
+                        call.subscribe(subscriber);
+                        return;
+                    }
+                    Mark loop = mark.get();
+                    ToolStalls previous = loop.tool;
+                    long previousSince = loop.since;
+                    long start = System.nanoTime();
+                    loop.since = start;
+                    loop.tool = stalls;
+                    try {
+                        call.subscribe(subscriber);
+                    } finally {
+                        loop.tool = previous;
+                        loop.since = previousSince;
+                        long elapsed = System.nanoTime() - start;
+                        if (elapsed > thresholdNanos) {
+                            stalled(stalls, elapsed);
+                        }
+                    }
+                });
+            })
+            .build();
+    }
+
+    public Collection<ToolStalls> tools() {
+        return tools.values();
+    }
+
+    private void stalled(ToolStalls stalls, long nanos) {
+        stalls.stalled(nanos);
+        if (quarantineAfter > 0 && stalls.stalls() >= quarantineAfter && stalls.quarantine()) {
+            System.out.println("Tool " + stalls.toolName() + " stalled the event loop " + stalls.stalls()
+                + " times, its calls now run on the blocking dispatcher");
+        }
+    }
+
+    private void watch() {
+        while (watching) {
+            try {
+                Thread.sleep(checkIntervalMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long now = System.nanoTime();
+            for (Mark loop : marks.values()) {
+                ToolStalls tool = loop.tool;
+                long since = loop.since;
+                if (tool == null || since == loop.reportedSince || now - since <= thresholdNanos) {
+                    continue;
+                }
+                String stack = stack(loop.thread.getStackTrace());
+                // The tool may have returned while the stack was taken
+                if (loop.tool != tool || loop.since != since) {
+                    continue;
+                }
+                loop.reportedSince = since;
+                tool.captured(stack);
+                System.out.println("Event loop " + loop.thread.getName() + " blocked for "
+                    + TimeUnit.NANOSECONDS.toMillis(now - since) + "ms by tool " + tool.toolName() + "\n" + stack);
+            }
+        }
+    }
+
+    private static String stack(StackTraceElement[] frames) {
+        StringBuilder sb = new StringBuilder(1024);
+        for (StackTraceElement frame : frames) {
+            sb.append("\tat ").append(frame).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /** The tool an event loop is running synchronously, if any. */
+    private static final class Mark {
+
+        final Thread thread;
+        volatile ToolStalls tool;
+        volatile long since;
+        // Watchdog only
+        long reportedSince;
+
+        Mark(Thread thread) {
+            this.thread = thread;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package mcp_demo.dispatch;
+
+/**
+ * Admission state of one tool: its adaptive limit and the calls it currently runs.
+ * Mutated by {@link AdmissionController} under its lock, read without it by the metrics.
+ */
+public final class ToolLimiter {
+
+    private final String toolName;
+    final AdaptiveLimit limit;
+    volatile int inFlight;
+
+    ToolLimiter(String toolName, AdaptiveLimit limit) {
+        this.toolName = toolName;
+        this.limit = limit;
+    }
+
+    public String toolName() {
+        return toolName;
+    }
+
+    public int limit() {
+        return limit.limit();
+    }
+
+    public int inFlight() {
+        return inFlight;
+    }
+}
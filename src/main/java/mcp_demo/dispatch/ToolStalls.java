@@ -0,0 +1,67 @@
+package mcp_demo.dispatch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Event-loop stalls of one tool, as attributed by {@link StallGuard}, and whether its calls were quarantined to the
+ * blocking dispatcher because of them.
+ */
+public final class ToolStalls {
+
+    private final String toolName;
+    private final LongAdder stalls = new LongAdder();
+    private final LongAdder stalledNanos = new LongAdder();
+    private final AtomicLong maxStallNanos = new AtomicLong();
+    private volatile boolean quarantined;
+    private volatile String lastStack;
+
+    ToolStalls(String toolName) {
+        this.toolName = toolName;
+    }
+
+    public String toolName() {
+        return toolName;
+    }
+
+    public long stalls() {
+        return stalls.sum();
+    }
+
+    /** Total time its stalls held the event loop. */
+    public long stalledNanos() {
+        return stalledNanos.sum();
+    }
+
+    public long maxStallNanos() {
+        return maxStallNanos.get();
+    }
+
+    public boolean quarantined() {
+        return quarantined;
+    }
+
+    /** Stack of the event loop captured during the last stall caught in progress, null if none was. */
+    public String lastStack() {
+        return lastStack;
+    }
+
+    void stalled(long nanos) {
+        stalls.increment();
+        stalledNanos.add(nanos);
+        maxStallNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void captured(String stack) {
+        lastStack = stack;
+    }
+
+    /** True for the call that quarantined the tool. */
+    synchronized boolean quarantine() {
+        if (quarantined) {
+            return false;
+        }
+        quarantined = true;
+        return true;
+    }
+}
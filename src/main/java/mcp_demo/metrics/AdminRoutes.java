@@ -0,0 +1,102 @@
+package mcp_demo.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.sqlclient.Pool;
+import mcp_demo.dispatch.StallGuard;
+import mcp_demo.dispatch.ToolStalls;
+
+/**
+ * GET /metrics (Prometheus text format), GET /health and GET /stalls, mounted on the admin port and,
+ * with the buffer transport, next to /mcp on the MCP port.
+ *
+ * /health answers 200 with status UP when the worst event-loop lag is below MCP_HEALTH_MAX_LAG_MS
+ * (default 1000) and MySQL answers SELECT 1 within a second, 503 with status DOWN otherwise.
+ * /stalls lists, per tool, the event-loop stalls attributed to it with the last captured stack.
+ */
+public final class AdminRoutes {
+
+    private static final long DB_CHECK_TIMEOUT_MS = 1000;
+
+    private final PrometheusWriter prometheusWriter;
+    private final EventLoopMonitor eventLoopMonitor;
+    private final StallGuard stallGuard;
+    private final Pool pool;
+    private final long maxLagNanos;
+
+    public AdminRoutes(PrometheusWriter prometheusWriter, EventLoopMonitor eventLoopMonitor, StallGuard stallGuard, Pool pool) {
+        this.prometheusWriter = prometheusWriter;
+        this.eventLoopMonitor = eventLoopMonitor;
+        this.stallGuard = stallGuard;
+        this.pool = pool;
+        this.maxLagNanos = TimeUnit.MILLISECONDS.toNanos(
+            Long.parseLong(System.getenv().getOrDefault("MCP_HEALTH_MAX_LAG_MS", "1000")));
+    }
+
+    public void mount(Router router) {
+        router.get("/metrics").handler(ctx -> ctx.response()
+            .putHeader("Content-Type", "text/plain; version=0.0.4; charset=utf-8")
+            .end(prometheusWriter.scrape()));
+        router.get("/health").handler(this::health);
+        router.get("/stalls").handler(this::stalls);
+    }
+
+    private void health(RoutingContext ctx) {
+        long lagNanos = eventLoopMonitor.currentMaxLagNanos();
+        boolean eventLoopUp = lagNanos < maxLagNanos;
+
+        checkDatabase(ctx.vertx()).onComplete(db -> {
+            boolean dbUp = db.succeeded();
+            JsonObject body = new JsonObject()
+                .put("status", eventLoopUp && dbUp ? "UP" : "DOWN")
+                .put("eventLoop", new JsonObject()
+                    .put("status", eventLoopUp ? "UP" : "DOWN")
+                    .put("maxLagMs", TimeUnit.NANOSECONDS.toMillis(lagNanos)))
+                .put("mysql", new JsonObject()
+                    .put("status", dbUp ? "UP" : "DOWN")
+                    .put("error", dbUp ? null : String.valueOf(db.cause().getMessage())));
+            ctx.response()
+                .setStatusCode(eventLoopUp && dbUp ? 200 : 503)
+                .putHeader("Content-Type", "application/json")
+                .end(body.encode());
+        });
+    }
+
+    private void stalls(RoutingContext ctx) {
+        JsonArray tools = new JsonArray();
+        for (ToolStalls tool : stallGuard.tools()) {
+            tools.add(new JsonObject()
+                .put("tool", tool.toolName())
+                .put("stalls", tool.stalls())
+                .put("maxStallMs", TimeUnit.NANOSECONDS.toMillis(tool.maxStallNanos()))
+                .put("quarantined", tool.quarantined())
+                .put("lastStack", tool.lastStack()));
+        }
+        ctx.response()
+            .putHeader("Content-Type", "application/json")
+            .end(tools.encode());
+    }
+
+    private Future<Void> checkDatabase(Vertx vertx) {
+        Promise<Void> promise = Promise.promise();
+        long timer = vertx.setTimer(DB_CHECK_TIMEOUT_MS,
+            id -> promise.tryFail("No answer within " + DB_CHECK_TIMEOUT_MS + "ms"));
+        // withConnection, unlike the one-shot pool.query(), honors the pool's connection timeout
+        pool.withConnection(connection -> connection.query("SELECT 1").execute()).onComplete(ar -> {
+            vertx.cancelTimer(timer);
+            if (ar.succeeded()) {
+                promise.tryComplete();
+            } else {
+                promise.tryFail(ar.cause());
+            }
+        });
+        return promise.future();
+    }
+}
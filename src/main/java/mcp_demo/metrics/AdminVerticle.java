@@ -0,0 +1,31 @@
+package mcp_demo.metrics;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Promise;
+import io.vertx.ext.web.Router;
+
+/**
+ * Serves the {@link AdminRoutes} on the admin port, whichever transport serves MCP.
+ */
+public class AdminVerticle extends AbstractVerticle {
+
+    private final int port;
+    private final AdminRoutes routes;
+
+    public AdminVerticle(int port, AdminRoutes routes) {
+        this.port = port;
+        this.routes = routes;
+    }
+
+    @Override
+    public void start(Promise<Void> startPromise) {
+        Router router = Router.router(vertx);
+        routes.mount(router);
+
+        vertx.createHttpServer()
+            .requestHandler(router)
+            .listen(port)
+            .<Void>mapEmpty()
+            .onComplete(startPromise);
+    }
+}
@@ -0,0 +1,66 @@
+package mcp_demo.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Measures event-loop lag: how late a periodic timer fires compared to when it was due.
+ *
+ * One probe verticle is deployed per event loop (Vert.x assigns verticle instances to event loops
+ * round robin). A lag close to the probe interval or above means handlers are hogging the loop.
+ */
+@ApplicationScoped
+public class EventLoopMonitor {
+
+    private static final long PROBE_INTERVAL_MS = 100;
+
+    private final Map<String, AtomicLong> lagByThread = new ConcurrentHashMap<>();
+    private final LatencyHistogram lag = new LatencyHistogram();
+
+    public Future<String> deploy(Vertx vertx, int eventLoops) {
+        return vertx.deployVerticle(Probe::new, new DeploymentOptions().setInstances(eventLoops));
+    }
+
+    /** Last measured lag per event-loop thread, in nanoseconds. */
+    public Map<String, AtomicLong> lagByThread() {
+        return lagByThread;
+    }
+
+    public LatencyHistogram lag() {
+        return lag;
+    }
+
+    /** Highest of the last measured lags across all event loops, in nanoseconds. */
+    public long currentMaxLagNanos() {
+        long max = 0;
+        for (AtomicLong value : lagByThread.values()) {
+            max = Math.max(max, value.get());
+        }
+        return max;
+    }
+
+    private class Probe extends AbstractVerticle {
+
+        @Override
+        public void start() {
+            AtomicLong gauge = lagByThread.computeIfAbsent(Thread.currentThread().getName(), name -> new AtomicLong());
+            long intervalNanos = TimeUnit.MILLISECONDS.toNanos(PROBE_INTERVAL_MS);
+            long[] expected = {System.nanoTime() + intervalNanos};
+            vertx.setPeriodic(PROBE_INTERVAL_MS, id -> {
+                long now = System.nanoTime();
+                long delay = Math.max(0, now - expected[0]);
+                gauge.set(delay);
+                lag.record(delay);
+                expected[0] = now + intervalNanos;
+            });
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package mcp_demo.metrics;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.vertx.core.VertxOptions;
+import io.vertx.core.spi.VertxMetricsFactory;
+import io.vertx.core.spi.metrics.PoolMetrics;
+import io.vertx.core.spi.metrics.VertxMetrics;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Plugs into the Vert.x metrics SPI to collect {@link PoolStats} for every pool Vert.x creates,
+ * most importantly the MySQL connection pool ("sql") and the worker pools ("worker").
+ */
+@ApplicationScoped
+public class PoolMetricsCollector {
+
+    private final Collection<PoolStats> pools = new CopyOnWriteArrayList<>();
+
+    /** Metrics factory to install with {@link io.vertx.core.VertxBuilder#withMetrics}. */
+    public VertxMetricsFactory metricsFactory() {
+        VertxMetrics vertxMetrics = new VertxMetrics() {
+            @Override
+            public PoolMetrics<?> createPoolMetrics(String poolType, String poolName, int maxPoolSize) {
+                PoolStats stats = new PoolStats(poolType, poolName, maxPoolSize);
+                pools.add(stats);
+                return stats;
+            }
+        };
+        return (VertxOptions options) -> vertxMetrics;
+    }
+
+    public Collection<PoolStats> pools() {
+        return pools;
+    }
+
+    /** Stats of the pool with that type and name, e.g. ("sql", {@link mcp_demo.db.MySqlClientProducer#POOL_NAME}). */
+    public Optional<PoolStats> find(String type, String name) {
+        return pools.stream().filter(pool -> type.equals(pool.type()) && name.equals(pool.name())).findFirst();
+    }
+}
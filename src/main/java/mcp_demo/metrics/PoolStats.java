@@ -0,0 +1,126 @@
+package mcp_demo.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import io.vertx.core.spi.metrics.PoolMetrics;
+
+/**
+ * Usage of a Vert.x managed pool (the MySQL connection pool, worker pools...), fed by the Vert.x metrics SPI.
+ * The token of a request is one mutable {@link Timing}, stamped at enqueue and again at acquisition,
+ * so timing a request costs one small allocation; reads go through primitive getters.
+ */
+public final class PoolStats implements PoolMetrics<PoolStats.Timing> {
+
+    private final String type;
+    private final String name;
+    private final int maxSize;
+
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder inUse = new LongAdder();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    private final LatencyHistogram usageTime = new LatencyHistogram();
+
+    PoolStats(String type, String name, int maxSize) {
+        this.type = type;
+        this.name = name;
+        this.maxSize = maxSize;
+    }
+
+    /** When a request entered the queue, then when it acquired its resource. */
+    static final class Timing {
+
+        private long nanos;
+
+        private Timing(long nanos) {
+            this.nanos = nanos;
+        }
+    }
+
+    @Override
+    public Timing submitted() {
+        queued.increment();
+        return new Timing(System.nanoTime());
+    }
+
+    @Override
+    public Timing begin(Timing t) {
+        long now = System.nanoTime();
+        queued.decrement();
+        inUse.increment();
+        acquired.increment();
+        if (t == null) {
+            return new Timing(now);
+        }
+        waitTime.record(now - t.nanos);
+        t.nanos = now;
+        return t;
+    }
+
+    @Override
+    public void rejected(Timing t) {
+        queued.decrement();
+        rejected.increment();
+        // Rejected requests waited too (connection timeout), keep them in the wait distribution
+        if (t != null) {
+            waitTime.record(System.nanoTime() - t.nanos);
+        }
+    }
+
+    /**
+     * Accounts a request refused because the wait queue was full. The SQL pool submits it to the metrics
+     * but never reports the rejection, so the caller that sees the failure reports it here.
+     */
+    public void overflowed() {
+        queued.decrement();
+        rejected.increment();
+    }
+
+    @Override
+    public void end(Timing t, boolean succeeded) {
+        inUse.decrement();
+        if (t != null) {
+            usageTime.record(System.nanoTime() - t.nanos);
+        }
+    }
+
+    public String type() {
+        return type;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /** Requests waiting for a pooled resource. */
+    public long queued() {
+        return queued.sum();
+    }
+
+    public long inUse() {
+        return inUse.sum();
+    }
+
+    public long acquired() {
+        return acquired.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /** Time from request to acquisition (or rejection). */
+    public LatencyHistogram waitTime() {
+        return waitTime;
+    }
+
+    /** Time a resource was held, from acquisition to release. */
+    public LatencyHistogram usageTime() {
+        return usageTime;
+    }
+}
@@ -0,0 +1,248 @@
+package mcp_demo.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import mcp_demo.audit.AuditLog;
+import mcp_demo.cache.CacheStats;
+import mcp_demo.cache.ToolResultCache;
+import mcp_demo.capture.TrafficCapture;
+import mcp_demo.dispatch.AdmissionController;
+import mcp_demo.dispatch.CallCancellations;
+import mcp_demo.dispatch.CallCoalescer;
+import mcp_demo.dispatch.StallGuard;
+import mcp_demo.dispatch.ToolLimiter;
+import mcp_demo.dispatch.ToolStalls;
+import mcp_demo.trace.Tracer;
+import mcp_demo.transport.TransportErrors;
+
+/**
+ * Renders all collected metrics in the Prometheus text exposition format (version 0.0.4).
+ * Only runs at scrape time, so it is free to allocate.
+ */
+@ApplicationScoped
+public class PrometheusWriter {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    @Inject
+    ToolMetrics toolMetrics;
+
+    @Inject
+    EventLoopMonitor eventLoopMonitor;
+
+    @Inject
+    PoolMetricsCollector poolMetrics;
+
+    @Inject
+    ToolResultCache toolResultCache;
+
+    @Inject
+    CallCoalescer callCoalescer;
+
+    @Inject
+    AdmissionController admissionController;
+
+    @Inject
+    StallGuard stallGuard;
+
+    @Inject
+    CallCancellations callCancellations;
+
+    @Inject
+    AuditLog auditLog;
+
+    @Inject
+    Tracer tracer;
+
+    @Inject
+    TrafficCapture trafficCapture;
+
+    @Inject
+    TransportErrors transportErrors;
+
+    public String scrape() {
+        StringBuilder sb = new StringBuilder(4096);
+
+        header(sb, "mcp_tool_calls_total", "counter", "Tool calls started");
+        for (ToolStats tool : toolMetrics.tools()) {
+            sample(sb, "mcp_tool_calls_total", "tool", tool.toolName(), tool.calls());
+        }
+        header(sb, "mcp_tool_errors_total", "counter", "Tool calls that failed or returned isError");
+        for (ToolStats tool : toolMetrics.tools()) {
+            sample(sb, "mcp_tool_errors_total", "tool", tool.toolName(), tool.errors());
+        }
+        header(sb, "mcp_tool_timeouts_total", "counter", "Tool calls that ran past their deadline");
+        for (ToolStats tool : toolMetrics.tools()) {
+            sample(sb, "mcp_tool_timeouts_total", "tool", tool.toolName(), tool.timeouts());
+        }
+        header(sb, "mcp_tool_cancelled_total", "counter", "Tool calls cancelled before they completed");
+        for (ToolStats tool : toolMetrics.tools()) {
+            sample(sb, "mcp_tool_cancelled_total", "tool", tool.toolName(), tool.cancellations());
+        }
+        header(sb, "mcp_tool_in_flight", "gauge", "Tool calls currently executing");
+        for (ToolStats tool : toolMetrics.tools()) {
+            sample(sb, "mcp_tool_in_flight", "tool", tool.toolName(), tool.inFlight());
+        }
+        header(sb, "mcp_tool_latency_seconds", "summary", "Tool call latency");
+        for (ToolStats tool : toolMetrics.tools()) {
+            summary(sb, "mcp_tool_latency_seconds", "tool=\"" + escape(tool.toolName()) + "\"", tool.latency().snapshot());
+        }
+
+        header(sb, "mcp_tool_stalls_total", "counter", "Event-loop stalls attributed to the tool");
+        for (ToolStalls tool : stallGuard.tools()) {
+            sample(sb, "mcp_tool_stalls_total", "tool", tool.toolName(), tool.stalls());
+        }
+        header(sb, "mcp_tool_stall_seconds_total", "counter", "Time the tool's stalls held the event loop");
+        for (ToolStalls tool : stallGuard.tools()) {
+            sample(sb, "mcp_tool_stall_seconds_total", "tool", tool.toolName(), seconds(tool.stalledNanos()));
+        }
+        header(sb, "mcp_tool_quarantined", "gauge", "1 when the tool was moved off the event loop for stalling it");
+        for (ToolStalls tool : stallGuard.tools()) {
+            sample(sb, "mcp_tool_quarantined", "tool", tool.toolName(), tool.quarantined() ? 1 : 0);
+        }
+
+        header(sb, "mcp_event_loop_lag_seconds", "gauge", "Last measured event-loop lag");
+        for (Map.Entry<String, AtomicLong> entry : eventLoopMonitor.lagByThread().entrySet()) {
+            sample(sb, "mcp_event_loop_lag_seconds", "thread", entry.getKey(), seconds(entry.getValue().get()));
+        }
+        header(sb, "mcp_event_loop_lag_distribution_seconds", "summary", "Event-loop lag over all probes");
+        summary(sb, "mcp_event_loop_lag_distribution_seconds", null, eventLoopMonitor.lag().snapshot());
+
+        header(sb, "vertx_pool_in_use", "gauge", "Pooled resources currently in use");
+        for (PoolStats pool : poolMetrics.pools()) {
+            pool(sb, "vertx_pool_in_use", pool, pool.inUse());
+        }
+        header(sb, "vertx_pool_queue_size", "gauge", "Requests waiting for a pooled resource");
+        for (PoolStats pool : poolMetrics.pools()) {
+            pool(sb, "vertx_pool_queue_size", pool, pool.queued());
+        }
+        header(sb, "vertx_pool_max_size", "gauge", "Maximum pool size");
+        for (PoolStats pool : poolMetrics.pools()) {
+            pool(sb, "vertx_pool_max_size", pool, pool.maxSize());
+        }
+        header(sb, "vertx_pool_acquired_total", "counter", "Pooled resources handed out");
+        for (PoolStats pool : poolMetrics.pools()) {
+            pool(sb, "vertx_pool_acquired_total", pool, pool.acquired());
+        }
+        header(sb, "vertx_pool_rejected_total", "counter", "Requests rejected by the pool");
+        for (PoolStats pool : poolMetrics.pools()) {
+            pool(sb, "vertx_pool_rejected_total", pool, pool.rejected());
+        }
+        header(sb, "vertx_pool_wait_seconds", "summary", "Time spent waiting for a pooled resource");
+        for (PoolStats pool : poolMetrics.pools()) {
+            summary(sb, "vertx_pool_wait_seconds", poolLabels(pool), pool.waitTime().snapshot());
+        }
+        header(sb, "vertx_pool_usage_seconds", "summary", "Time a pooled resource was held");
+        for (PoolStats pool : poolMetrics.pools()) {
+            summary(sb, "vertx_pool_usage_seconds", poolLabels(pool), pool.usageTime().snapshot());
+        }
+
+        CacheStats cache = toolResultCache.stats();
+        header(sb, "mcp_cache_hits_total", "counter", "Result cache hits");
+        sample(sb, "mcp_cache_hits_total", null, null, cache.hits());
+        header(sb, "mcp_cache_misses_total", "counter", "Result cache misses");
+        sample(sb, "mcp_cache_misses_total", null, null, cache.misses());
+        header(sb, "mcp_cache_evictions_total", "counter", "Result cache LRU evictions");
+        sample(sb, "mcp_cache_evictions_total", null, null, cache.evictions());
+        header(sb, "mcp_cache_expirations_total", "counter", "Result cache TTL expirations");
+        sample(sb, "mcp_cache_expirations_total", null, null, cache.expirations());
+        header(sb, "mcp_cache_size", "gauge", "Result cache entries");
+        sample(sb, "mcp_cache_size", null, null, cache.size());
+
+        header(sb, "mcp_admission_limit", "gauge", "Adaptive concurrency limit over all tools");
+        sample(sb, "mcp_admission_limit", null, null, admissionController.limit());
+        header(sb, "mcp_admission_in_flight", "gauge", "Admitted tool calls currently executing");
+        sample(sb, "mcp_admission_in_flight", null, null, admissionController.inFlight());
+        header(sb, "mcp_admission_queued", "gauge", "Tool calls waiting for admission");
+        sample(sb, "mcp_admission_queued", null, null, admissionController.queued());
+        header(sb, "mcp_admission_rejected_total", "counter", "Tool calls shed by admission control");
+        sample(sb, "mcp_admission_rejected_total", null, null, admissionController.rejected());
+        header(sb, "mcp_tool_concurrency_limit", "gauge", "Adaptive concurrency limit per tool");
+        for (ToolLimiter tool : admissionController.tools()) {
+            sample(sb, "mcp_tool_concurrency_limit", "tool", tool.toolName(), tool.limit());
+        }
+
+        header(sb, "mcp_cancel_notifications_total", "counter", "Requests cancelled by notifications/cancelled");
+        sample(sb, "mcp_cancel_notifications_total", null, null, callCancellations.cancelled());
+
+        header(sb, "mcp_coalescer_executions_total", "counter", "Handler executions started by the coalescer");
+        sample(sb, "mcp_coalescer_executions_total", null, null, callCoalescer.executions());
+        header(sb, "mcp_coalescer_joined_total", "counter", "Calls that joined an in-flight execution");
+        sample(sb, "mcp_coalescer_joined_total", null, null, callCoalescer.coalesced());
+
+        header(sb, "mcp_audit_records_written_total", "counter", "Tool call records inserted into the audit table");
+        sample(sb, "mcp_audit_records_written_total", null, null, auditLog.written());
+        header(sb, "mcp_audit_records_dropped_total", "counter", "Tool call records dropped because the audit buffer was full");
+        sample(sb, "mcp_audit_records_dropped_total", null, null, auditLog.dropped());
+        header(sb, "mcp_audit_records_failed_total", "counter", "Tool call records lost with a failed audit batch");
+        sample(sb, "mcp_audit_records_failed_total", null, null, auditLog.failed());
+        header(sb, "mcp_audit_buffered", "gauge", "Tool call records waiting to be written");
+        sample(sb, "mcp_audit_buffered", null, null, auditLog.buffered());
+
+        header(sb, "mcp_trace_events_written_total", "counter", "Trace events written to the log");
+        sample(sb, "mcp_trace_events_written_total", null, null, tracer.written());
+        header(sb, "mcp_trace_events_dropped_total", "counter", "Trace events dropped because the trace buffer was full");
+        sample(sb, "mcp_trace_events_dropped_total", null, null, tracer.dropped());
+
+        header(sb, "mcp_capture_calls_written_total", "counter", "Tool calls written to the capture file");
+        sample(sb, "mcp_capture_calls_written_total", null, null, trafficCapture.written());
+        header(sb, "mcp_capture_calls_dropped_total", "counter", "Tool calls not captured because the capture buffer was full");
+        sample(sb, "mcp_capture_calls_dropped_total", null, null, trafficCapture.dropped());
+
+        header(sb, "mcp_transport_errors_total", "counter", "Buffer transport failures logged without reaching a client");
+        sample(sb, "mcp_transport_errors_total", null, null, transportErrors.count());
+
+        return sb.toString();
+    }
+
+    private static void header(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder sb, String name, String label, String labelValue, double value) {
+        sb.append(name);
+        if (label != null) {
+            sb.append('{').append(label).append("=\"").append(escape(labelValue)).append("\"}");
+        }
+        sb.append(' ').append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder sb, String name, String label, String labelValue, long value) {
+        sb.append(name);
+        if (label != null) {
+            sb.append('{').append(label).append("=\"").append(escape(labelValue)).append("\"}");
+        }
+        sb.append(' ').append(value).append('\n');
+    }
+
+    private static void pool(StringBuilder sb, String name, PoolStats pool, long value) {
+        sb.append(name).append('{').append(poolLabels(pool)).append("} ").append(value).append('\n');
+    }
+
+    private static String poolLabels(PoolStats pool) {
+        return "type=\"" + escape(pool.type()) + "\",name=\"" + escape(pool.name()) + "\"";
+    }
+
+    private static void summary(StringBuilder sb, String name, String labels, LatencyHistogram.Snapshot snapshot) {
+        String prefix = labels == null ? "" : labels + ",";
+        for (double quantile : QUANTILES) {
+            sb.append(name).append('{').append(prefix).append("quantile=\"").append(quantile).append("\"} ")
+                .append(seconds(snapshot.valueAt(quantile))).append('\n');
+        }
+        String suffix = labels == null ? "" : "{" + labels + "}";
+        sb.append(name).append("_sum").append(suffix).append(' ').append(seconds(snapshot.sumNanos())).append('\n');
+        sb.append(name).append("_count").append(suffix).append(' ').append(snapshot.count()).append('\n');
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    private static String escape(String value) {
+        return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,54 @@
+package mcp_demo.metrics;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import jakarta.enterprise.context.ApplicationScoped;
+import mcp_demo.dispatch.CallDeadlines;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records call count, errors, in-flight calls and latency of every registered tool.
+ *
+ * A call counts as an error when its Mono fails or when it returns a result with isError set.
+ * Latency is measured from subscription to termination, so it includes cache hits and the time
+ * spent waiting for a blocking worker. Calls that ran past their deadline and calls cancelled by
+ * their caller are counted separately as well.
+ */
+@ApplicationScoped
+public class ToolMetrics {
+
+    private final Map<String, ToolStats> stats = new ConcurrentHashMap<>();
+
+    public McpServerFeatures.AsyncToolSpecification wrap(McpServerFeatures.AsyncToolSpecification spec) {
+        var handler = spec.callHandler();
+        ToolStats toolStats = stats.computeIfAbsent(spec.tool().name(), ToolStats::new);
+        return McpServerFeatures.AsyncToolSpecification.builder()
+            .tool(spec.tool())
+            .callHandler((exchange, toolReq) -> Mono.defer(() -> {
+                long start = System.nanoTime();
+                toolStats.started();
+                return Mono.defer(() -> handler.apply(exchange, toolReq))
+                    .doOnNext(result -> {
+                        if (Boolean.TRUE.equals(result.isError())) {
+                            toolStats.failed();
+                        }
+                    })
+                    .doOnError(e -> {
+                        toolStats.failed();
+                        if (CallDeadlines.isDeadlineExceeded(e)) {
+                            toolStats.timedOut();
+                        }
+                    })
+                    .doOnCancel(toolStats::cancelled)
+                    .doFinally(signal -> toolStats.finished(start));
+            }))
+            .build();
+    }
+
+    public Collection<ToolStats> tools() {
+        return stats.values();
+    }
+}
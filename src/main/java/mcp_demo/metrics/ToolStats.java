@@ -0,0 +1,74 @@
+package mcp_demo.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a single tool. Created once at registration so that recording a call
+ * only updates existing adders and the latency histogram.
+ */
+public final class ToolStats {
+
+    private final String toolName;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder cancellations = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    ToolStats(String toolName) {
+        this.toolName = toolName;
+    }
+
+    void started() {
+        calls.increment();
+        inFlight.increment();
+    }
+
+    void failed() {
+        errors.increment();
+    }
+
+    void cancelled() {
+        cancellations.increment();
+    }
+
+    void timedOut() {
+        timeouts.increment();
+    }
+
+    void finished(long startNanos) {
+        inFlight.decrement();
+        latency.record(System.nanoTime() - startNanos);
+    }
+
+    public String toolName() {
+        return toolName;
+    }
+
+    public long calls() {
+        return calls.sum();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    public long inFlight() {
+        return inFlight.sum();
+    }
+
+    /** Calls whose caller went away before they completed, e.g. after notifications/cancelled. */
+    public long cancellations() {
+        return cancellations.sum();
+    }
+
+    /** Calls that ran past their deadline; they count as errors too. */
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    public LatencyHistogram latency() {
+        return latency;
+    }
+}
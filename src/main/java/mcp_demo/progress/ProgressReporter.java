@@ -0,0 +1,74 @@
+package mcp_demo.progress;
+
+import io.modelcontextprotocol.server.McpAsyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema;
+import mcp_demo.trace.Span;
+import mcp_demo.trace.TraceLevel;
+import reactor.core.publisher.Mono;
+
+/**
+ * Sends notifications/progress for one tool call, through the exchange the call arrived on.
+ *
+ * Progress is only reported when the client asked for it with a progressToken in the request _meta;
+ * otherwise every method is a no-op. Notifications whose progress does not increase are dropped, as the
+ * spec requires, and a failed notification never fails the call: it is logged to stderr and recorded as a
+ * progress.failed event on the call's span. The message may carry a partial result.
+ */
+public final class ProgressReporter {
+
+    public static final ProgressReporter NONE = new ProgressReporter(null, null);
+
+    private final McpAsyncServerExchange exchange;
+    private final String progressToken;
+    private double lastProgress = Double.NEGATIVE_INFINITY;
+
+    private ProgressReporter(McpAsyncServerExchange exchange, String progressToken) {
+        this.exchange = exchange;
+        this.progressToken = progressToken;
+    }
+
+    public static ProgressReporter of(McpAsyncServerExchange exchange, McpSchema.CallToolRequest request) {
+        Object token = request.meta() == null ? null : request.meta().get("progressToken");
+        if (exchange == null || token == null) {
+            return NONE;
+        }
+        return new ProgressReporter(exchange, String.valueOf(token));
+    }
+
+    public boolean isRequested() {
+        return progressToken != null;
+    }
+
+    /** Notification sent on subscription. total and message may be null. */
+    public Mono<Void> progress(double progress, Double total, String message) {
+        if (progressToken == null) {
+            return Mono.empty();
+        }
+        return Mono.deferContextual(context -> {
+            if (!advance(progress)) {
+                return Mono.empty();
+            }
+            return exchange.progressNotification(new McpSchema.ProgressNotification(progressToken, progress, total, message))
+                .onErrorResume(e -> {
+                    Span.current(context).event(TraceLevel.INFO, "progress.failed", progressToken, (long) progress);
+                    System.err.println("Progress notification " + progressToken + " failed: " + e);
+                    return Mono.empty();
+                });
+        });
+    }
+
+    /** Fire-and-forget variant for handlers running blocking code. */
+    public void report(double progress, Double total, String message) {
+        if (progressToken != null) {
+            progress(progress, total, message).subscribe();
+        }
+    }
+
+    private synchronized boolean advance(double progress) {
+        if (progress <= lastProgress) {
+            return false;
+        }
+        lastProgress = progress;
+        return true;
+    }
+}
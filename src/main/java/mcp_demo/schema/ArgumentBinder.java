@@ -0,0 +1,267 @@
+package mcp_demo.schema;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+import io.modelcontextprotocol.server.McpAsyncServerExchange;
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema;
+import mcp_demo.progress.ProgressReporter;
+import reactor.core.publisher.Mono;
+
+/**
+ * Validator and typed binder compiled once from a tool's input schema.
+ *
+ * Supports the subset of JSON Schema tools here declare: top-level "properties" with "type"
+ * (string, number, integer, boolean, object, array), "enum", "default", plus "required" and
+ * "additionalProperties". Anything else in the schema is ignored. Invalid calls are rejected
+ * with a JSON-RPC invalid params error before the tool handler runs.
+ */
+public final class ArgumentBinder {
+
+    private static final int MAX_PROPERTIES = Long.SIZE;
+    private static final BigDecimal LONG_MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    private enum Type { STRING, NUMBER, INTEGER, BOOLEAN, OBJECT, ARRAY, ANY }
+
+    private record Property(String name, int index, Type type, List<?> enumValues, boolean required, Object defaultValue) {
+    }
+
+    private final String toolName;
+    private final Property[] properties;
+    private final Map<String, Property> byName;
+    private final boolean additionalProperties;
+
+    private ArgumentBinder(String toolName, Property[] properties, boolean additionalProperties) {
+        this.toolName = toolName;
+        this.properties = properties;
+        this.additionalProperties = additionalProperties;
+        this.byName = new HashMap<>();
+        for (Property property : properties) {
+            byName.put(property.name(), property);
+        }
+    }
+
+    public static ArgumentBinder compile(McpSchema.Tool tool) {
+        McpSchema.JsonSchema schema = tool.inputSchema();
+        Map<String, Object> declared = schema == null || schema.properties() == null ? Map.of() : schema.properties();
+        if (declared.size() > MAX_PROPERTIES) {
+            throw new IllegalArgumentException("Tool " + tool.name() + " declares more than " + MAX_PROPERTIES + " properties");
+        }
+        List<String> required = schema == null || schema.required() == null ? List.of() : schema.required();
+
+        List<Property> properties = new ArrayList<>();
+        for (var entry : declared.entrySet()) {
+            Map<?, ?> definition = entry.getValue() instanceof Map<?, ?> map ? map : Map.of();
+            properties.add(new Property(entry.getKey(), properties.size(),
+                type(tool.name(), entry.getKey(), definition.get("type")),
+                definition.get("enum") instanceof List<?> values ? List.copyOf(values) : null,
+                required.contains(entry.getKey()),
+                definition.get("default")));
+        }
+        boolean additional = schema == null || schema.additionalProperties() == null || schema.additionalProperties();
+        return new ArgumentBinder(tool.name(), properties.toArray(new Property[0]), additional);
+    }
+
+    /**
+     * Builds a call handler that binds arguments with a binder compiled from the tool's schema and
+     * passes them to the typed handler. Invalid calls never reach the typed handler.
+     */
+    public static BiFunction<McpAsyncServerExchange, McpSchema.CallToolRequest, Mono<McpSchema.CallToolResult>> handler(
+            ArgumentBinder binder, TypedToolHandler handler) {
+        return (exchange, toolReq) -> {
+            ToolArguments arguments;
+            try {
+                arguments = binder.bind(toolReq.arguments());
+            } catch (InvalidArgumentsException e) {
+                return Mono.error(McpError.builder(McpSchema.ErrorCodes.INVALID_PARAMS).message(e.getMessage()).build());
+            }
+            return handler.handle(exchange, arguments, ProgressReporter.of(exchange, toolReq));
+        };
+    }
+
+    /** Index of a declared property, to be resolved once and used with the {@link ToolArguments} accessors. */
+    public int index(String name) {
+        Property property = byName.get(name);
+        if (property == null) {
+            throw new IllegalArgumentException("Tool " + toolName + " declares no property " + name);
+        }
+        return property.index();
+    }
+
+    public ToolArguments bind(Map<String, Object> arguments) throws InvalidArgumentsException {
+        if (arguments == null) {
+            arguments = Map.of();
+        }
+        if (!additionalProperties) {
+            for (String name : arguments.keySet()) {
+                if (!byName.containsKey(name)) {
+                    throw new InvalidArgumentsException(toolName + ": unknown argument '" + name + "'");
+                }
+            }
+        }
+        ToolArguments bound = new ToolArguments(this, properties.length);
+        for (Property property : properties) {
+            Object value = arguments.get(property.name());
+            if (value == null) {
+                value = property.defaultValue();
+            }
+            if (value == null) {
+                if (property.required()) {
+                    throw new InvalidArgumentsException(toolName + ": missing required argument '" + property.name() + "'");
+                }
+                continue;
+            }
+            bindValue(bound, property, value);
+        }
+        return bound;
+    }
+
+    private void bindValue(ToolArguments bound, Property property, Object value) throws InvalidArgumentsException {
+        if (property.enumValues() != null) {
+            int ordinal = ordinal(property.enumValues(), value);
+            if (ordinal < 0) {
+                throw invalid(property, "one of " + property.enumValues(), value);
+            }
+            bound.setOrdinal(property.index(), ordinal);
+        }
+        switch (property.type()) {
+            case STRING -> {
+                if (!(value instanceof String)) {
+                    throw invalid(property, "a string", value);
+                }
+                bound.setReference(property.index(), value);
+            }
+            case NUMBER -> {
+                if (!(value instanceof Number number) || !Double.isFinite(number.doubleValue())) {
+                    throw invalid(property, "a number", value);
+                }
+                bound.setDouble(property.index(), number.doubleValue());
+            }
+            case INTEGER -> {
+                if (!(value instanceof Number number) || !isLong(number)) {
+                    throw invalid(property, "an integer", value);
+                }
+                bound.setLong(property.index(), number.longValue());
+            }
+            case BOOLEAN -> {
+                if (!(value instanceof Boolean flag)) {
+                    throw invalid(property, "a boolean", value);
+                }
+                bound.setLong(property.index(), flag ? 1 : 0);
+            }
+            case OBJECT -> {
+                if (!(value instanceof Map)) {
+                    throw invalid(property, "an object", value);
+                }
+                bound.setReference(property.index(), value);
+            }
+            case ARRAY -> {
+                if (!(value instanceof List)) {
+                    throw invalid(property, "an array", value);
+                }
+                bound.setReference(property.index(), value);
+            }
+            case ANY -> bound.setReference(property.index(), value);
+        }
+    }
+
+    /** Whether the number is integral and within the long range, so that longValue() is exact. */
+    private static boolean isLong(Number number) {
+        return switch (number) {
+            case Long l -> true;
+            case Integer i -> true;
+            case Short s -> true;
+            case Byte b -> true;
+            case BigInteger integer -> integer.bitLength() < Long.SIZE;
+            case BigDecimal decimal -> decimal.signum() == 0
+                || decimal.stripTrailingZeros().scale() <= 0 && decimal.compareTo(LONG_MIN) >= 0 && decimal.compareTo(LONG_MAX) <= 0;
+            default -> {
+                double d = number.doubleValue();
+                // 2^63 is the first double past Long.MAX_VALUE
+                yield Double.isFinite(d) && d == Math.rint(d) && d >= -0x1p63 && d < 0x1p63;
+            }
+        };
+    }
+
+    /** Position of the value in the enum, comparing as JSON does: 1, 1L and 1.0 are the same value. */
+    private static int ordinal(List<?> enumValues, Object value) {
+        for (int i = 0; i < enumValues.size(); i++) {
+            if (jsonEquals(enumValues.get(i), value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean jsonEquals(Object a, Object b) {
+        if (a instanceof Number x && b instanceof Number y) {
+            BigDecimal left = decimal(x);
+            BigDecimal right = decimal(y);
+            return left != null && right != null ? left.compareTo(right) == 0 : x.doubleValue() == y.doubleValue();
+        }
+        if (a instanceof List<?> x && b instanceof List<?> y) {
+            if (x.size() != y.size()) {
+                return false;
+            }
+            for (int i = 0; i < x.size(); i++) {
+                if (!jsonEquals(x.get(i), y.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (a instanceof Map<?, ?> x && b instanceof Map<?, ?> y) {
+            if (x.size() != y.size()) {
+                return false;
+            }
+            for (Map.Entry<?, ?> entry : x.entrySet()) {
+                if (!y.containsKey(entry.getKey()) || !jsonEquals(entry.getValue(), y.get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return Objects.equals(a, b);
+    }
+
+    /** The exact value of the number, or null for NaN and infinities. */
+    private static BigDecimal decimal(Number number) {
+        return switch (number) {
+            case BigDecimal decimal -> decimal;
+            case BigInteger integer -> new BigDecimal(integer);
+            case Long l -> BigDecimal.valueOf(l);
+            case Integer i -> BigDecimal.valueOf(i);
+            case Short s -> BigDecimal.valueOf(s);
+            case Byte b -> BigDecimal.valueOf(b);
+            default -> Double.isFinite(number.doubleValue()) ? new BigDecimal(number.doubleValue()) : null;
+        };
+    }
+
+    private InvalidArgumentsException invalid(Property property, String expected, Object value) {
+        return new InvalidArgumentsException(toolName + ": argument '" + property.name() + "' must be " + expected
+            + " but was " + value);
+    }
+
+    private static Type type(String toolName, String property, Object type) {
+        if (type == null) {
+            return Type.ANY;
+        }
+        return switch (String.valueOf(type)) {
+            case "string" -> Type.STRING;
+            case "number" -> Type.NUMBER;
+            case "integer" -> Type.INTEGER;
+            case "boolean" -> Type.BOOLEAN;
+            case "object" -> Type.OBJECT;
+            case "array" -> Type.ARRAY;
+            default -> throw new IllegalArgumentException("Tool " + toolName + ": unsupported type " + type + " for " + property);
+        };
+    }
+}
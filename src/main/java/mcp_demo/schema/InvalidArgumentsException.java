@@ -0,0 +1,14 @@
+package mcp_demo.schema;
+
+/**
+ * Thrown by {@link ArgumentBinder#bind} when a call does not match the tool's input schema.
+ * Stack traces are not filled in, rejecting bad input has to stay cheap under load.
+ */
+public class InvalidArgumentsException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidArgumentsException(String message) {
+        super(message, null, false, false);
+    }
+}
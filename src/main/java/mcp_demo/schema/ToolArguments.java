@@ -0,0 +1,83 @@
+package mcp_demo.schema;
+
+/**
+ * Validated arguments of one tool call, addressed by the property index resolved once with
+ * {@link ArgumentBinder#index(String)}.
+ *
+ * Numbers and integers are stored unboxed, integers exactly in a long array and numbers in a
+ * double array, each mirrored in the other so either accessor works; booleans are stored as 0 or 1.
+ * Strings, objects and arrays are kept as references. An enum value is bound like any other value
+ * of its type, and its position in the "enum" list is kept next to it. Accessors do not check the
+ * property type, the binder already did.
+ */
+public final class ToolArguments {
+
+    private final ArgumentBinder binder;
+    private final double[] doubles;
+    private final long[] longs;
+    private final int[] ordinals;
+    private final Object[] references;
+    private long present;
+
+    ToolArguments(ArgumentBinder binder, int size) {
+        this.binder = binder;
+        this.doubles = new double[size];
+        this.longs = new long[size];
+        this.ordinals = new int[size];
+        this.references = new Object[size];
+    }
+
+    public boolean isPresent(int index) {
+        return (present & (1L << index)) != 0;
+    }
+
+    public double getDouble(int index) {
+        return doubles[index];
+    }
+
+    public long getLong(int index) {
+        return longs[index];
+    }
+
+    public boolean getBoolean(int index) {
+        return longs[index] != 0;
+    }
+
+    /** Position of the value in the property's "enum" list. */
+    public int getEnumOrdinal(int index) {
+        return ordinals[index];
+    }
+
+    public String getString(int index) {
+        return (String) references[index];
+    }
+
+    public Object get(int index) {
+        return references[index];
+    }
+
+    public ArgumentBinder binder() {
+        return binder;
+    }
+
+    void setDouble(int index, double value) {
+        doubles[index] = value;
+        longs[index] = (long) value;
+        present |= 1L << index;
+    }
+
+    void setLong(int index, long value) {
+        longs[index] = value;
+        doubles[index] = value;
+        present |= 1L << index;
+    }
+
+    void setOrdinal(int index, int ordinal) {
+        ordinals[index] = ordinal;
+    }
+
+    void setReference(int index, Object value) {
+        references[index] = value;
+        present |= 1L << index;
+    }
+}
@@ -0,0 +1,15 @@
+package mcp_demo.schema;
+
+import io.modelcontextprotocol.server.McpAsyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema;
+import mcp_demo.progress.ProgressReporter;
+import reactor.core.publisher.Mono;
+
+/**
+ * Tool handler receiving arguments that were already validated and bound by an {@link ArgumentBinder},
+ * and a {@link ProgressReporter} for the call (a no-op unless the client sent a progressToken).
+ */
+@FunctionalInterface
+public interface TypedToolHandler {
+    Mono<McpSchema.CallToolResult> handle(McpAsyncServerExchange exchange, ToolArguments arguments, ProgressReporter progress);
+}
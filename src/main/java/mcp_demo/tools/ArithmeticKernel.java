@@ -0,0 +1,32 @@
+package mcp_demo.tools;
+
+/**
+ * Element-wise arithmetic over primitive buffers: out[i] = a[i] (op) b[i] for i in [from, to).
+ */
+interface ArithmeticKernel {
+
+    int ADD = 0;
+    int SUBTRACT = 1;
+    int MULTIPLY = 2;
+    int DIVIDE = 3;
+
+    void apply(int operation, double[] a, double[] b, double[] out, int from, int to);
+
+    String name();
+
+    /**
+     * The Vector API kernel when the jdk.incubator.vector module is present (--add-modules jdk.incubator.vector),
+     * the scalar loop otherwise. BATCH_KERNEL=scalar forces the scalar kernel.
+     */
+    static ArithmeticKernel best() {
+        if (!"scalar".equalsIgnoreCase(System.getenv("BATCH_KERNEL"))
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new VectorArithmeticKernel();
+            } catch (LinkageError e) {
+                // Module present but not usable (e.g. not resolved for this class loader), use the scalar loop
+            }
+        }
+        return new ScalarArithmeticKernel();
+    }
+}
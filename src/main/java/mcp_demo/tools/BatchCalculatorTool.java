@@ -0,0 +1,222 @@
+package mcp_demo.tools;
+
+import java.util.List;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema;
+import jakarta.enterprise.context.ApplicationScoped;
+import mcp_demo.cdi.McpTool;
+import mcp_demo.cdi.ToolProvider;
+import mcp_demo.progress.ProgressReporter;
+import mcp_demo.schema.ArgumentBinder;
+import mcp_demo.schema.ToolArguments;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Evaluates many arithmetic operations in one call.
+ *
+ * Operands are copied once into primitive double[] buffers and evaluated by an {@link ArithmeticKernel}
+ * (Vector API when available) over runs of the same operation. The result has one text content per chunk of
+ * CHUNK_SIZE values, each a JSON array. When the client sent a progressToken, the batch is evaluated chunk by chunk
+ * and a progress notification reports each chunk done; notifications only carry status, as they may be dropped.
+ */
+@ApplicationScoped
+@McpTool
+public class BatchCalculatorTool implements ToolProvider {
+
+    static final int CHUNK_SIZE = 1024;
+
+    private static final List<String> OPERATIONS = List.of("add", "subtract", "multiply", "divide");
+
+    private static final McpSchema.Tool TOOL = McpSchema.Tool.builder()
+        .name("batch_calculator")
+        .description("Evaluates arrays of basic mathematical operations in a single call. "
+            + "Result i is a[i] (op) b[i]; results are returned as JSON arrays of up to " + CHUNK_SIZE + " values each. "
+            + "With a progressToken, progress is reported after each array.")
+        .inputSchema("""
+            {
+              "type": "object",
+              "properties": {
+                "operation": {
+                  "type": "string",
+                  "enum": ["add", "subtract", "multiply", "divide"],
+                  "description": "Operation applied to every pair. Ignored when operations is given."
+                },
+                "operations": {
+                  "type": "array",
+                  "items": {"type": "string", "enum": ["add", "subtract", "multiply", "divide"]},
+                  "description": "One operation per pair"
+                },
+                "a": {"type": "array", "items": {"type": "number"}},
+                "b": {"type": "array", "items": {"type": "number"}}
+              },
+              "required": ["a", "b"]
+            }
+            """)
+        .build();
+
+    static final ArgumentBinder BINDER = ArgumentBinder.compile(TOOL);
+    private static final int OPERATION = BINDER.index("operation");
+    private static final int OPERATIONS_ARG = BINDER.index("operations");
+    private static final int A = BINDER.index("a");
+    private static final int B = BINDER.index("b");
+
+    // BATCH_MAX_SIZE bounds the buffers a single call may allocate
+    private final int maxBatchSize = Integer.parseInt(System.getenv().getOrDefault("BATCH_MAX_SIZE", "100000"));
+
+    private final ArithmeticKernel kernel = ArithmeticKernel.best();
+
+    @Override
+    public McpServerFeatures.AsyncToolSpecification getToolSpec() {
+        return McpServerFeatures.AsyncToolSpecification.builder()
+            .tool(TOOL)
+            .callHandler(ArgumentBinder.handler(BINDER, (exchange, arguments, progress) -> {
+                Batch batch;
+                try {
+                    batch = prepare(arguments);
+                } catch (IllegalArgumentException e) {
+                    return Mono.error(McpError.builder(McpSchema.ErrorCodes.INVALID_PARAMS).message(e.getMessage()).build());
+                }
+                if (progress.isRequested() && batch.size() > 0) {
+                    return stream(batch, progress);
+                }
+                evaluate(batch, 0, batch.size());
+                return Mono.just(toResult(batch.out));
+            }))
+            .build();
+    }
+
+    double[] evaluate(ToolArguments arguments) {
+        Batch batch = prepare(arguments);
+        evaluate(batch, 0, batch.size());
+        return batch.out;
+    }
+
+    /** Operands and operations of a call, copied and validated, and the buffer its results go to. */
+    private record Batch(double[] a, double[] b, byte[] operations, int operation, double[] out) {
+
+        int size() {
+            return out.length;
+        }
+    }
+
+    private Batch prepare(ToolArguments arguments) {
+        double[] a = toDoubles("a", (List<?>) arguments.get(A));
+        double[] b = toDoubles("b", (List<?>) arguments.get(B));
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("a and b must have the same length, got " + a.length + " and " + b.length);
+        }
+        if (arguments.isPresent(OPERATIONS_ARG)) {
+            return new Batch(a, b, toOperations((List<?>) arguments.get(OPERATIONS_ARG), a.length), -1, new double[a.length]);
+        } else if (arguments.isPresent(OPERATION)) {
+            return new Batch(a, b, null, arguments.getEnumOrdinal(OPERATION), new double[a.length]);
+        } else {
+            throw new IllegalArgumentException("Either operation or operations is required");
+        }
+    }
+
+    private void evaluate(Batch batch, int from, int to) {
+        byte[] operations = batch.operations;
+        if (operations == null) {
+            kernel.apply(batch.operation, batch.a, batch.b, batch.out, from, to);
+            return;
+        }
+        // Evaluate runs of the same operation with one kernel call each
+        while (from < to) {
+            int end = from + 1;
+            while (end < to && operations[end] == operations[from]) {
+                end++;
+            }
+            kernel.apply(operations[from], batch.a, batch.b, batch.out, from, end);
+            from = end;
+        }
+    }
+
+    /** Evaluates one chunk at a time and reports each as progress, then answers with all the values. */
+    private Mono<McpSchema.CallToolResult> stream(Batch batch, ProgressReporter progress) {
+        int size = batch.size();
+        int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        return Flux.range(0, chunks)
+            .concatMap(i -> {
+                int from = i * CHUNK_SIZE;
+                int to = Math.min(size, from + CHUNK_SIZE);
+                evaluate(batch, from, to);
+                return progress.progress(to, (double) size, "Chunk " + (i + 1) + " of " + chunks);
+            })
+            .then(Mono.fromSupplier(() -> toResult(batch.out)));
+    }
+
+    String kernelName() {
+        return kernel.name();
+    }
+
+    private double[] toDoubles(String name, List<?> values) {
+        checkSize(name, values.size());
+        double[] buffer = new double[values.size()];
+        for (int i = 0; i < buffer.length; i++) {
+            if (!(values.get(i) instanceof Number number)) {
+                throw new IllegalArgumentException(name + "[" + i + "] must be a number but was " + values.get(i));
+            }
+            buffer[i] = number.doubleValue();
+        }
+        return buffer;
+    }
+
+    private byte[] toOperations(List<?> values, int expectedLength) {
+        if (values.size() != expectedLength) {
+            throw new IllegalArgumentException("operations must have the same length as a and b, got " + values.size());
+        }
+        byte[] operations = new byte[values.size()];
+        for (int i = 0; i < operations.length; i++) {
+            // Positions in OPERATIONS match the ArithmeticKernel constants
+            int operation = OPERATIONS.indexOf(values.get(i));
+            if (operation < 0) {
+                throw new IllegalArgumentException("operations[" + i + "] must be one of " + OPERATIONS + " but was " + values.get(i));
+            }
+            operations[i] = (byte) operation;
+        }
+        return operations;
+    }
+
+    private void checkSize(String name, int size) {
+        if (size > maxBatchSize) {
+            throw new IllegalArgumentException(name + " has " + size + " elements, the maximum is " + maxBatchSize);
+        }
+    }
+
+    private static McpSchema.CallToolResult toResult(double[] results) {
+        var builder = McpSchema.CallToolResult.builder().isError(false);
+        StringBuilder chunk = new StringBuilder(Math.min(results.length, CHUNK_SIZE) * 12);
+        for (int from = 0; from < results.length; from += CHUNK_SIZE) {
+            builder.addTextContent(appendChunk(chunk, results, from, Math.min(results.length, from + CHUNK_SIZE)));
+        }
+        if (results.length == 0) {
+            builder.addTextContent("[]");
+        }
+        return builder.build();
+    }
+
+    /** results[from, to) as a JSON array, rendered in the reused builder. */
+    private static String appendChunk(StringBuilder chunk, double[] results, int from, int to) {
+        chunk.setLength(0);
+        chunk.append('[');
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                chunk.append(',');
+            }
+            appendNumber(chunk, results[i]);
+        }
+        return chunk.append(']').toString();
+    }
+
+    private static void appendNumber(StringBuilder sb, double value) {
+        // JSON has no NaN/Infinity (e.g. division by zero), encode them as null
+        if (Double.isFinite(value)) {
+            sb.append(value);
+        } else {
+            sb.append("null");
+        }
+    }
+}
@@ -8,99 +8,146 @@ import io.modelcontextprotocol.spec.McpSchema;
 import io.vertx.sqlclient.Pool;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import mcp_demo.cache.Cacheable;
 import mcp_demo.cdi.McpTool;
 import mcp_demo.cdi.ToolProvider;
+import mcp_demo.dispatch.Coalesce;
+import mcp_demo.dispatch.Deadline;
+import mcp_demo.progress.ProgressReporter;
+import mcp_demo.schema.ArgumentBinder;
+import mcp_demo.schema.ToolArguments;
+import mcp_demo.trace.Span;
+import mcp_demo.trace.TraceLevel;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @ApplicationScoped
-@McpTool
+@McpTool(blocking = true)
+// The result names the delay type, so simulateBlocking is part of the cache and coalescing keys
+@Cacheable(ttlSeconds = 300)
+@Coalesce
+@Deadline(millis = 15_000)
 public class CalculatorTool implements ToolProvider {
 
     private static final long DELAY_MS = 5000; // 5 seconds delay
 
+    private static final McpSchema.Tool TOOL = McpSchema.Tool.builder()
+        .name("calculator")
+        .description("Basic mathematical operations with optional delay simulation")
+        .inputSchema("""
+            {
+              "type": "object",
+              "properties": {
+                "operation": {
+                  "type": "string", 
+                  "enum": ["add", "subtract", "multiply", "divide"]
+                },
+                "a": {"type": "number"},
+                "b": {"type": "number"},
+                "simulateBlocking": {
+                  "type": "boolean",
+                  "description": "If true, blocks the calling thread with Thread.sleep. If false, uses async delay.",
+                  "default": false
+                }
+              },
+              "required": ["operation", "a", "b"]
+            }
+            """)
+        .build();
+
+    // Schema compiled once; property indexes resolved once for the typed accessors
+    static final ArgumentBinder BINDER = ArgumentBinder.compile(TOOL);
+    private static final int OPERATION = BINDER.index("operation");
+    private static final int A = BINDER.index("a");
+    private static final int B = BINDER.index("b");
+    private static final int SIMULATE_BLOCKING = BINDER.index("simulateBlocking");
+
+    // Simulated work per call, CALCULATOR_DELAY_MS overrides the 5 second default (0 disables it)
+    long delayMs = Long.parseLong(System.getenv().getOrDefault("CALCULATOR_DELAY_MS", String.valueOf(DELAY_MS)));
+
+    // Interval between progress notifications while the delay runs, when the client sent a progressToken
+    long progressIntervalMs = Long.parseLong(System.getenv().getOrDefault("CALCULATOR_PROGRESS_INTERVAL_MS", "1000"));
+
     @Inject
     Pool mysqlClient;
 
     @Override
     public McpServerFeatures.AsyncToolSpecification getToolSpec() {
         return McpServerFeatures.AsyncToolSpecification.builder()
-            .tool(McpSchema.Tool.builder()
-                .name("calculator")
-                .description("Basic mathematical operations with optional delay simulation")
-                .inputSchema("""
-                    {
-                      "type": "object",
-                      "properties": {
-                        "operation": {
-                          "type": "string", 
-                          "enum": ["add", "subtract", "multiply", "divide"]
-                        },
-                        "a": {"type": "number"},
-                        "b": {"type": "number"},
-                        "simulateBlocking": {
-                          "type": "boolean",
-                          "description": "If true, blocks the event loop with Thread.sleep. If false, uses async delay.",
-                          "default": false
-                        }
-                      },
-                      "required": ["operation", "a", "b"]
-                    }
-                    """)
-                .build())
-            .callHandler((exchange, toolReq) -> {
-                String operation = (String) toolReq.arguments().get("operation");
-                double a = ((Number) toolReq.arguments().get("a")).doubleValue();
-                double b = ((Number) toolReq.arguments().get("b")).doubleValue();
-                
-                // Get simulateBlocking parameter, default to false
-                Boolean simulateBlocking = (Boolean) toolReq.arguments().get("simulateBlocking");
-                boolean blocking = simulateBlocking != null && simulateBlocking;
+            .tool(TOOL)
+            .callHandler(ArgumentBinder.handler(BINDER, (exchange, arguments, progress) -> Mono.deferContextual(context -> {
+                Arguments args = Arguments.of(arguments);
+                // Start, end and duration of the call are traced by the Tracer; the span adds the tool's own events
+                Span span = Span.current(context);
 
                 long startTime = System.currentTimeMillis();
-                System.out.println("[" + Thread.currentThread().getName() + "] Calculator request started: " 
-                    + operation + "(" + a + ", " + b + ") - blocking=" + blocking);
-
-                double calcResult = switch (operation) {
-                    case "add" -> a + b;
-                    case "subtract" -> a - b;
-                    case "multiply" -> a * b;
-                    case "divide" -> a / b;
-                    default -> throw new IllegalArgumentException("Unsupported operation: " + operation);
-                };
-
-                if (blocking) {
-                    // BLOCKING: This will block the Vert.x event loop!
-                    // All concurrent requests will queue up and execute sequentially
-                    return simulateBlockingDelay(calcResult, startTime);
+                double calcResult = calculate(args.operation(), args.a(), args.b());
+
+                if (args.blocking()) {
+                    // BLOCKING: Thread.sleep parks the calling thread. The tool is declared
+                    // @McpTool(blocking = true), so this runs on a worker, not the event loop
+                    return simulateBlockingDelay(calcResult, startTime, progress, span, args.operation());
                 } else {
                     // NON-BLOCKING: Uses Reactor's delayElement which doesn't block the event loop
                     // Concurrent requests will execute in parallel
-                    return simulateNonBlockingDelay(calcResult, startTime);
+                    return simulateNonBlockingDelay(calcResult, progress, span, args.operation());
                 }
-            })
+            })))
             .build();
     }
 
     /**
-     * BLOCKING implementation - uses Thread.sleep which blocks the event loop.
-     * This demonstrates the WRONG way to handle long-running tasks in Vert.x.
+     * Arguments of a calculator call, read from arguments already validated against the input schema.
+     */
+    record Arguments(String operation, double a, double b, boolean blocking) {
+
+        static Arguments of(ToolArguments arguments) {
+            // simulateBlocking is never absent, the schema default (false) is applied by the binder
+            return new Arguments(arguments.getString(OPERATION), arguments.getDouble(A), arguments.getDouble(B),
+                arguments.getBoolean(SIMULATE_BLOCKING));
+        }
+    }
+
+    static double calculate(String operation, double a, double b) {
+        return switch (operation) {
+            case "add" -> a + b;
+            case "subtract" -> a - b;
+            case "multiply" -> a * b;
+            case "divide" -> a / b;
+            default -> throw new IllegalArgumentException("Unsupported operation: " + operation);
+        };
+    }
+
+    /**
+     * BLOCKING implementation - uses Thread.sleep which blocks the calling thread.
+     * Safe only because the tool is dispatched off the event loop via @McpTool(blocking = true).
      */
-    private Mono<McpSchema.CallToolResult> simulateBlockingDelay(double calcResult, long startTime) {
+    private Mono<McpSchema.CallToolResult> simulateBlockingDelay(double calcResult, long startTime, ProgressReporter progress,
+            Span span, String operation) {
         try {
-            System.out.println("[" + Thread.currentThread().getName() + "] Starting BLOCKING sleep for " + DELAY_MS + "ms...");
-            Thread.sleep(DELAY_MS); // This blocks the event loop!
+            span.event(TraceLevel.DEBUG, "calculator.sleep", operation, delayMs);
+            if (delayMs > 0) {
+                progress.report(0, (double) delayMs, partialResult(calcResult));
+            }
+            long slept = 0;
+            while (slept < delayMs) {
+                long slice = Math.min(sliceMs(progress), delayMs - slept);
+                Thread.sleep(slice); // Blocks the worker thread, not the event loop
+                slept += slice;
+                progress.report(slept, (double) delayMs, null);
+            }
         } catch (InterruptedException e) {
+            // Cancelled by the client or past the deadline: nobody waits for the result any more
             Thread.currentThread().interrupt();
+            span.event(TraceLevel.DEBUG, "calculator.interrupted", operation, System.currentTimeMillis() - startTime);
+            return Mono.error(e);
         }
-        
-        long duration = System.currentTimeMillis() - startTime;
-        System.out.println("[" + Thread.currentThread().getName() + "] BLOCKING request completed in " + duration + "ms");
-        
+
+        // No duration in the result: it is cached and shared with coalesced calls, the Tracer records the timing
         return Mono.just(McpSchema.CallToolResult.builder()
             .textContent(List.of(
                 String.valueOf(calcResult),
-                "Delay type: BLOCKING (Thread.sleep)",
-                "Duration: " + duration + "ms"
+                "Delay type: BLOCKING (Thread.sleep)"
             ))
             .isError(false)
             .build());
@@ -110,23 +157,40 @@ public class CalculatorTool implements ToolProvider {
      * NON-BLOCKING implementation - uses Reactor's delayElement.
      * This demonstrates the CORRECT way to handle long-running tasks in Vert.x.
      */
-    private Mono<McpSchema.CallToolResult> simulateNonBlockingDelay(double calcResult, long startTime) {
-        System.out.println("[" + Thread.currentThread().getName() + "] Starting NON-BLOCKING delay for " + DELAY_MS + "ms...");
+    private Mono<McpSchema.CallToolResult> simulateNonBlockingDelay(double calcResult, ProgressReporter progress, Span span,
+            String operation) {
+        span.event(TraceLevel.DEBUG, "calculator.delay", operation, delayMs);
         
-        return Mono.just(calcResult)
-            .delayElement(Duration.ofMillis(DELAY_MS))
-            .map(result -> {
-                long duration = System.currentTimeMillis() - startTime;
-                System.out.println("[" + Thread.currentThread().getName() + "] NON-BLOCKING request completed in " + duration + "ms");
-                
-                return McpSchema.CallToolResult.builder()
-                    .textContent(List.of(
-                        String.valueOf(result),
-                        "Delay type: NON-BLOCKING (Mono.delayElement)",
-                        "Duration: " + duration + "ms"
-                    ))
-                    .isError(false)
-                    .build();
-            });
+        Mono<Void> delay = Mono.empty();
+        if (delayMs > 0) {
+            long slice = sliceMs(progress);
+            int slices = (int) ((delayMs + slice - 1) / slice);
+            delay = progress.progress(0, (double) delayMs, partialResult(calcResult))
+                .thenMany(Flux.range(1, slices).concatMap(i -> {
+                    long elapsed = Math.min(i * slice, delayMs);
+                    return Mono.delay(Duration.ofMillis(elapsed - (i - 1) * slice))
+                        .then(progress.progress(elapsed, (double) delayMs, null));
+                }))
+                .then();
+        }
+        return delay
+            .then(Mono.just(calcResult))
+            .map(result -> McpSchema.CallToolResult.builder()
+                .textContent(List.of(
+                    String.valueOf(result),
+                    "Delay type: NON-BLOCKING (Mono.delayElement)"
+                ))
+                .isError(false)
+                .build());
+    }
+
+    /** The delay is split into progress intervals only when someone listens for progress. */
+    private long sliceMs(ProgressReporter progress) {
+        return progress.isRequested() ? Math.max(1, progressIntervalMs) : Math.max(1, delayMs);
+    }
+
+    // The value is known before the simulated work starts, so it goes out as a partial result right away
+    private static String partialResult(double calcResult) {
+        return "Partial result: " + calcResult;
     }
 }
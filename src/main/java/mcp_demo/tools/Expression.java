@@ -0,0 +1,353 @@
+package mcp_demo.tools;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An arithmetic expression compiled once into a tree of closures over a double[] of variable values.
+ *
+ * Grammar, loosest binding first: {@code + -}, {@code * / %}, unary {@code - +}, {@code ^} (right associative), then
+ * numbers, variables, {@code pi}, {@code e}, parentheses and function calls ({@link #FUNCTIONS}). Variables are
+ * resolved to slots at compile time and subexpressions without variables are folded into constants, so evaluation
+ * does no lookups, no parsing and no boxing.
+ */
+public final class Expression {
+
+    static final int MAX_DEPTH = 200;
+
+    /** Function names and their arity, -1 for one or more arguments. */
+    static final Map<String, Integer> FUNCTIONS = Map.ofEntries(
+        Map.entry("abs", 1), Map.entry("sqrt", 1), Map.entry("cbrt", 1), Map.entry("exp", 1), Map.entry("ln", 1),
+        Map.entry("log10", 1), Map.entry("sin", 1), Map.entry("cos", 1), Map.entry("tan", 1), Map.entry("asin", 1),
+        Map.entry("acos", 1), Map.entry("atan", 1), Map.entry("floor", 1), Map.entry("ceil", 1), Map.entry("round", 1),
+        Map.entry("pow", 2), Map.entry("atan2", 2), Map.entry("hypot", 2), Map.entry("min", -1), Map.entry("max", -1));
+
+    @FunctionalInterface
+    interface Node {
+        double eval(double[] values);
+    }
+
+    private final String source;
+    private final List<String> variables;
+    private final Node root;
+
+    private Expression(String source, List<String> variables, Node root) {
+        this.source = source;
+        this.variables = variables;
+        this.root = root;
+    }
+
+    /** Parses and compiles the source; IllegalArgumentException with the position when it is not a valid expression. */
+    public static Expression compile(String source) {
+        Parser parser = new Parser(source);
+        Compiled compiled = parser.parse();
+        return new Expression(source, Collections.unmodifiableList(parser.variables), compiled.node);
+    }
+
+    public String source() {
+        return source;
+    }
+
+    /** Names of the variables, in slot order. */
+    public List<String> variables() {
+        return variables;
+    }
+
+    /** Evaluates with values[i] bound to variables().get(i). */
+    public double evaluate(double[] values) {
+        return root.eval(values);
+    }
+
+    /** Evaluates with the variables bound by name; IllegalArgumentException when one is missing or not a number. */
+    public double evaluate(Map<String, ?> bindings) {
+        double[] values = new double[variables.size()];
+        for (int i = 0; i < values.length; i++) {
+            String name = variables.get(i);
+            Object value = bindings == null ? null : bindings.get(name);
+            if (!(value instanceof Number number)) {
+                throw new IllegalArgumentException(value == null
+                    ? "No value for variable " + name
+                    : "Variable " + name + " must be a number but was " + value);
+            }
+            values[i] = number.doubleValue();
+        }
+        return root.eval(values);
+    }
+
+    /** A compiled subexpression; constant when it reads no variable, and then already evaluated. */
+    private record Compiled(Node node, boolean constant, double value) {
+
+        static Compiled constant(double value) {
+            return new Compiled(values -> value, true, value);
+        }
+
+        static Compiled of(Node node) {
+            return new Compiled(node, false, 0);
+        }
+    }
+
+    private static final class Parser {
+
+        private final String source;
+        private final List<String> variables = new ArrayList<>();
+        private final Map<String, Integer> slots = new HashMap<>();
+        private int position;
+        private int depth;
+
+        Parser(String source) {
+            this.source = source;
+        }
+
+        Compiled parse() {
+            Compiled expression = expression();
+            skipWhitespace();
+            if (position < source.length()) {
+                throw error("Unexpected '" + source.charAt(position) + "'");
+            }
+            return expression;
+        }
+
+        private Compiled expression() {
+            Compiled left = term();
+            while (true) {
+                if (accept('+')) {
+                    left = binary('+', left, term());
+                } else if (accept('-')) {
+                    left = binary('-', left, term());
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private Compiled term() {
+            Compiled left = unary();
+            while (true) {
+                if (accept('*')) {
+                    left = binary('*', left, unary());
+                } else if (accept('/')) {
+                    left = binary('/', left, unary());
+                } else if (accept('%')) {
+                    left = binary('%', left, unary());
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private Compiled unary() {
+            if (++depth > MAX_DEPTH) {
+                throw error("Expression nested deeper than " + MAX_DEPTH);
+            }
+            try {
+                if (accept('-')) {
+                    Compiled operand = unary();
+                    if (operand.constant) {
+                        return Compiled.constant(-operand.value);
+                    }
+                    Node node = operand.node;
+                    return Compiled.of(values -> -node.eval(values));
+                }
+                if (accept('+')) {
+                    return unary();
+                }
+                return power();
+            } finally {
+                depth--;
+            }
+        }
+
+        private Compiled power() {
+            Compiled base = primary();
+            if (accept('^')) {
+                // Right associative, and binds tighter than a unary minus on its left: -2^2 is -4
+                return binary('^', base, unary());
+            }
+            return base;
+        }
+
+        private Compiled primary() {
+            skipWhitespace();
+            if (position >= source.length()) {
+                throw error("Unexpected end of expression");
+            }
+            char c = source.charAt(position);
+            if (c == '(') {
+                position++;
+                Compiled inner = expression();
+                expect(')');
+                return inner;
+            }
+            if (Character.isDigit(c) || c == '.') {
+                return Compiled.constant(number());
+            }
+            if (Character.isLetter(c) || c == '_') {
+                String name = identifier();
+                if (accept('(')) {
+                    return call(name);
+                }
+                return switch (name) {
+                    case "pi" -> Compiled.constant(Math.PI);
+                    case "e" -> Compiled.constant(Math.E);
+                    default -> variable(name);
+                };
+            }
+            throw error("Unexpected '" + c + "'");
+        }
+
+        private Compiled variable(String name) {
+            int slot = slots.computeIfAbsent(name, n -> {
+                variables.add(n);
+                return variables.size() - 1;
+            });
+            return Compiled.of(values -> values[slot]);
+        }
+
+        private Compiled call(String name) {
+            int start = position;
+            Integer arity = FUNCTIONS.get(name);
+            if (arity == null) {
+                throw error("Unknown function " + name);
+            }
+            List<Compiled> arguments = new ArrayList<>();
+            skipWhitespace();
+            if (!accept(')')) {
+                do {
+                    arguments.add(expression());
+                } while (accept(','));
+                expect(')');
+            }
+            if (arity >= 0 ? arguments.size() != arity : arguments.isEmpty()) {
+                position = start;
+                throw error(name + " takes " + (arity >= 0 ? arity : "at least 1") + " argument(s), got " + arguments.size());
+            }
+            return function(name, arguments);
+        }
+
+        private Compiled function(String name, List<Compiled> arguments) {
+            switch (name) {
+                case "min", "max" -> {
+                    Compiled result = arguments.get(0);
+                    for (int i = 1; i < arguments.size(); i++) {
+                        result = binary(name.equals("min") ? 'm' : 'M', result, arguments.get(i));
+                    }
+                    return result;
+                }
+                case "pow" -> {
+                    return binary('^', arguments.get(0), arguments.get(1));
+                }
+                case "atan2" -> {
+                    return binary('a', arguments.get(0), arguments.get(1));
+                }
+                case "hypot" -> {
+                    return binary('h', arguments.get(0), arguments.get(1));
+                }
+                default -> {
+                    Compiled argument = arguments.get(0);
+                    Node a = argument.node;
+                    Node node = switch (name) {
+                        case "abs" -> values -> Math.abs(a.eval(values));
+                        case "sqrt" -> values -> Math.sqrt(a.eval(values));
+                        case "cbrt" -> values -> Math.cbrt(a.eval(values));
+                        case "exp" -> values -> Math.exp(a.eval(values));
+                        case "ln" -> values -> Math.log(a.eval(values));
+                        case "log10" -> values -> Math.log10(a.eval(values));
+                        case "sin" -> values -> Math.sin(a.eval(values));
+                        case "cos" -> values -> Math.cos(a.eval(values));
+                        case "tan" -> values -> Math.tan(a.eval(values));
+                        case "asin" -> values -> Math.asin(a.eval(values));
+                        case "acos" -> values -> Math.acos(a.eval(values));
+                        case "atan" -> values -> Math.atan(a.eval(values));
+                        case "floor" -> values -> Math.floor(a.eval(values));
+                        case "ceil" -> values -> Math.ceil(a.eval(values));
+                        case "round" -> values -> Math.rint(a.eval(values));
+                        default -> throw new IllegalStateException(name);
+                    };
+                    return argument.constant ? Compiled.constant(node.eval(null)) : Compiled.of(node);
+                }
+            }
+        }
+
+        private static Compiled binary(char operator, Compiled left, Compiled right) {
+            Node a = left.node;
+            Node b = right.node;
+            Node node = switch (operator) {
+                case '+' -> values -> a.eval(values) + b.eval(values);
+                case '-' -> values -> a.eval(values) - b.eval(values);
+                case '*' -> values -> a.eval(values) * b.eval(values);
+                case '/' -> values -> a.eval(values) / b.eval(values);
+                case '%' -> values -> a.eval(values) % b.eval(values);
+                case '^' -> values -> Math.pow(a.eval(values), b.eval(values));
+                case 'm' -> values -> Math.min(a.eval(values), b.eval(values));
+                case 'M' -> values -> Math.max(a.eval(values), b.eval(values));
+                case 'a' -> values -> Math.atan2(a.eval(values), b.eval(values));
+                case 'h' -> values -> Math.hypot(a.eval(values), b.eval(values));
+                default -> throw new IllegalStateException(String.valueOf(operator));
+            };
+            return left.constant && right.constant ? Compiled.constant(node.eval(null)) : Compiled.of(node);
+        }
+
+        private double number() {
+            int start = position;
+            while (position < source.length() && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+                position++;
+            }
+            if (position < source.length() && (source.charAt(position) == 'e' || source.charAt(position) == 'E')) {
+                int exponent = position + 1;
+                if (exponent < source.length() && (source.charAt(exponent) == '+' || source.charAt(exponent) == '-')) {
+                    exponent++;
+                }
+                if (exponent < source.length() && Character.isDigit(source.charAt(exponent))) {
+                    position = exponent;
+                    while (position < source.length() && Character.isDigit(source.charAt(position))) {
+                        position++;
+                    }
+                }
+            }
+            try {
+                return Double.parseDouble(source.substring(start, position));
+            } catch (NumberFormatException e) {
+                position = start;
+                throw error("Invalid number");
+            }
+        }
+
+        private String identifier() {
+            int start = position;
+            while (position < source.length()
+                    && (Character.isLetterOrDigit(source.charAt(position)) || source.charAt(position) == '_')) {
+                position++;
+            }
+            return source.substring(start, position);
+        }
+
+        private boolean accept(char c) {
+            skipWhitespace();
+            if (position < source.length() && source.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!accept(c)) {
+                throw error(position < source.length() ? "Expected '" + c + "' but found '" + source.charAt(position) + "'"
+                    : "Expected '" + c + "' but reached the end");
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + position);
+        }
+    }
+}
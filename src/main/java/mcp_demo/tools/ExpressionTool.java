@@ -0,0 +1,128 @@
+package mcp_demo.tools;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema;
+import jakarta.enterprise.context.ApplicationScoped;
+import mcp_demo.cdi.McpTool;
+import mcp_demo.cdi.ToolProvider;
+import mcp_demo.schema.ArgumentBinder;
+import mcp_demo.schema.ToolArguments;
+import reactor.core.publisher.Mono;
+
+/**
+ * Evaluates a whole arithmetic formula with variables in one call, where the calculator needs one call per operation.
+ *
+ * Expressions are compiled once ({@link Expression}) and kept in an LRU cache keyed by their source text, bounded by
+ * EXPRESSION_CACHE_SIZE (default 1024). Evaluating a cached expression with new variable values does not parse again.
+ */
+@ApplicationScoped
+@McpTool
+public class ExpressionTool implements ToolProvider {
+
+    private static final McpSchema.Tool TOOL = McpSchema.Tool.builder()
+        .name("expression")
+        .description("Evaluates an arithmetic expression such as \"sqrt(x^2 + y^2) * 2\" in a single call. Supports "
+            + "+ - * / % ^, parentheses, the constants pi and e, and the functions "
+            + String.join(", ", Expression.FUNCTIONS.keySet().stream().sorted().toList())
+            + ". Other names are variables, bound from the variables object.")
+        .inputSchema("""
+            {
+              "type": "object",
+              "properties": {
+                "expression": {"type": "string"},
+                "variables": {
+                  "type": "object",
+                  "description": "Value of each variable used in the expression",
+                  "additionalProperties": {"type": "number"}
+                }
+              },
+              "required": ["expression"]
+            }
+            """)
+        .build();
+
+    static final ArgumentBinder BINDER = ArgumentBinder.compile(TOOL);
+    private static final int EXPRESSION = BINDER.index("expression");
+    private static final int VARIABLES = BINDER.index("variables");
+
+    // Bounds the parsing work and the depth of the compiled tree a single call may ask for
+    private final int maxLength = Integer.parseInt(System.getenv().getOrDefault("EXPRESSION_MAX_LENGTH", "4096"));
+
+    private final int cacheSize;
+    // Guarded by itself
+    private final LinkedHashMap<String, Expression> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ExpressionTool() {
+        this(Integer.parseInt(System.getenv().getOrDefault("EXPRESSION_CACHE_SIZE", "1024")));
+    }
+
+    ExpressionTool(int cacheSize) {
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Expression> eldest) {
+                return size() > ExpressionTool.this.cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public McpServerFeatures.AsyncToolSpecification getToolSpec() {
+        return McpServerFeatures.AsyncToolSpecification.builder()
+            .tool(TOOL)
+            .callHandler(ArgumentBinder.handler(BINDER, (exchange, arguments, progress) -> {
+                try {
+                    return Mono.just(McpSchema.CallToolResult.builder()
+                        .addTextContent(String.valueOf(evaluate(arguments)))
+                        .isError(false)
+                        .build());
+                } catch (IllegalArgumentException e) {
+                    return Mono.error(McpError.builder(McpSchema.ErrorCodes.INVALID_PARAMS).message(e.getMessage()).build());
+                }
+            }))
+            .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    double evaluate(ToolArguments arguments) {
+        Expression expression = compiled(arguments.getString(EXPRESSION));
+        return expression.evaluate((Map<String, ?>) arguments.get(VARIABLES));
+    }
+
+    /** The compiled expression, from the cache when it was compiled before. */
+    Expression compiled(String source) {
+        Expression expression;
+        synchronized (cache) {
+            expression = cache.get(source);
+        }
+        if (expression != null) {
+            hits.increment();
+            return expression;
+        }
+        misses.increment();
+        if (source.length() > maxLength) {
+            throw new IllegalArgumentException("expression has " + source.length() + " characters, the maximum is " + maxLength);
+        }
+        // Compiled outside the lock; two calls racing on a new expression both compile it, the last one is kept
+        expression = Expression.compile(source);
+        synchronized (cache) {
+            cache.put(source, expression);
+        }
+        return expression;
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+}
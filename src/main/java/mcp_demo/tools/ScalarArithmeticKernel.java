@@ -0,0 +1,39 @@
+package mcp_demo.tools;
+
+/**
+ * Plain loops, one per operation so the JIT can unroll and auto-vectorize them.
+ */
+final class ScalarArithmeticKernel implements ArithmeticKernel {
+
+    @Override
+    public void apply(int operation, double[] a, double[] b, double[] out, int from, int to) {
+        switch (operation) {
+            case ADD -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] + b[i];
+                }
+            }
+            case SUBTRACT -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] - b[i];
+                }
+            }
+            case MULTIPLY -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] * b[i];
+                }
+            }
+            case DIVIDE -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] / b[i];
+                }
+            }
+            default -> throw new IllegalArgumentException("Unsupported operation: " + operation);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,54 @@
+package mcp_demo.tools;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernel on the JDK Vector API, using the widest vector shape the CPU supports.
+ * Only loaded when jdk.incubator.vector is available, see {@link ArithmeticKernel#best()}.
+ */
+final class VectorArithmeticKernel implements ArithmeticKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final ArithmeticKernel TAIL = new ScalarArithmeticKernel();
+
+    @Override
+    public void apply(int operation, double[] a, double[] b, double[] out, int from, int to) {
+        int upperBound = from + SPECIES.loopBound(to - from);
+        int step = SPECIES.length();
+        int i = from;
+        // One loop per operation: a constant operator is what lets C2 emit the vector instruction
+        switch (operation) {
+            case ADD -> {
+                for (; i < upperBound; i += step) {
+                    DoubleVector.fromArray(SPECIES, a, i).add(DoubleVector.fromArray(SPECIES, b, i)).intoArray(out, i);
+                }
+            }
+            case SUBTRACT -> {
+                for (; i < upperBound; i += step) {
+                    DoubleVector.fromArray(SPECIES, a, i).sub(DoubleVector.fromArray(SPECIES, b, i)).intoArray(out, i);
+                }
+            }
+            case MULTIPLY -> {
+                for (; i < upperBound; i += step) {
+                    DoubleVector.fromArray(SPECIES, a, i).mul(DoubleVector.fromArray(SPECIES, b, i)).intoArray(out, i);
+                }
+            }
+            case DIVIDE -> {
+                for (; i < upperBound; i += step) {
+                    DoubleVector.fromArray(SPECIES, a, i).div(DoubleVector.fromArray(SPECIES, b, i)).intoArray(out, i);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unsupported operation: " + operation);
+        }
+        // Tail shorter than one vector
+        if (i < to) {
+            TAIL.apply(operation, a, b, out, i, to);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.vectorBitSize();
+    }
+}
@@ -0,0 +1,54 @@
+package mcp_demo.trace;
+
+import reactor.util.context.ContextView;
+
+/**
+ * The trace and span of one tool call. {@link Tracer} puts it in the Reactor context of the call, so handlers find
+ * it with {@code Mono.deferContextual(context -> ... Span.current(context) ...)}. Calls that were not sampled get
+ * {@link #NONE}, whose events cost a null check.
+ *
+ * Event names should be constants: an event records references, and the Strings are only formatted later, off the
+ * calling thread.
+ */
+public final class Span {
+
+    public static final Span NONE = new Span(null, 0, 0, null);
+
+    private final Tracer tracer;
+    private final long traceId;
+    private final long spanId;
+    private final String tool;
+
+    Span(Tracer tracer, long traceId, long spanId, String tool) {
+        this.tracer = tracer;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.tool = tool;
+    }
+
+    public static Span current(ContextView context) {
+        return context.getOrDefault(Span.class, NONE);
+    }
+
+    public long traceId() {
+        return traceId;
+    }
+
+    public long spanId() {
+        return spanId;
+    }
+
+    public boolean isRecording(TraceLevel level) {
+        return tracer != null && tracer.isEnabled(level);
+    }
+
+    public void event(TraceLevel level, String name, String detail, long value) {
+        if (tracer != null && tracer.isEnabled(level)) {
+            tracer.record(TraceRing.EVENT, level, this, name, detail, value);
+        }
+    }
+
+    String tool() {
+        return tool;
+    }
+}
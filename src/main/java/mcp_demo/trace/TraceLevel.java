@@ -0,0 +1,11 @@
+package mcp_demo.trace;
+
+/** Trace levels, from most to least verbose. OFF disables tracing altogether. */
+public enum TraceLevel {
+    DEBUG, INFO, OFF;
+
+    /** The value written in the level field of a trace line. */
+    String field() {
+        return this == DEBUG ? "debug" : "info";
+    }
+}
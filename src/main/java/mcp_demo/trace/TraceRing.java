@@ -0,0 +1,114 @@
+package mcp_demo.trace;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring of trace events with many producers and one consumer.
+ *
+ * The slots are allocated once and reused, so recording an event allocates nothing. Each slot carries a sequence
+ * number: a producer claims the slot whose sequence equals the tail with a CAS on the tail, fills it and publishes it
+ * by advancing the sequence; the consumer reads the slot once its sequence is one past its position and hands it
+ * back to the producers a lap later. When the consumer falls a full lap behind, new events are dropped and counted.
+ */
+final class TraceRing {
+
+    static final byte START = 0;
+    static final byte END = 1;
+    static final byte EVENT = 2;
+
+    /** One event. Fields are written before the sequence and read after it, which orders them. */
+    static final class Slot {
+        volatile long sequence;
+        long epochMillis;
+        long traceId;
+        long spanId;
+        byte kind;
+        TraceLevel level;
+        String tool;
+        String name;
+        String detail;
+        long value;
+        String thread;
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    // Consumer only
+    private long head;
+
+    TraceRing(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new Slot[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            slots[i].sequence = i;
+        }
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /** Records the event, or drops it when the ring is full. Never blocks. */
+    boolean offer(byte kind, TraceLevel level, long traceId, long spanId, String tool, String name, String detail, long value) {
+        long position = tail.get();
+        Slot slot;
+        while (true) {
+            slot = slots[(int) position & mask];
+            long sequence = slot.sequence;
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (sequence < position) {
+                // Still holding the event of the previous lap
+                dropped.increment();
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+        slot.epochMillis = System.currentTimeMillis();
+        slot.kind = kind;
+        slot.level = level;
+        slot.traceId = traceId;
+        slot.spanId = spanId;
+        slot.tool = tool;
+        slot.name = name;
+        slot.detail = detail;
+        slot.value = value;
+        slot.thread = Thread.currentThread().getName();
+        slot.sequence = position + 1;
+        return true;
+    }
+
+    /** Hands up to max published events to the sink, in order. Must only be called by the consumer thread. */
+    int drain(Consumer<Slot> sink, int max) {
+        int drained = 0;
+        while (drained < max) {
+            Slot slot = slots[(int) head & mask];
+            if (slot.sequence != head + 1) {
+                break;
+            }
+            sink.accept(slot);
+            slot.tool = null;
+            slot.name = null;
+            slot.detail = null;
+            slot.thread = null;
+            slot.sequence = head + slots.length;
+            head++;
+            drained++;
+        }
+        return drained;
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+}
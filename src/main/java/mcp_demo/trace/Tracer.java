@@ -0,0 +1,219 @@
+package mcp_demo.trace;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.Context;
+
+/**
+ * Structured tracing of tool calls.
+ *
+ * Every sampled call gets a {@link Span} with random trace and span ids, and records a start event and an end event
+ * with its outcome and duration; handlers add their own events through the span. Recording an event only fills a
+ * slot of a lock-free {@link TraceRing}: no String is built and no lock is taken on the calling thread. A daemon
+ * thread drains the ring and writes one JSON object per line to stdout, a batch of lines per write.
+ *
+ * MCP_TRACE_LEVEL is debug, info (default) or off, MCP_TRACE_SAMPLE_RATE the fraction of calls traced (default 1.0)
+ * and MCP_TRACE_BUFFER the ring size (default 65536). With off, tool specifications are not even wrapped.
+ */
+@ApplicationScoped
+public class Tracer {
+
+    private static final int DRAIN_BATCH = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final String OK = "ok";
+    private static final String ERROR = "error";
+    private static final String CANCELLED = "cancelled";
+
+    private final TraceLevel level;
+    private final double sampleRate;
+    private final TraceRing ring;
+    private final PrintStream out;
+    private final LongAdder written = new LongAdder();
+    private final StringBuilder line = new StringBuilder(8192);
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public Tracer() {
+        this(TraceLevel.valueOf(System.getenv().getOrDefault("MCP_TRACE_LEVEL", "info").toUpperCase(Locale.ROOT)),
+            Double.parseDouble(System.getenv().getOrDefault("MCP_TRACE_SAMPLE_RATE", "1.0")),
+            Integer.parseInt(System.getenv().getOrDefault("MCP_TRACE_BUFFER", "65536")),
+            System.out);
+    }
+
+    Tracer(TraceLevel level, double sampleRate, int capacity, PrintStream out) {
+        this.level = level;
+        this.sampleRate = sampleRate;
+        this.ring = new TraceRing(capacity);
+        this.out = out;
+    }
+
+    @PostConstruct
+    void start() {
+        if (level == TraceLevel.OFF) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().daemon().name("mcp-trace-writer").start(this::writeLoop);
+    }
+
+    /** Writes the events still in the ring. */
+    @PreDestroy
+    void stop() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isEnabled(TraceLevel eventLevel) {
+        return eventLevel != TraceLevel.OFF && eventLevel.compareTo(level) >= 0;
+    }
+
+    /** Returns a copy of the specification that traces its sampled calls, or the specification itself when off. */
+    public McpServerFeatures.AsyncToolSpecification wrap(McpServerFeatures.AsyncToolSpecification spec) {
+        if (!isEnabled(TraceLevel.INFO)) {
+            return spec;
+        }
+        var handler = spec.callHandler();
+        String toolName = spec.tool().name();
+        return McpServerFeatures.AsyncToolSpecification.builder()
+            .tool(spec.tool())
+            .callHandler((exchange, toolReq) -> {
+                if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+                    return handler.apply(exchange, toolReq);
+                }
+                return Mono.defer(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    Span span = new Span(this, random.nextLong(), random.nextLong(), toolName);
+                    long start = System.nanoTime();
+                    record(TraceRing.START, TraceLevel.INFO, span, null, null, 0);
+                    String[] outcome = {OK};
+                    return Mono.defer(() -> handler.apply(exchange, toolReq))
+                        .doOnNext(result -> {
+                            if (Boolean.TRUE.equals(result.isError())) {
+                                outcome[0] = ERROR;
+                            }
+                        })
+                        .doOnError(e -> outcome[0] = ERROR)
+                        .doFinally(signal -> record(TraceRing.END, TraceLevel.INFO, span, null,
+                            signal == SignalType.CANCEL ? CANCELLED : outcome[0], System.nanoTime() - start))
+                        .contextWrite(Context.of(Span.class, span));
+                });
+            })
+            .build();
+    }
+
+    void record(byte kind, TraceLevel eventLevel, Span span, String name, String detail, long value) {
+        ring.offer(kind, eventLevel, span.traceId(), span.spanId(), span.tool(), name, detail, value);
+    }
+
+    public long written() {
+        return written.sum();
+    }
+
+    /** Events dropped because the writer fell a full ring behind. */
+    public long dropped() {
+        return ring.dropped();
+    }
+
+    private void writeLoop() {
+        while (running) {
+            if (writeBatch() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        while (writeBatch() > 0) {
+            // Drain what was recorded before stop
+        }
+    }
+
+    // Writer thread only
+    private int writeBatch() {
+        int drained = ring.drain(this::format, DRAIN_BATCH);
+        if (drained > 0) {
+            out.print(line);
+            out.flush();
+            line.setLength(0);
+            written.add(drained);
+        }
+        return drained;
+    }
+
+    private void format(TraceRing.Slot event) {
+        StringBuilder sb = line;
+        sb.append("{\"ts\":\"").append(Instant.ofEpochMilli(event.epochMillis)).append('"');
+        sb.append(",\"level\":\"").append(event.level.field()).append('"');
+        hex(sb.append(",\"trace\":\""), event.traceId).append('"');
+        hex(sb.append(",\"span\":\""), event.spanId).append('"');
+        string(sb.append(",\"tool\":"), event.tool);
+        switch (event.kind) {
+            case TraceRing.START -> sb.append(",\"event\":\"start\"");
+            case TraceRing.END -> {
+                sb.append(",\"event\":\"end\"");
+                string(sb.append(",\"outcome\":"), event.detail);
+                sb.append(",\"durationMicros\":").append(TimeUnit.NANOSECONDS.toMicros(event.value));
+            }
+            default -> {
+                string(sb.append(",\"event\":"), event.name);
+                if (event.detail != null) {
+                    string(sb.append(",\"detail\":"), event.detail);
+                }
+                sb.append(",\"value\":").append(event.value);
+            }
+        }
+        string(sb.append(",\"thread\":"), event.thread);
+        sb.append("}\n");
+    }
+
+    private static StringBuilder hex(StringBuilder sb, long id) {
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            sb.append(Character.forDigit((int) (id >>> shift) & 0xf, 16));
+        }
+        return sb;
+    }
+
+    private static void string(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,429 @@
+package mcp_demo.transport;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import io.modelcontextprotocol.spec.HttpHeaders;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.JSONRPCMessage;
+import io.modelcontextprotocol.spec.McpSchema.JSONRPCNotification;
+import io.modelcontextprotocol.spec.McpSchema.JSONRPCRequest;
+import io.modelcontextprotocol.spec.McpSchema.JSONRPCResponse;
+import io.modelcontextprotocol.spec.McpStreamableServerSession;
+import io.modelcontextprotocol.spec.McpStreamableServerTransport;
+import io.modelcontextprotocol.spec.McpStreamableServerTransportProvider;
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.buffer.impl.BufferImpl;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+
+/**
+ * Streamable HTTP transport that writes every message from a pooled buffer (see JsonCodec).
+ *
+ * A POST request is answered with a single application/json body when its response is the first message the call
+ * sends, which is the common case. Calls that send progress or other messages first switch to a text/event-stream
+ * response. JSON bodies of at least compressMinBytes are left to the HTTP server's gzip/deflate compression when the
+ * client accepts it; smaller bodies and event streams are sent as they are. A client that disconnects cancels its
+ * call. GET opens the session's listening stream and DELETE ends the session. A POST body larger than maxBodyBytes
+ * is answered with 413 without being read into memory.
+ *
+ * Sessions are kept in the SessionStore and reach across nodes over the event bus (see SessionRegistry), so with a
+ * clustered Vert.x any node can serve any session.
+ */
+public class BufferStreamableTransportProvider implements McpStreamableServerTransportProvider, Handler<HttpServerRequest> {
+
+    private static final String APPLICATION_JSON = "application/json";
+    private static final String TEXT_EVENT_STREAM = "text/event-stream";
+    private static final String IDENTITY = "identity";
+
+    private final JsonCodec codec;
+    private final String endpoint;
+    private final int compressMinBytes;
+    private final long maxBodyBytes;
+    private final TransportErrors errors;
+    private final SessionRegistry sessions;
+    private volatile boolean closing;
+
+    /**
+     * @param compressMinBytes smallest JSON body that may be compressed, -1 when the HTTP server does not compress
+     * @param maxBodyBytes largest POST body accepted
+     * @param errors where failures that can not be answered to a client are logged and counted
+     */
+    public BufferStreamableTransportProvider(Vertx vertx, JsonCodec codec, SessionStore sessionStore, String endpoint,
+            int compressMinBytes, long maxBodyBytes, TransportErrors errors) {
+        this.codec = codec;
+        this.endpoint = endpoint;
+        this.compressMinBytes = compressMinBytes;
+        this.maxBodyBytes = maxBodyBytes;
+        this.errors = errors;
+        this.sessions = new SessionRegistry(vertx, codec, sessionStore, errors);
+    }
+
+    @Override
+    public List<String> protocolVersions() {
+        return List.of("2024-11-05", "2025-03-26");
+    }
+
+    @Override
+    public void setSessionFactory(McpStreamableServerSession.Factory sessionFactory) {
+        sessions.setSessionFactory(sessionFactory);
+    }
+
+    @Override
+    public Mono<Void> notifyClients(String method, Object params) {
+        return Mono.fromRunnable(() -> sessions.notifyAll(method, params));
+    }
+
+    /** Stops serving: closes this node's sessions but keeps them in the store, so other nodes can take them over. */
+    @Override
+    public Mono<Void> closeGracefully() {
+        return Mono.defer(() -> {
+            closing = true;
+            return sessions.closeGracefully();
+        });
+    }
+
+    @Override
+    public void handle(HttpServerRequest request) {
+        if (!endpoint.equals(request.path())) {
+            request.response().setStatusCode(404).end();
+            return;
+        }
+        if (closing) {
+            error(request.response(), 503, McpSchema.ErrorCodes.INTERNAL_ERROR, "Server is shutting down");
+            return;
+        }
+        HttpMethod method = request.method();
+        if (HttpMethod.POST.equals(method)) {
+            readBody(request);
+        } else if (HttpMethod.GET.equals(method)) {
+            get(request);
+        } else if (HttpMethod.DELETE.equals(method)) {
+            delete(request);
+        } else {
+            request.response().setStatusCode(405).end();
+        }
+    }
+
+    /** Reads the body up to maxBodyBytes, then posts it; like the BodyHandler of Vert.x Web, a larger one gets a 413. */
+    private void readBody(HttpServerRequest request) {
+        HttpServerResponse response = request.response();
+        String contentLength = request.getHeader("Content-Length");
+        try {
+            if (contentLength != null && Long.parseLong(contentLength) > maxBodyBytes) {
+                bodyTooLarge(response);
+                return;
+            }
+        } catch (NumberFormatException e) {
+            error(response, 400, McpSchema.ErrorCodes.INVALID_REQUEST, "Invalid Content-Length: " + contentLength);
+            return;
+        }
+        Buffer body = Buffer.buffer();
+        request.handler(chunk -> {
+            if (response.ended()) {
+                // Too large: the rest of the body is discarded as it arrives
+                return;
+            }
+            if (body.length() + chunk.length() > maxBodyBytes) {
+                bodyTooLarge(response);
+                return;
+            }
+            body.appendBuffer(chunk);
+        });
+        request.exceptionHandler(e -> error(response, 400, McpSchema.ErrorCodes.INVALID_REQUEST,
+            "Failed to read the request body: " + e.getMessage()));
+        request.endHandler(v -> {
+            if (!response.ended()) {
+                post(request, body);
+            }
+        });
+    }
+
+    private void bodyTooLarge(HttpServerResponse response) {
+        error(response, 413, McpSchema.ErrorCodes.INVALID_REQUEST, "Request body larger than " + maxBodyBytes + " bytes");
+    }
+
+    private void post(HttpServerRequest request, Buffer body) {
+        HttpServerResponse response = request.response();
+        if (!accepts(request, APPLICATION_JSON) || !accepts(request, TEXT_EVENT_STREAM)) {
+            error(response, 400, McpSchema.ErrorCodes.INVALID_REQUEST,
+                "application/json and text/event-stream required in Accept header");
+            return;
+        }
+        JSONRPCMessage message;
+        try {
+            message = codec.decode(body);
+        } catch (IOException | IllegalArgumentException e) {
+            error(response, 400, McpSchema.ErrorCodes.PARSE_ERROR, "Invalid JSON-RPC message: " + e.getMessage());
+            return;
+        }
+
+        if (message instanceof JSONRPCRequest initialize && McpSchema.METHOD_INITIALIZE.equals(initialize.method())) {
+            initialize(initialize, response);
+            return;
+        }
+        String sessionId = sessionId(request);
+        if (sessionId == null) {
+            return;
+        }
+        if (message instanceof JSONRPCRequest call) {
+            // Still open when the connection closes: the client left, so the call is cancelled. Set before the
+            // session lookup, which may complete after the client left, and before subscribing, since a call
+            // answered synchronously (a cache hit) has ended the response by then
+            Disposable.Swap subscription = Disposables.swap();
+            response.closeHandler(v -> subscription.dispose());
+            sessions.find(sessionId).onComplete(found -> {
+                if (found.failed() || found.result() == null) {
+                    sessionNotFound(response, sessionId, found.cause());
+                    return;
+                }
+                if (subscription.isDisposed()) {
+                    return;
+                }
+                var session = found.result();
+                session.acquire();
+                subscription.update(session.session().responseStream(call, new ResponseStream(response, false))
+                    .doFinally(signal -> session.release())
+                    .subscribe(null, e -> {
+                        errors.record("Failed to handle " + call.method() + " request", e);
+                        if (!response.headWritten()) {
+                            error(response, 500, McpSchema.ErrorCodes.INTERNAL_ERROR, String.valueOf(e.getMessage()));
+                        } else if (!response.ended()) {
+                            response.end();
+                        }
+                    }));
+            });
+        } else {
+            // Notifications and responses go to every node holding the session: the call or request they are
+            // about may be running on any of them
+            sessions.exists(sessionId).onComplete(exists -> {
+                if (exists.failed() || !exists.result()) {
+                    sessionNotFound(response, sessionId, exists.cause());
+                    return;
+                }
+                sessions.deliver(sessionId, body);
+                response.setStatusCode(202).end();
+            });
+        }
+    }
+
+    private void initialize(JSONRPCRequest request, HttpServerResponse response) {
+        McpSchema.InitializeRequest initializeRequest;
+        try {
+            initializeRequest = codec.mapper().convertValue(request.params(), McpSchema.InitializeRequest.class);
+        } catch (IllegalArgumentException e) {
+            error(response, 400, McpSchema.ErrorCodes.INVALID_PARAMS, "Invalid initialize request: " + e.getMessage());
+            return;
+        }
+        sessions.create(initializeRequest)
+            .onSuccess(init -> init.initResult().subscribe(
+                result -> {
+                    response.putHeader(HttpHeaders.MCP_SESSION_ID, init.session().getId());
+                    endJson(response, new JSONRPCResponse(McpSchema.JSONRPC_VERSION, request.id(), result, null));
+                },
+                e -> {
+                    sessions.delete(init.session().getId());
+                    error(response, 500, McpSchema.ErrorCodes.INTERNAL_ERROR, "Failed to initialize session: " + e.getMessage());
+                }))
+            .onFailure(e -> error(response, 500, McpSchema.ErrorCodes.INTERNAL_ERROR,
+                "Failed to initialize session: " + e.getMessage()));
+    }
+
+    private void get(HttpServerRequest request) {
+        HttpServerResponse response = request.response();
+        if (!accepts(request, TEXT_EVENT_STREAM)) {
+            error(response, 400, McpSchema.ErrorCodes.INVALID_REQUEST, "text/event-stream required in Accept header");
+            return;
+        }
+        String sessionId = sessionId(request);
+        if (sessionId == null) {
+            return;
+        }
+        // Set before the session lookup, so a client that leaves during it does not leave a listening stream behind
+        Promise<Void> closed = Promise.promise();
+        response.closeHandler(v -> closed.tryComplete());
+        sessions.find(sessionId).onComplete(found -> {
+            if (found.failed() || found.result() == null) {
+                sessionNotFound(response, sessionId, found.cause());
+                return;
+            }
+            if (closed.future().isComplete()) {
+                return;
+            }
+            var session = found.result();
+            // Headers go out now: the stream may stay silent for a long time
+            startStream(response);
+            response.writeHead();
+            var listeningStream = session.listen(new ResponseStream(response, true));
+            closed.future().onComplete(v -> session.unlisten(listeningStream));
+        });
+    }
+
+    private void delete(HttpServerRequest request) {
+        HttpServerResponse response = request.response();
+        String sessionId = sessionId(request);
+        if (sessionId == null) {
+            return;
+        }
+        sessions.exists(sessionId)
+            .compose(exists -> exists ? sessions.delete(sessionId).map(true) : Future.succeededFuture(false))
+            .onComplete(deleted -> {
+                if (deleted.failed() || !deleted.result()) {
+                    sessionNotFound(response, sessionId, deleted.cause());
+                } else {
+                    response.setStatusCode(200).end();
+                }
+            });
+    }
+
+    /** The session id of the request, or null once the error response has been sent. */
+    private String sessionId(HttpServerRequest request) {
+        String sessionId = request.getHeader(HttpHeaders.MCP_SESSION_ID);
+        if (sessionId == null) {
+            error(request.response(), 400, McpSchema.ErrorCodes.INVALID_REQUEST,
+                "Session ID required in " + HttpHeaders.MCP_SESSION_ID + " header");
+        }
+        return sessionId;
+    }
+
+    private void sessionNotFound(HttpServerResponse response, String sessionId, Throwable storeFailure) {
+        if (storeFailure != null) {
+            error(response, 500, McpSchema.ErrorCodes.INTERNAL_ERROR, "Session store failed: " + storeFailure.getMessage());
+        } else {
+            error(response, 404, McpSchema.ErrorCodes.INVALID_REQUEST, "Session not found: " + sessionId);
+        }
+    }
+
+    private void endJson(HttpServerResponse response, Object body) {
+        ByteBuf json;
+        try {
+            json = codec.encode(body);
+        } catch (IOException | RuntimeException e) {
+            errors.record("Failed to serialize response", e);
+            response.setStatusCode(500).end();
+            return;
+        }
+        response.putHeader("Content-Type", APPLICATION_JSON);
+        if (compressMinBytes >= 0 && json.readableBytes() < compressMinBytes) {
+            response.putHeader("Content-Encoding", IDENTITY);
+        }
+        send(response, json, true);
+    }
+
+    private void error(HttpServerResponse response, int status, int code, String message) {
+        if (response.ended()) {
+            return;
+        }
+        response.setStatusCode(status);
+        endJson(response, new JSONRPCResponse(McpSchema.JSONRPC_VERSION, null, null,
+            new JSONRPCResponse.JSONRPCError(code, message, null)));
+    }
+
+    private void startStream(HttpServerResponse response) {
+        response.setChunked(true)
+            .putHeader("Content-Type", TEXT_EVENT_STREAM)
+            .putHeader("Cache-Control", "no-cache");
+        if (compressMinBytes >= 0) {
+            // Deflating each event on its own costs more than it saves, and a compressor may hold events back
+            response.putHeader("Content-Encoding", IDENTITY);
+        }
+    }
+
+    private static boolean accepts(HttpServerRequest request, String mediaType) {
+        String accept = request.getHeader("Accept");
+        return accept != null && accept.contains(mediaType);
+    }
+
+    /** Writes the pooled buffer and releases it once Netty is done with it. */
+    private static void send(HttpServerResponse response, ByteBuf payload, boolean end) {
+        Future<Void> written;
+        try {
+            written = end ? response.end(BufferImpl.buffer(payload)) : response.write(BufferImpl.buffer(payload));
+        } catch (IllegalStateException e) {
+            // Already ended, e.g. by a cancellation racing the last message
+            payload.release();
+            return;
+        }
+        written.onComplete(ar -> payload.release());
+    }
+
+    /**
+     * The response of one POST request, or of the GET listening stream. Messages may be sent from any thread:
+     * tools that run on worker or virtual threads send their results from there.
+     */
+    private final class ResponseStream implements McpStreamableServerTransport {
+
+        private final HttpServerResponse response;
+        private boolean streaming;
+        private boolean closed;
+
+        ResponseStream(HttpServerResponse response, boolean streaming) {
+            this.response = response;
+            this.streaming = streaming;
+        }
+
+        @Override
+        public Mono<Void> sendMessage(JSONRPCMessage message) {
+            return sendMessage(message, null);
+        }
+
+        @Override
+        public Mono<Void> sendMessage(JSONRPCMessage message, String messageId) {
+            return Mono.fromRunnable(() -> send(message, messageId));
+        }
+
+        private synchronized void send(JSONRPCMessage message, String messageId) {
+            if (closed) {
+                return;
+            }
+            if (!streaming && message instanceof JSONRPCResponse) {
+                closed = true;
+                endJson(response, message);
+                return;
+            }
+            ByteBuf event;
+            try {
+                event = codec.encodeEvent(message, messageId);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to serialize " + message, e);
+            }
+            if (!streaming) {
+                streaming = true;
+                startStream(response);
+            }
+            BufferStreamableTransportProvider.send(response, event, false);
+        }
+
+        @Override
+        public <T> T unmarshalFrom(Object data, TypeReference<T> typeRef) {
+            return codec.mapper().convertValue(data, typeRef);
+        }
+
+        @Override
+        public Mono<Void> closeGracefully() {
+            return Mono.fromRunnable(this::close);
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (!response.ended()) {
+                response.end();
+            }
+        }
+    }
+}
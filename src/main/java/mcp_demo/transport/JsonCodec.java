@@ -0,0 +1,110 @@
+package mcp_demo.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.JSONRPCMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.buffer.impl.BufferImpl;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * The single ObjectMapper of the MCP transport, and the encoding of its messages.
+ *
+ * Messages are serialized straight into pooled direct ByteBufs: no intermediate String, no UTF-8 copy and no
+ * heap-to-direct copy when Netty writes them to the socket. The caller owns the returned ByteBuf and must release it.
+ *
+ * Buffers are unwrapped and wrapped through BufferImpl, Vert.x 4's counterpart of the Vert.x 5 BufferInternal: the
+ * ByteBuf accessors of Buffer are deprecated.
+ *
+ * The mapper uses Blackbird, which replaces reflective accessors with generated lambdas.
+ */
+@ApplicationScoped
+public class JsonCodec {
+
+    private static final int INITIAL_CAPACITY = 512;
+    private static final byte[] EVENT = "event: message\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ID = "id: ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DATA = "data: ".getBytes(StandardCharsets.US_ASCII);
+    private static final TypeReference<HashMap<String, Object>> MAP = new TypeReference<>() {
+    };
+
+    private final ObjectMapper mapper = JsonMapper.builder()
+        .addModule(new BlackbirdModule())
+        .build();
+
+    public ObjectMapper mapper() {
+        return mapper;
+    }
+
+    /** The JSON of the value. */
+    public ByteBuf encode(Object value) throws IOException {
+        ByteBuf buf = PooledByteBufAllocator.DEFAULT.directBuffer(INITIAL_CAPACITY);
+        try {
+            write(buf, value);
+            return buf;
+        } catch (IOException | RuntimeException e) {
+            buf.release();
+            throw e;
+        }
+    }
+
+    /** One server-sent "message" event carrying the message. Jackson escapes line breaks, so the JSON is one data line. */
+    public ByteBuf encodeEvent(JSONRPCMessage message, String id) throws IOException {
+        ByteBuf buf = PooledByteBufAllocator.DEFAULT.directBuffer(INITIAL_CAPACITY);
+        try {
+            buf.writeBytes(EVENT);
+            if (id != null) {
+                buf.writeBytes(ID).writeCharSequence(id, StandardCharsets.UTF_8);
+                buf.writeByte('\n');
+            }
+            buf.writeBytes(DATA);
+            write(buf, message);
+            buf.writeByte('\n').writeByte('\n');
+            return buf;
+        } catch (IOException | RuntimeException e) {
+            buf.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a JSON-RPC message from the request body without turning it into a String first.
+     * Same rules as McpSchema.deserializeJsonRpcMessage.
+     */
+    public JSONRPCMessage decode(Buffer body) throws IOException {
+        Map<String, Object> map;
+        // A slice, so reading does not move the reader index of a body other handlers may read too
+        try (InputStream in = new ByteBufInputStream(((BufferImpl) body).byteBuf().slice())) {
+            map = mapper.readValue(in, MAP);
+        }
+        if (map.containsKey("method") && map.containsKey("id")) {
+            return mapper.convertValue(map, McpSchema.JSONRPCRequest.class);
+        } else if (map.containsKey("method")) {
+            return mapper.convertValue(map, McpSchema.JSONRPCNotification.class);
+        } else if (map.containsKey("result") || map.containsKey("error")) {
+            return mapper.convertValue(map, McpSchema.JSONRPCResponse.class);
+        }
+        throw new IllegalArgumentException("Cannot deserialize JSONRPCMessage: " + map);
+    }
+
+    private void write(ByteBuf buf, Object value) throws IOException {
+        try (OutputStream out = new ByteBufOutputStream(buf)) {
+            mapper.writeValue(out, value);
+        }
+    }
+}
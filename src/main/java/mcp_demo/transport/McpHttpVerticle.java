@@ -0,0 +1,50 @@
+package mcp_demo.transport;
+
+import java.util.function.Consumer;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Promise;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.ext.web.Router;
+
+/**
+ * Serves the buffer transport on the MCP port. Like McpVerticle, several instances share the port and the transport,
+ * so its sessions can be served from any event loop; the MCP server itself is built once by MainVerticle.
+ * Other routes, such as /metrics and /health, can be mounted next to the MCP endpoint.
+ */
+public class McpHttpVerticle extends AbstractVerticle {
+
+    private final int port;
+    private final BufferStreamableTransportProvider transport;
+    private final boolean compression;
+    private final Consumer<Router> routes;
+
+    public McpHttpVerticle(int port, BufferStreamableTransportProvider transport, boolean compression) {
+        this(port, transport, compression, router -> {
+        });
+    }
+
+    public McpHttpVerticle(int port, BufferStreamableTransportProvider transport, boolean compression,
+            Consumer<Router> routes) {
+        this.port = port;
+        this.transport = transport;
+        this.compression = compression;
+        this.routes = routes;
+    }
+
+    @Override
+    public void start(Promise<Void> startPromise) {
+        Router router = Router.router(vertx);
+        routes.accept(router);
+        // No body handler: the transport reads the body itself, within its size limit
+        router.route().handler(ctx -> transport.handle(ctx.request()));
+
+        // gzip or deflate, whichever the client accepts; the transport opts small bodies and event streams out
+        HttpServerOptions options = new HttpServerOptions().setCompressionSupported(compression);
+        vertx.createHttpServer(options)
+            .requestHandler(router)
+            .listen(port)
+            .<Void>mapEmpty()
+            .onComplete(startPromise);
+    }
+}
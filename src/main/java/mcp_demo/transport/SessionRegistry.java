@@ -0,0 +1,268 @@
+package mcp_demo.transport;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.JSONRPCMessage;
+import io.modelcontextprotocol.spec.McpSchema.JSONRPCNotification;
+import io.modelcontextprotocol.spec.McpSchema.JSONRPCResponse;
+import io.modelcontextprotocol.spec.McpStreamableServerSession;
+import io.modelcontextprotocol.spec.McpStreamableServerTransport;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The sessions of one transport node, which may share its session store and event bus with other nodes.
+ *
+ * A session lives in the store; every node that serves one of its requests holds a local copy, created from the
+ * stored initialize request. Client notifications and responses go to every copy over the event bus, so a
+ * notifications/cancelled reaches the node running the call and a response reaches the node that sent the request.
+ * Server notifications are published to all nodes and sent by the nodes holding a listening stream. Copies that
+ * stay idle for the store's TTL are dropped; the store entry is refreshed while the session is used, and survives
+ * the node, so another node can take over.
+ */
+final class SessionRegistry {
+
+    private static final String NOTIFY_ADDRESS = "mcp.notify";
+    private static final String SESSION_ADDRESS = "mcp.session.";
+    private static final String ACTION = "action";
+    private static final String DELETE = "delete";
+
+    private final Vertx vertx;
+    private final JsonCodec codec;
+    private final SessionStore store;
+    private final TransportErrors errors;
+    private final long ttlNanos;
+    private final Map<String, Future<LocalSession>> sessions = new ConcurrentHashMap<>();
+    private final MessageConsumer<Buffer> notifications;
+    private final long evictionTimer;
+    private volatile McpStreamableServerSession.Factory sessionFactory;
+
+    SessionRegistry(Vertx vertx, JsonCodec codec, SessionStore store, TransportErrors errors) {
+        this.vertx = vertx;
+        this.codec = codec;
+        this.store = store;
+        this.errors = errors;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(store.ttlMillis());
+        this.notifications = vertx.eventBus().consumer(NOTIFY_ADDRESS, this::notifyListening);
+        this.evictionTimer = vertx.setPeriodic(Math.max(1000, store.ttlMillis() / 2), id -> evictIdle());
+    }
+
+    void setSessionFactory(McpStreamableServerSession.Factory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    /** Starts a session on this node and stores it for the others. */
+    Future<McpStreamableServerSession.McpStreamableServerSessionInit> create(McpSchema.InitializeRequest request) {
+        String initializeRequest;
+        try {
+            initializeRequest = codec.mapper().writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            return Future.failedFuture(e);
+        }
+        var init = sessionFactory.startSession(request);
+        String sessionId = init.session().getId();
+        return store.put(sessionId, initializeRequest)
+            .compose(v -> attach(sessionId, init.session(), initializeRequest))
+            .map(session -> {
+                sessions.put(sessionId, Future.succeededFuture(session));
+                return init;
+            });
+    }
+
+    /** The local copy of the session, created from the store if needed; null when the session is unknown. */
+    Future<LocalSession> find(String sessionId) {
+        Future<LocalSession> found = sessions.computeIfAbsent(sessionId, this::restore);
+        return found.andThen(ar -> {
+            if (ar.failed() || ar.result() == null) {
+                sessions.remove(sessionId, found);
+            }
+        });
+    }
+
+    Future<Boolean> exists(String sessionId) {
+        return sessions.containsKey(sessionId) ? Future.succeededFuture(true) : store.get(sessionId).map(json -> json != null);
+    }
+
+    /** Hands a client notification or response, as sent by the client, to every copy of the session. */
+    void deliver(String sessionId, Buffer message) {
+        vertx.eventBus().publish(SESSION_ADDRESS + sessionId, message);
+    }
+
+    Future<Void> delete(String sessionId) {
+        // The local copy goes right away, so that no request on this node still finds it once the delete is answered;
+        // its consumer gets the broadcast like the other copies and closes it
+        sessions.remove(sessionId);
+        return store.remove(sessionId).onComplete(ar -> vertx.eventBus().publish(SESSION_ADDRESS + sessionId, Buffer.buffer(),
+            new DeliveryOptions().addHeader(ACTION, DELETE)));
+    }
+
+    /** Sends a notification to every session with a listening stream, on whichever node holds the stream. */
+    void notifyAll(String method, Object params) {
+        try {
+            byte[] notification = codec.mapper().writeValueAsBytes(new JSONRPCNotification(McpSchema.JSONRPC_VERSION, method, params));
+            vertx.eventBus().publish(NOTIFY_ADDRESS, Buffer.buffer(notification));
+        } catch (JsonProcessingException e) {
+            errors.record("Failed to serialize " + method + " notification", e);
+        }
+    }
+
+    /** Closes the copies on this node and leaves the sessions in the store for the other nodes. */
+    Mono<Void> closeGracefully() {
+        return Mono.defer(() -> {
+            vertx.cancelTimer(evictionTimer);
+            notifications.unregister();
+            return Flux.fromIterable(sessions.values())
+                .filter(found -> found.succeeded() && found.result() != null)
+                .flatMap(found -> {
+                    found.result().consumer.unregister();
+                    return found.result().session.closeGracefully();
+                })
+                .then()
+                .doFinally(signal -> sessions.clear());
+        });
+    }
+
+    private Future<LocalSession> restore(String sessionId) {
+        return store.get(sessionId).compose(initializeRequest -> {
+            if (initializeRequest == null) {
+                return Future.succeededFuture();
+            }
+            McpSchema.InitializeRequest request;
+            try {
+                request = codec.mapper().readValue(initializeRequest, McpSchema.InitializeRequest.class);
+            } catch (JsonProcessingException e) {
+                return Future.failedFuture(e);
+            }
+            // The SDK names sessions itself, so the copy has an id of its own; clients keep using the stored one
+            return attach(sessionId, sessionFactory.startSession(request).session(), initializeRequest);
+        });
+    }
+
+    private Future<LocalSession> attach(String sessionId, McpStreamableServerSession session, String initializeRequest) {
+        MessageConsumer<Buffer> consumer = vertx.eventBus().consumer(SESSION_ADDRESS + sessionId);
+        LocalSession local = new LocalSession(sessionId, session, consumer, initializeRequest);
+        // Registration travels the cluster: wait for it, or a notification sent right away could miss this copy
+        Promise<Void> registered = Promise.promise();
+        consumer.completionHandler(registered);
+        consumer.handler(local::receive);
+        return registered.future().map(local);
+    }
+
+    private void notifyListening(Message<Buffer> message) {
+        JSONRPCNotification notification;
+        try {
+            notification = (JSONRPCNotification) codec.decode(message.body());
+        } catch (IOException | RuntimeException e) {
+            errors.record("Dropping malformed session notification", e);
+            return;
+        }
+        for (Future<LocalSession> found : sessions.values()) {
+            LocalSession local = found.result();
+            if (local != null && local.listeners.get() > 0) {
+                local.session.sendNotification(notification.method(), notification.params())
+                    .subscribe(null, e -> errors.record("Failed to notify session " + local.sessionId, e));
+            }
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        sessions.forEach((sessionId, found) -> {
+            LocalSession local = found.result();
+            if (local != null && local.open.get() == 0 && now - local.lastUsed > ttlNanos && sessions.remove(sessionId, found)) {
+                local.consumer.unregister();
+                local.session.close();
+            }
+        });
+    }
+
+    /** This node's copy of a session, in use while requests or listening streams are open on it. */
+    final class LocalSession {
+
+        private final String sessionId;
+        private final McpStreamableServerSession session;
+        private final MessageConsumer<Buffer> consumer;
+        private final String initializeRequest;
+        private final AtomicInteger open = new AtomicInteger();
+        private final AtomicInteger listeners = new AtomicInteger();
+        private volatile long lastUsed = System.nanoTime();
+        private volatile long lastStored = lastUsed;
+
+        LocalSession(String sessionId, McpStreamableServerSession session, MessageConsumer<Buffer> consumer,
+                String initializeRequest) {
+            this.sessionId = sessionId;
+            this.session = session;
+            this.consumer = consumer;
+            this.initializeRequest = initializeRequest;
+        }
+
+        McpStreamableServerSession session() {
+            return session;
+        }
+
+        void acquire() {
+            open.incrementAndGet();
+            lastUsed = System.nanoTime();
+            // Refresh the stored session well before it expires; racing refreshes only put the same value twice
+            if (lastUsed - lastStored > ttlNanos / 2) {
+                lastStored = lastUsed;
+                store.put(sessionId, initializeRequest)
+                    .onFailure(e -> errors.record("Failed to refresh session " + sessionId, e));
+            }
+        }
+
+        void release() {
+            lastUsed = System.nanoTime();
+            open.decrementAndGet();
+        }
+
+        McpStreamableServerSession.McpStreamableServerSessionStream listen(McpStreamableServerTransport transport) {
+            acquire();
+            listeners.incrementAndGet();
+            return session.listeningStream(transport);
+        }
+
+        void unlisten(McpStreamableServerSession.McpStreamableServerSessionStream stream) {
+            stream.close();
+            listeners.decrementAndGet();
+            release();
+        }
+
+        private void receive(Message<Buffer> message) {
+            if (DELETE.equals(message.headers().get(ACTION))) {
+                sessions.remove(sessionId);
+                consumer.unregister();
+                session.delete().subscribe(null, e -> errors.record("Failed to delete session " + sessionId, e));
+                return;
+            }
+            JSONRPCMessage received;
+            try {
+                received = codec.decode(message.body());
+            } catch (IOException | RuntimeException e) {
+                errors.record("Dropping malformed message for session " + sessionId, e);
+                return;
+            }
+            if (received instanceof JSONRPCNotification notification) {
+                session.accept(notification)
+                    .subscribe(null, e -> errors.record("Failed to handle " + notification.method(), e));
+            } else if (received instanceof JSONRPCResponse response) {
+                // Every copy gets the response; only the one that sent the request knows its id
+                session.accept(response).onErrorComplete().subscribe();
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package mcp_demo.transport;
+
+import io.vertx.core.Future;
+
+/**
+ * Where the transport keeps what another node needs to take over a session: the client's initialize request,
+ * as JSON. Entries expire ttlMillis after they were last put.
+ */
+public interface SessionStore {
+
+    Future<Void> put(String sessionId, String initializeRequest);
+
+    /** The initialize request of the session, or null when the session is unknown or expired. */
+    Future<String> get(String sessionId);
+
+    Future<Void> remove(String sessionId);
+
+    long ttlMillis();
+}
@@ -0,0 +1,41 @@
+package mcp_demo.transport;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.AsyncMap;
+
+/**
+ * Session store on a Vert.x async map: local to the JVM, or shared by every node when Vert.x is clustered.
+ */
+public class SharedDataSessionStore implements SessionStore {
+
+    private static final String MAP_NAME = "mcp.sessions";
+
+    private final Future<AsyncMap<String, String>> map;
+    private final long ttlMillis;
+
+    public SharedDataSessionStore(Vertx vertx, long ttlMillis) {
+        this.map = vertx.sharedData().getAsyncMap(MAP_NAME);
+        this.ttlMillis = ttlMillis;
+    }
+
+    @Override
+    public Future<Void> put(String sessionId, String initializeRequest) {
+        return map.compose(sessions -> sessions.put(sessionId, initializeRequest, ttlMillis));
+    }
+
+    @Override
+    public Future<String> get(String sessionId) {
+        return map.compose(sessions -> sessions.get(sessionId));
+    }
+
+    @Override
+    public Future<Void> remove(String sessionId) {
+        return map.compose(sessions -> sessions.remove(sessionId)).mapEmpty();
+    }
+
+    @Override
+    public long ttlMillis() {
+        return ttlMillis;
+    }
+}
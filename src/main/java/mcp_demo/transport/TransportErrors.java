@@ -0,0 +1,24 @@
+package mcp_demo.transport;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Failures of the buffer transport that no caller sees: those on event-bus handlers, timers and notifications sent
+ * in the background. Each is logged to stderr and counted, and /metrics exports the count as mcp_transport_errors_total.
+ */
+@ApplicationScoped
+public class TransportErrors {
+
+    private final LongAdder count = new LongAdder();
+
+    public void record(String what, Throwable e) {
+        count.increment();
+        System.err.println(what + ": " + e);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,488 @@
+package mcp_demo.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Wires the application's CDI beans at compile time, so that Main can start without Weld scanning the classpath.
+ *
+ * Every class that is @ApplicationScoped, @Singleton, @Dependent or an @McpTool is a bean; its @Produces methods
+ * produce beans too. The processor resolves each @Inject field and producer parameter by type and qualifier the way
+ * CDI would, reports unsatisfied and ambiguous dependencies as compile errors, and generates:
+ * - mcp_demo.cdi.GeneratedContainer: creates each bean on first use, injects it, calls @PostConstruct, and on
+ *   close() calls @PreDestroy and @Disposes methods in reverse order of creation
+ * - a {@code <Bean>_Bean} class next to each bean, so package-private fields and methods stay package-private
+ *
+ * @ApplicationScoped and @Singleton beans and producers have one instance. @Dependent ones, and those without a
+ * scope (such as an @McpTool with no other annotation), get a new instance per injection point, destroyed when the
+ * container closes. Other scopes are compile errors. Only the subset of CDI the application uses is supported: a
+ * no-argument constructor, field injection, Instance&lt;T&gt; over the beans of a type, and qualifiers without
+ * binding members. @McpTool beans must implement ToolProvider.
+ */
+@SupportedAnnotationTypes("*")
+public class BeanRegistryProcessor extends AbstractProcessor {
+
+    static final String APPLICATION_SCOPED = "jakarta.enterprise.context.ApplicationScoped";
+    static final String SINGLETON = "jakarta.inject.Singleton";
+    static final String DEPENDENT = "jakarta.enterprise.context.Dependent";
+    static final String CONTAINER_PACKAGE = "mcp_demo.cdi";
+    static final String CONTAINER_NAME = "GeneratedContainer";
+
+    private static final String INJECT = "jakarta.inject.Inject";
+    private static final String QUALIFIER = "jakarta.inject.Qualifier";
+    private static final String SCOPE = "jakarta.inject.Scope";
+    private static final String NORMAL_SCOPE = "jakarta.enterprise.context.NormalScope";
+    private static final String PRODUCES = "jakarta.enterprise.inject.Produces";
+    private static final String DISPOSES = "jakarta.enterprise.inject.Disposes";
+    private static final String INSTANCE = "jakarta.enterprise.inject.Instance";
+    private static final String ANY = "jakarta.enterprise.inject.Any";
+    private static final String POST_CONSTRUCT = "jakarta.annotation.PostConstruct";
+    private static final String PRE_DESTROY = "jakarta.annotation.PreDestroy";
+    private static final String MCP_TOOL = "mcp_demo.cdi.McpTool";
+    private static final String TOOL_PROVIDER = "mcp_demo.cdi.ToolProvider";
+    private static final String VETOED = "@jakarta.enterprise.inject.Vetoed";
+
+    private static final Set<String> SCOPES = Set.of(APPLICATION_SCOPED, SINGLETON, DEPENDENT);
+
+    /**
+     * A bean class or a producer method, with the container method that returns its instance: the same one, or a new
+     * one per call when dependent.
+     */
+    private record Source(String getter, TypeMirror type, Set<String> qualifiers, TypeElement beanClass,
+            ExecutableElement producer, boolean dependent) {
+    }
+
+    private boolean generated;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> beanDefining = new LinkedHashSet<>();
+        for (String name : List.of(APPLICATION_SCOPED, SINGLETON, DEPENDENT, MCP_TOOL)) {
+            TypeElement annotation = processingEnv.getElementUtils().getTypeElement(name);
+            if (annotation != null) {
+                beanDefining.add(annotation);
+            }
+        }
+        if (generated || beanDefining.isEmpty() || roundEnv.processingOver()) {
+            return false;
+        }
+        // Classes with another scope are picked up too, to be rejected rather than silently left out
+        Set<Element> candidates = new LinkedHashSet<>(
+            roundEnv.getElementsAnnotatedWithAny(beanDefining.toArray(new TypeElement[0])));
+        for (Element element : roundEnv.getRootElements()) {
+            if (scope(element) != null) {
+                candidates.add(element);
+            }
+        }
+        List<TypeElement> beans = new ArrayList<>();
+        for (Element element : candidates) {
+            if (element.getKind() == ElementKind.CLASS && check((TypeElement) element)) {
+                beans.add((TypeElement) element);
+            }
+        }
+        if (beans.isEmpty()) {
+            return false;
+        }
+        beans.sort(Comparator.comparing(bean -> bean.getQualifiedName().toString()));
+        generated = true;
+
+        List<Source> sources = sources(beans);
+        for (TypeElement bean : beans) {
+            writeBeanClass(bean, sources);
+        }
+        writeContainer(sources, beans);
+        return false;
+    }
+
+    private boolean check(TypeElement bean) {
+        if (bean.getNestingKind() != NestingKind.TOP_LEVEL || bean.getModifiers().contains(Modifier.ABSTRACT)
+                || !bean.getTypeParameters().isEmpty()) {
+            error(bean, "Beans must be top-level, concrete and not generic");
+            return false;
+        }
+        boolean constructor = ElementFilter.constructorsIn(bean.getEnclosedElements()).stream()
+            .anyMatch(c -> c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE));
+        if (!constructor) {
+            error(bean, "Beans need a non-private constructor without parameters");
+            return false;
+        }
+        if (!checkScope(bean)) {
+            return false;
+        }
+        if (annotation(bean, MCP_TOOL) != null) {
+            TypeElement toolProvider = processingEnv.getElementUtils().getTypeElement(TOOL_PROVIDER);
+            if (toolProvider != null && !isAssignable(bean.asType(), toolProvider.asType())) {
+                error(bean, "@McpTool beans must implement " + TOOL_PROVIDER);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<Source> sources(List<TypeElement> beans) {
+        List<Source> sources = new ArrayList<>();
+        Set<String> getters = new HashSet<>();
+        for (TypeElement bean : beans) {
+            sources.add(new Source(unique(decapitalize(bean.getSimpleName().toString()), getters), bean.asType(),
+                qualifiers(bean), bean, null, isDependent(bean)));
+        }
+        for (TypeElement bean : beans) {
+            for (ExecutableElement method : ElementFilter.methodsIn(bean.getEnclosedElements())) {
+                if (annotation(method, PRODUCES) == null) {
+                    continue;
+                }
+                if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) {
+                    error(method, "Producer methods must be non-private instance methods");
+                    continue;
+                }
+                if (!checkScope(method)) {
+                    continue;
+                }
+                TypeMirror type = method.getReturnType();
+                String name = processingEnv.getTypeUtils().asElement(type) instanceof TypeElement produced
+                    ? produced.getSimpleName().toString() : method.getSimpleName().toString();
+                sources.add(new Source(unique(decapitalize(name), getters), type, qualifiers(method), bean, method,
+                    isDependent(method)));
+            }
+        }
+        return sources;
+    }
+
+    private void writeBeanClass(TypeElement bean, List<Source> sources) {
+        String packageName = packageOf(bean);
+        String beanName = bean.getSimpleName().toString();
+        String container = CONTAINER_PACKAGE + "." + CONTAINER_NAME;
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler()
+                .createSourceFile(packageName + "." + beanName + "_Bean", bean).openWriter())) {
+            out.println("package " + packageName + ";");
+            out.println();
+            out.println("/** Generated by " + getClass().getName() + " to create and inject {@link " + beanName + "}. Do not edit. */");
+            out.println(VETOED);
+            out.println("public final class " + beanName + "_Bean {");
+            out.println();
+            out.println("    private " + beanName + "_Bean() {");
+            out.println("    }");
+            out.println();
+            out.println("    public static " + beanName + " newInstance() {");
+            out.println("        return new " + beanName + "();");
+            out.println("    }");
+            out.println();
+            out.println("    public static void inject(" + beanName + " bean, " + container + " container) {");
+            for (VariableElement field : ElementFilter.fieldsIn(bean.getEnclosedElements())) {
+                if (annotation(field, INJECT) == null) {
+                    continue;
+                }
+                if (field.getModifiers().contains(Modifier.PRIVATE) || field.getModifiers().contains(Modifier.FINAL)
+                        || field.getModifiers().contains(Modifier.STATIC)) {
+                    error(field, "Injected fields must be non-private, non-final instance fields");
+                    continue;
+                }
+                out.println("        bean." + field.getSimpleName() + " = " + resolve(field, field.asType(), sources) + ";");
+            }
+            out.println("    }");
+            for (ExecutableElement method : ElementFilter.methodsIn(bean.getEnclosedElements())) {
+                String lifecycle = annotation(method, POST_CONSTRUCT) != null ? "postConstruct"
+                    : annotation(method, PRE_DESTROY) != null ? "preDestroy" : null;
+                if (lifecycle != null) {
+                    if (!method.getParameters().isEmpty() || method.getModifiers().contains(Modifier.PRIVATE)) {
+                        error(method, "Lifecycle methods must be non-private and take no parameters");
+                        continue;
+                    }
+                    out.println();
+                    out.println("    public static void " + lifecycle + "(" + beanName + " bean) {");
+                    out.println("        bean." + method.getSimpleName() + "();");
+                    out.println("    }");
+                } else if (annotation(method, PRODUCES) != null && !method.getModifiers().contains(Modifier.PRIVATE)) {
+                    String arguments = method.getParameters().stream()
+                        .map(parameter -> resolve(parameter, parameter.asType(), sources))
+                        .collect(Collectors.joining(", "));
+                    out.println();
+                    out.println("    public static " + method.getReturnType() + " " + method.getSimpleName() + "(" + beanName
+                        + " bean, " + container + " container) {");
+                    out.println("        return bean." + method.getSimpleName() + "(" + arguments + ");");
+                    out.println("    }");
+                } else if (disposed(method) != null) {
+                    VariableElement disposed = disposed(method);
+                    out.println();
+                    out.println("    public static void " + method.getSimpleName() + "(" + beanName + " bean, "
+                        + disposed.asType() + " instance) {");
+                    out.println("        bean." + method.getSimpleName() + "(instance);");
+                    out.println("    }");
+                }
+            }
+            out.println("}");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeContainer(List<Source> sources, List<TypeElement> beans) {
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler()
+                .createSourceFile(CONTAINER_PACKAGE + "." + CONTAINER_NAME, beans.toArray(new Element[0])).openWriter())) {
+            out.println("package " + CONTAINER_PACKAGE + ";");
+            out.println();
+            out.println("/**");
+            out.println(" * Generated by " + getClass().getName() + ": every bean of the application, wired at build time.");
+            out.println(" * Beans are created on first use. Do not edit.");
+            out.println(" */");
+            out.println(VETOED);
+            out.println("public final class " + CONTAINER_NAME + " implements BeanContainer {");
+            out.println();
+            out.println("    private final java.util.List<Runnable> destroyers = new java.util.ArrayList<>();");
+            for (Source source : sources) {
+                if (!source.dependent()) {
+                    out.println("    private " + source.type() + " " + source.getter() + ";");
+                }
+            }
+            for (Source source : sources) {
+                out.println();
+                out.println("    public synchronized " + source.type() + " " + source.getter() + "() {");
+                if (source.dependent()) {
+                    writeCreation(out, source, sources, "        ");
+                    out.println("        return bean;");
+                } else {
+                    out.println("        if (" + source.getter() + " == null) {");
+                    writeCreation(out, source, sources, "            ");
+                    out.println("        }");
+                    out.println("        return " + source.getter() + ";");
+                }
+                out.println("    }");
+            }
+            out.println();
+            out.println("    @Override");
+            out.println("    public <T> T select(Class<T> type) {");
+            for (Source source : sources) {
+                out.println("        if (type == " + processingEnv.getTypeUtils().erasure(source.type()) + ".class) {");
+                out.println("            return type.cast(" + source.getter() + "());");
+                out.println("        }");
+            }
+            out.println("        throw new IllegalArgumentException(\"No bean of type \" + type.getName());");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public synchronized void close() {");
+            out.println("        for (int i = destroyers.size() - 1; i >= 0; i--) {");
+            out.println("            destroyers.get(i).run();");
+            out.println("        }");
+            out.println("        destroyers.clear();");
+            out.println("    }");
+            out.println("}");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Statements of a container method that create the source's instance as bean, and cache it unless dependent. */
+    private void writeCreation(PrintWriter out, Source source, List<Source> sources, String indent) {
+        String helper = source.beanClass().getQualifiedName() + "_Bean";
+        if (source.producer() == null) {
+            out.println(indent + source.type() + " bean = " + helper + ".newInstance();");
+            if (!source.dependent()) {
+                // Assigned before injection so that a cycle gets this instance instead of recursing forever
+                out.println(indent + source.getter() + " = bean;");
+            }
+            out.println(indent + helper + ".inject(bean, this);");
+            if (hasMethod(source.beanClass(), POST_CONSTRUCT)) {
+                out.println(indent + helper + ".postConstruct(bean);");
+            }
+            if (hasMethod(source.beanClass(), PRE_DESTROY)) {
+                out.println(indent + "destroyers.add(() -> " + helper + ".preDestroy(bean));");
+            }
+        } else {
+            String owner = getter(sources, source.beanClass());
+            out.println(indent + source.type() + " bean = " + helper + "." + source.producer().getSimpleName()
+                + "(" + owner + "(), this);");
+            if (!source.dependent()) {
+                out.println(indent + source.getter() + " = bean;");
+            }
+            ExecutableElement disposer = disposer(source);
+            if (disposer != null) {
+                out.println(indent + "destroyers.add(() -> " + helper + "." + disposer.getSimpleName() + "(" + owner
+                    + "(), bean));");
+            }
+        }
+    }
+
+    /** Expression evaluating to the value injected into element, which has the given type. */
+    private String resolve(Element element, TypeMirror type, List<Source> sources) {
+        Set<String> qualifiers = qualifiers(element);
+        if (type instanceof DeclaredType declared && isType(declared, INSTANCE)) {
+            TypeMirror beanType = declared.getTypeArguments().isEmpty()
+                ? processingEnv.getElementUtils().getTypeElement("java.lang.Object").asType()
+                : declared.getTypeArguments().get(0);
+            String beans = matching(beanType, qualifiers, sources).stream()
+                .map(source -> "new " + CONTAINER_PACKAGE + ".StaticInstance.Bean<" + beanType + ">("
+                    + processingEnv.getTypeUtils().erasure(source.type()) + ".class, java.util.Set.of("
+                    + source.qualifiers().stream().map(qualifier -> qualifier + ".class").collect(Collectors.joining(", "))
+                    + "), container::" + source.getter() + ")")
+                .collect(Collectors.joining(", "));
+            return "new " + CONTAINER_PACKAGE + ".StaticInstance<" + beanType + ">(java.util.List.of(" + beans + "))";
+        }
+        List<Source> matching = matching(type, qualifiers, sources);
+        if (matching.size() != 1) {
+            error(element, (matching.isEmpty() ? "Unsatisfied dependency: no bean" : "Ambiguous dependency: "
+                + matching.size() + " beans") + " of type " + type + (qualifiers.isEmpty() ? "" : " with " + qualifiers));
+            return "null";
+        }
+        return "container." + matching.get(0).getter() + "()";
+    }
+
+    /**
+     * CDI typesafe resolution: an unqualified injection point only accepts beans without qualifiers, and @Any
+     * accepts beans with any qualifiers.
+     */
+    private List<Source> matching(TypeMirror type, Set<String> qualifiers, List<Source> sources) {
+        Set<String> required = new TreeSet<>(qualifiers);
+        boolean any = required.remove(ANY);
+        return sources.stream()
+            .filter(source -> isAssignable(source.type(), type))
+            .filter(source -> any || !required.isEmpty() ? source.qualifiers().containsAll(required) : source.qualifiers().isEmpty())
+            .toList();
+    }
+
+    private ExecutableElement disposer(Source producer) {
+        for (ExecutableElement method : ElementFilter.methodsIn(producer.beanClass().getEnclosedElements())) {
+            VariableElement disposed = disposed(method);
+            if (disposed != null && processingEnv.getTypeUtils().isSameType(
+                    processingEnv.getTypeUtils().erasure(disposed.asType()),
+                    processingEnv.getTypeUtils().erasure(producer.type()))) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private VariableElement disposed(ExecutableElement method) {
+        if (method.getModifiers().contains(Modifier.PRIVATE)) {
+            return null;
+        }
+        return method.getParameters().stream()
+            .filter(parameter -> annotation(parameter, DISPOSES) != null)
+            .findFirst()
+            .orElse(null);
+    }
+
+    private String getter(List<Source> sources, TypeElement bean) {
+        return sources.stream()
+            .filter(source -> source.producer() == null && source.beanClass().equals(bean))
+            .findFirst()
+            .orElseThrow()
+            .getter();
+    }
+
+    private Set<String> qualifiers(Element element) {
+        Set<String> qualifiers = new TreeSet<>();
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (annotation(mirror.getAnnotationType().asElement(), QUALIFIER) != null) {
+                qualifiers.add(((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString());
+            }
+        }
+        return qualifiers;
+    }
+
+    /** The scope annotation of a bean class or producer method, null when it has none. */
+    private static String scope(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            Element type = mirror.getAnnotationType().asElement();
+            if (annotation(type, SCOPE) != null || annotation(type, NORMAL_SCOPE) != null) {
+                return ((TypeElement) type).getQualifiedName().toString();
+            }
+        }
+        return null;
+    }
+
+    private boolean checkScope(Element element) {
+        String scope = scope(element);
+        if (scope != null && !SCOPES.contains(scope)) {
+            error(element, "Unsupported scope @" + scope + ": the generated container supports @ApplicationScoped,"
+                + " @Singleton and @Dependent");
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isDependent(Element element) {
+        String scope = scope(element);
+        return scope == null || DEPENDENT.equals(scope);
+    }
+
+    private boolean hasMethod(TypeElement bean, String annotation) {
+        return ElementFilter.methodsIn(bean.getEnclosedElements()).stream()
+            .anyMatch(method -> annotation(method, annotation) != null);
+    }
+
+    private boolean isAssignable(TypeMirror from, TypeMirror to) {
+        if (from.getKind() != TypeKind.DECLARED || to.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        var types = processingEnv.getTypeUtils();
+        return types.isAssignable(types.erasure(from), types.erasure(to));
+    }
+
+    private static boolean isType(DeclaredType type, String qualifiedName) {
+        return ((TypeElement) type.asElement()).getQualifiedName().contentEquals(qualifiedName);
+    }
+
+    private static AnnotationMirror annotation(Element element, String qualifiedName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(qualifiedName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private String packageOf(TypeElement bean) {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(bean);
+        return pkg.getQualifiedName().toString();
+    }
+
+    private static String unique(String name, Set<String> taken) {
+        String candidate = name;
+        for (int i = 2; !taken.add(candidate); i++) {
+            candidate = name + i;
+        }
+        return candidate;
+    }
+
+    private static String decapitalize(String name) {
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
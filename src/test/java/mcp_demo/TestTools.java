@@ -0,0 +1,24 @@
+package mcp_demo;
+
+import io.modelcontextprotocol.server.McpAsyncServerExchange;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import reactor.core.publisher.Mono;
+
+import java.util.function.BiFunction;
+
+/** Tool specifications for tests that only care about the handler. */
+public final class TestTools {
+
+    private TestTools() {
+    }
+
+    /** A tool accepting any object as arguments. */
+    public static McpServerFeatures.AsyncToolSpecification tool(String name,
+            BiFunction<McpAsyncServerExchange, McpSchema.CallToolRequest, Mono<McpSchema.CallToolResult>> handler) {
+        return McpServerFeatures.AsyncToolSpecification.builder()
+            .tool(McpSchema.Tool.builder().name(name).inputSchema("{\"type\": \"object\"}").build())
+            .callHandler(handler)
+            .build();
+    }
+}
@@ -0,0 +1,153 @@
+package mcp_demo.audit;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Tuple;
+import mcp_demo.TestTools;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditLogTest {
+
+    private final LinkedBlockingQueue<List<Tuple>> batches = new LinkedBlockingQueue<>();
+    private final LinkedBlockingQueue<Promise<Void>> pending = new LinkedBlockingQueue<>();
+    private Vertx vertx;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void tearDown() {
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+
+    @Test
+    void flushesFullBatchesWithOutcomeAndArgumentsHash() throws Exception {
+        var log = new AuditLog(true, 100, 2, 60_000);
+        log.start(vertx, this::write);
+        var spec = log.wrap(tool());
+
+        call(spec, "ok", 1);
+        call(spec, "isError", 2.0);
+
+        List<Tuple> batch = batches.poll(2, TimeUnit.SECONDS);
+        assertNotNull(batch);
+        assertEquals(2, batch.size());
+        assertEquals("flaky", batch.get(0).getString(1));
+        assertEquals("ok", batch.get(0).getString(4));
+        assertEquals("error", batch.get(1).getString(4));
+        assertNotEquals(batch.get(0).getLong(2), batch.get(1).getLong(2));
+        // 2.0 and 2 normalize to the same call key
+        assertEquals(AuditLog.argumentsHash("flaky", Map.of("mode", "isError", "n", 2)), batch.get(1).getLong(2));
+
+        pending.take().complete();
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            while (log.written() < 2) {
+                Thread.sleep(10);
+            }
+        });
+    }
+
+    @Test
+    void dropsRecordsWhileTheDatabaseLags() throws Exception {
+        var log = new AuditLog(true, 3, 2, 60_000);
+        log.start(vertx, this::write);
+        var spec = log.wrap(tool());
+
+        call(spec, "ok", 1);
+        call(spec, "ok", 2);
+        assertNotNull(batches.poll(2, TimeUnit.SECONDS));
+
+        // The first batch never completes: the buffer fills up and the rest is dropped
+        for (int i = 0; i < 5; i++) {
+            call(spec, "ok", i);
+        }
+        assertEquals(3, log.buffered());
+        assertEquals(2, log.dropped());
+        assertNull(batches.poll(100, TimeUnit.MILLISECONDS));
+
+        pending.take().fail("connection lost");
+        List<Tuple> next = batches.poll(2, TimeUnit.SECONDS);
+        assertNotNull(next);
+        assertEquals(2, next.size());
+        assertEquals(2, log.failed());
+    }
+
+    @Test
+    void recordsCancellationsAndThrownErrors() throws Exception {
+        var log = new AuditLog(true, 100, 2, 60_000);
+        log.start(vertx, this::write);
+        var spec = log.wrap(tool());
+
+        spec.callHandler().apply(null, request("hang", 1)).subscribe().dispose();
+        call(spec, "throw", 1);
+
+        List<Tuple> batch = batches.poll(2, TimeUnit.SECONDS);
+        assertNotNull(batch);
+        assertEquals("cancelled", batch.get(0).getString(4));
+        assertEquals("error", batch.get(1).getString(4));
+    }
+
+    @Test
+    void shutdownWaitsForTheBatchInFlight() throws Exception {
+        var log = new AuditLog(true, 100, 2, 60_000);
+        log.start(vertx, this::write);
+        var spec = log.wrap(tool());
+
+        call(spec, "ok", 1);
+        call(spec, "ok", 2);
+        assertNotNull(batches.poll(2, TimeUnit.SECONDS));
+        call(spec, "ok", 3);
+
+        var shutdown = CompletableFuture.runAsync(log::shutdown);
+        assertNull(batches.poll(100, TimeUnit.MILLISECONDS), "the final batch waits for the one in flight");
+
+        pending.take().complete();
+        List<Tuple> last = batches.poll(2, TimeUnit.SECONDS);
+        assertNotNull(last);
+        assertEquals(1, last.size());
+        pending.take().complete();
+        shutdown.get(2, TimeUnit.SECONDS);
+        assertEquals(3, log.written());
+    }
+
+    private Future<Void> write(List<Tuple> batch) {
+        Promise<Void> promise = Promise.promise();
+        pending.add(promise);
+        batches.add(batch);
+        return promise.future();
+    }
+
+    private static McpServerFeatures.AsyncToolSpecification tool() {
+        return TestTools.tool("flaky", (exchange, toolReq) -> switch ((String) toolReq.arguments().get("mode")) {
+            case "ok" -> Mono.just(McpSchema.CallToolResult.builder().addTextContent("ok").isError(false).build());
+            case "isError" -> Mono.just(McpSchema.CallToolResult.builder().addTextContent("bad").isError(true).build());
+            case "hang" -> Mono.never();
+            default -> throw new IllegalStateException("boom");
+        });
+    }
+
+    private static void call(McpServerFeatures.AsyncToolSpecification spec, String mode, Number n) {
+        spec.callHandler().apply(null, request(mode, n)).onErrorResume(e -> Mono.empty()).block();
+    }
+
+    private static McpSchema.CallToolRequest request(String mode, Number n) {
+        return new McpSchema.CallToolRequest("flaky", Map.of("mode", mode, "n", n));
+    }
+}
@@ -0,0 +1,74 @@
+package mcp_demo.cache;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import mcp_demo.TestTools;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ToolResultCacheTest {
+
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    private McpServerFeatures.AsyncToolSpecification countingTool() {
+        return TestTools.tool("counting", (exchange, toolReq) -> Mono.just(McpSchema.CallToolResult.builder()
+            .addTextContent(String.valueOf(invocations.incrementAndGet()))
+            .isError(false)
+            .build()));
+    }
+
+    private static McpSchema.CallToolResult call(McpServerFeatures.AsyncToolSpecification spec, Map<String, Object> args) {
+        return spec.callHandler().apply(null, new McpSchema.CallToolRequest("counting", args)).block();
+    }
+
+    @Test
+    void identicalArgumentsAreServedFromCache() {
+        var cache = new ToolResultCache(100);
+        var spec = cache.wrap(countingTool(), Duration.ofMinutes(1), Set.of("simulateBlocking"));
+
+        call(spec, Map.of("a", 1, "b", 2, "simulateBlocking", true));
+        call(spec, Map.of("b", 2.0, "a", 1.0, "simulateBlocking", false));
+        call(spec, Map.of("a", 1, "b", 3));
+
+        assertEquals(2, invocations.get());
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(2, stats.size());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        var cache = new ToolResultCache(2);
+        var spec = cache.wrap(countingTool(), Duration.ofMinutes(1), Set.of());
+
+        call(spec, Map.of("x", 1));
+        call(spec, Map.of("x", 2));
+        call(spec, Map.of("x", 1));
+        call(spec, Map.of("x", 3));
+        call(spec, Map.of("x", 2));
+
+        assertEquals(4, invocations.get());
+        assertEquals(2, cache.stats().evictions());
+    }
+
+    @Test
+    void expiredEntriesAreRecomputed() throws InterruptedException {
+        var cache = new ToolResultCache(100);
+        var spec = cache.wrap(countingTool(), Duration.ofMillis(20), Set.of());
+
+        call(spec, Map.of("x", 1));
+        Thread.sleep(50);
+        call(spec, Map.of("x", 1));
+
+        assertEquals(2, invocations.get());
+        assertEquals(1, cache.stats().expirations());
+    }
+}
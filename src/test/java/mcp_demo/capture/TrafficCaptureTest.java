@@ -0,0 +1,76 @@
+package mcp_demo.capture;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import mcp_demo.TestTools;
+import mcp_demo.transport.JsonCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrafficCaptureTest {
+
+    private final JsonCodec codec = new JsonCodec();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void capturesCallsInArrivalOrderAndReadsThemBack() throws Exception {
+        for (String name : List.of("capture.jsonl", "capture.jsonl.gz")) {
+            Path file = dir.resolve(name);
+            var capture = new TrafficCapture(file, 16);
+            capture.codec = codec;
+            capture.start();
+            var spec = capture.wrap(tool());
+            spec.callHandler().apply(null, new McpSchema.CallToolRequest("echo", Map.of("a", 1, "op", "add"))).block();
+            Thread.sleep(5);
+            spec.callHandler().apply(null, new McpSchema.CallToolRequest("echo", Map.of("nested", Map.of("b", List.of(2.5))))).block();
+            capture.stop();
+
+            List<CapturedCall> calls = CapturedCall.read(file, codec.mapper());
+            assertEquals(2, calls.size(), name);
+            assertEquals("echo", calls.get(0).tool());
+            assertNull(calls.get(0).sessionId());
+            assertEquals(Map.of("a", 1, "op", "add"), calls.get(0).arguments());
+            assertEquals(Map.of("nested", Map.of("b", List.of(2.5))), calls.get(1).arguments());
+            assertTrue(calls.get(1).offsetMicros() - calls.get(0).offsetMicros() >= 5000, name);
+            assertEquals(2, capture.written());
+        }
+    }
+
+    @Test
+    void dropsCallsWhenTheBufferIsFull() throws Exception {
+        Path file = dir.resolve("capture.jsonl");
+        var capture = new TrafficCapture(file, 1);
+        capture.codec = codec;
+        capture.record(new CapturedCall(0, "s1", "echo", Map.of()));
+        capture.record(new CapturedCall(1, "s1", "echo", Map.of()));
+        assertEquals(1, capture.dropped());
+
+        // The writer starts with what was buffered
+        capture.start();
+        capture.stop();
+        assertEquals(List.of(new CapturedCall(0, "s1", "echo", Map.of())), CapturedCall.read(file, codec.mapper()));
+    }
+
+    @Test
+    void leavesSpecificationsAloneWhenOff() {
+        var spec = tool();
+        var capture = new TrafficCapture(null, 16);
+        assertFalse(capture.isEnabled());
+        assertSame(spec, capture.wrap(spec));
+    }
+
+    private static McpServerFeatures.AsyncToolSpecification tool() {
+        return TestTools.tool("echo", (exchange, toolReq) -> Mono.just(McpSchema.CallToolResult.builder()
+            .addTextContent(String.valueOf(toolReq.arguments()))
+            .build()));
+    }
+}
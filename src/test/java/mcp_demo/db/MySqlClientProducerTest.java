@@ -0,0 +1,111 @@
+package mcp_demo.db;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.PoolOptions;
+import mcp_demo.metrics.PoolMetricsCollector;
+import mcp_demo.metrics.PoolStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MySqlClientProducerTest {
+
+    private final PoolMetricsCollector collector = new PoolMetricsCollector();
+    private final List<Socket> accepted = new CopyOnWriteArrayList<>();
+    private ServerSocket silentServer;
+    private Vertx vertx;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        vertx = Vertx.builder().withMetrics(collector.metricsFactory()).build();
+        // Accepts TCP connections but never sends the MySQL handshake, so connections never become usable
+        silentServer = new ServerSocket(0);
+        Thread.ofVirtual().start(() -> {
+            while (!silentServer.isClosed()) {
+                try {
+                    accepted.add(silentServer.accept());
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        silentServer.close();
+        for (Socket socket : accepted) {
+            socket.close();
+        }
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+
+    @Test
+    void readsPoolSettingsFromEnvironment() {
+        PoolOptions options = MySqlClientProducer.poolOptions(Map.of("MYSQL_POOL_MAX_SIZE", "8", "MYSQL_POOL_MAX_WAIT_QUEUE", "16"));
+
+        assertEquals(MySqlClientProducer.POOL_NAME, options.getName());
+        assertEquals(8, options.getMaxSize());
+        assertEquals(16, options.getMaxWaitQueueSize());
+        assertEquals(2000, options.getConnectionTimeout());
+        assertTrue(MySqlClientProducer.connectOptions(Map.of()).getCachePreparedStatements());
+        assertFalse(MySqlClientProducer.connectOptions(Map.of("MYSQL_PREPARED_STATEMENT_CACHE_SIZE", "0")).getCachePreparedStatements());
+    }
+
+    @Test
+    void saturatedPoolFailsFastWithToolError() {
+        Map<String, String> env = Map.of(
+            "MYSQL_PORT", String.valueOf(silentServer.getLocalPort()),
+            "MYSQL_POOL_MAX_SIZE", "1",
+            "MYSQL_POOL_MAX_WAIT_QUEUE", "1",
+            "MYSQL_POOL_CONNECTION_TIMEOUT_MS", "1000");
+        Pool pool = MySqlClientProducer.pool(vertx, env);
+        PoolStats stats = collector.find("sql", MySqlClientProducer.POOL_NAME).orElseThrow();
+        var spec = PoolErrors.wrap(McpServerFeatures.AsyncToolSpecification.builder()
+            .tool(McpSchema.Tool.builder().name("db").inputSchema("{\"type\":\"object\"}").build())
+            .callHandler((exchange, request) -> Mono.fromCompletionStage(
+                    pool.withConnection(connection -> connection.query("SELECT 1").execute()).toCompletionStage())
+                .map(rows -> McpSchema.CallToolResult.builder().addTextContent("ok").build()))
+            .build(), stats);
+        var request = new McpSchema.CallToolRequest("db", Map.of());
+
+        // The first call waits for the only connection, which never finishes its handshake; the next finds the queue full
+        var waiting = spec.callHandler().apply(null, request).toFuture();
+        long start = System.nanoTime();
+        McpSchema.CallToolResult rejected = spec.callHandler().apply(null, request).block();
+
+        assertTrue(rejected.isError());
+        assertTrue(((McpSchema.TextContent) rejected.content().get(0)).text().contains("max wait queue size of 1"));
+        assertTrue(System.nanoTime() - start < 800_000_000L, "queue overflow must not wait for the connection timeout");
+
+        // The waiting call gives up after the connection timeout
+        McpSchema.CallToolResult timedOut = waiting.orTimeout(5, TimeUnit.SECONDS).join();
+        assertTrue(timedOut.isError());
+        assertTrue(((McpSchema.TextContent) timedOut.content().get(0)).text().contains("no connection available in time"));
+
+        // The pool's own timeout, which frees the queue slot, may report the rejection just after the call gave up
+        long settled = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (stats.rejected() < 2 && System.nanoTime() < settled) {
+            Thread.onSpinWait();
+        }
+        assertEquals(1, stats.maxSize());
+        assertEquals(2, stats.rejected());
+        assertEquals(0, stats.queued());
+        assertTrue(stats.waitTime().snapshot().maxNanos() >= 900_000_000L);
+        pool.close();
+    }
+}
@@ -0,0 +1,136 @@
+package mcp_demo.dispatch;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema;
+import mcp_demo.TestTools;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionControllerTest {
+
+    // Each handler invocation parks until the test completes its sink
+    private final List<Sinks.One<McpSchema.CallToolResult>> running = new CopyOnWriteArrayList<>();
+
+    private McpServerFeatures.AsyncToolSpecification heldTool(String name) {
+        return TestTools.tool(name, (exchange, toolReq) -> {
+            Sinks.One<McpSchema.CallToolResult> sink = Sinks.one();
+            running.add(sink);
+            return sink.asMono();
+        });
+    }
+
+    private static CompletableFuture<McpSchema.CallToolResult> call(McpServerFeatures.AsyncToolSpecification spec) {
+        return spec.callHandler().apply(null, new McpSchema.CallToolRequest(spec.tool().name(), Map.of())).toFuture();
+    }
+
+    private void complete(int index) {
+        running.get(index).tryEmitValue(McpSchema.CallToolResult.builder().addTextContent("ok").build());
+    }
+
+    @Test
+    void queuesBeyondTheLimitAndShedsBeyondTheQueue() {
+        var admission = new AdmissionController(10, 10, 2, 2, 1, 5000);
+        var spec = admission.wrap(heldTool("held"));
+
+        var first = call(spec);
+        var second = call(spec);
+        var queued = call(spec);
+        var shed = call(spec);
+
+        assertEquals(2, running.size());
+        assertEquals(1, admission.queued());
+        McpError error = (McpError) assertThrows(Exception.class, shed::join).getCause();
+        assertEquals(AdmissionController.OVERLOADED, error.getJsonRpcError().code());
+        assertTrue(error.getMessage().contains("queue full"), error.getMessage());
+        assertEquals(1, admission.rejected());
+
+        // A finished call hands its slot to the queued one
+        complete(0);
+        assertNotNull(first.join());
+        assertEquals(3, running.size());
+        assertEquals(0, admission.queued());
+        complete(1);
+        complete(2);
+        assertNotNull(second.join());
+        assertNotNull(queued.join());
+        assertEquals(0, admission.inFlight());
+    }
+
+    @Test
+    void toolLimitDoesNotBlockOtherTools() {
+        var admission = new AdmissionController(10, 10, 1, 1, 10, 5000);
+        var a = admission.wrap(heldTool("a"));
+        var b = admission.wrap(heldTool("b"));
+
+        call(a);
+        var waitingForA = call(a);
+        call(b);
+
+        assertEquals(2, running.size(), "b runs although a call of a is queued");
+        assertFalse(waitingForA.isDone());
+        assertEquals(1, admission.queued());
+    }
+
+    @Test
+    void queuedCallIsRejectedAfterTheQueueTimeout() {
+        var admission = new AdmissionController(1, 1, 1, 1, 10, 100);
+        var spec = admission.wrap(heldTool("held"));
+
+        call(spec);
+        var queued = call(spec);
+
+        Throwable error = assertThrows(Exception.class, () -> queued.get(5, TimeUnit.SECONDS)).getCause();
+        assertTrue(error.getMessage().contains("waited 100ms"), error.getMessage());
+        assertEquals(0, admission.queued());
+    }
+
+    @Test
+    void cancelledCallsLeaveTheQueueAndFreeTheirSlot() {
+        var admission = new AdmissionController(1, 1, 1, 1, 10, 5000);
+        var spec = admission.wrap(heldTool("held"));
+
+        Disposable runningCall = spec.callHandler().apply(null, new McpSchema.CallToolRequest("held", Map.of())).subscribe();
+        Disposable queuedCall = spec.callHandler().apply(null, new McpSchema.CallToolRequest("held", Map.of())).subscribe();
+        queuedCall.dispose();
+        assertEquals(0, admission.queued());
+
+        runningCall.dispose();
+        assertEquals(0, admission.inFlight());
+        call(spec);
+        assertEquals(2, running.size());
+    }
+
+    @Test
+    void limitShrinksWhenLatencyRisesAndGrowsWhileSaturated() {
+        var limit = new AdaptiveLimit(100, 1000);
+        long rtt = Duration.ofMillis(10).toNanos();
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(rtt, 100);
+        }
+        int saturatedLimit = limit.limit();
+        assertTrue(saturatedLimit > 100, "stable latency at full use grows the limit: " + saturatedLimit);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(rtt * 4, saturatedLimit);
+        }
+        assertTrue(limit.limit() < saturatedLimit / 2, "latency 4x the baseline shrinks the limit: " + limit.limit());
+
+        var idle = new AdaptiveLimit(100, 1000);
+        for (int i = 0; i < 200; i++) {
+            idle.onSample(rtt, 10);
+        }
+        assertEquals(100, idle.limit(), "an app-limited tool keeps its limit");
+    }
+}
@@ -0,0 +1,61 @@
+package mcp_demo.dispatch;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import mcp_demo.TestTools;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlockingToolDispatcherTest {
+
+    private static final int CALLS = 50;
+    private static final long SLEEP_MS = 200;
+
+    private BlockingToolDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new BlockingToolDispatcher();
+        dispatcher.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void blockingHandlersRunConcurrentlyOffTheCallingThread() {
+        String callerThread = Thread.currentThread().getName();
+        var spec = dispatcher.offload(TestTools.tool("sleepy", (exchange, toolReq) -> {
+            try {
+                Thread.sleep(SLEEP_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Mono.just(McpSchema.CallToolResult.builder()
+                .addTextContent(Thread.currentThread().getName())
+                .isError(false)
+                .build());
+        }));
+
+        long start = System.currentTimeMillis();
+        var results = Flux.range(0, CALLS)
+            .flatMap(i -> spec.callHandler().apply(null, new McpSchema.CallToolRequest("sleepy", Map.of())))
+            .collectList()
+            .block(Duration.ofSeconds(30));
+        long duration = System.currentTimeMillis() - start;
+
+        assertEquals(CALLS, results.size());
+        results.forEach(result -> assertNotEquals(callerThread,
+            ((McpSchema.TextContent) result.content().get(0)).text()));
+        assertTrue(duration < CALLS * SLEEP_MS / 4, "Blocking calls should overlap, took " + duration + "ms");
+    }
+}
@@ -0,0 +1,133 @@
+package mcp_demo.dispatch;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.server.McpServer;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpStreamableServerSession;
+import io.modelcontextprotocol.spec.McpStreamableServerTransport;
+import io.modelcontextprotocol.spec.McpStreamableServerTransportProvider;
+import io.modelcontextprotocol.spec.ProtocolVersions;
+import mcp_demo.TestTools;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CallCancellationsTest {
+
+    private final CallCancellations cancellations = new CallCancellations();
+    private final CompletableFuture<Void> started = new CompletableFuture<>();
+    private final CompletableFuture<Void> cancelled = new CompletableFuture<>();
+    private McpStreamableServerSession session;
+
+    @BeforeEach
+    void setUp() {
+        var slow = TestTools.tool("slow", (exchange, toolReq) -> Mono.delay(Duration.ofSeconds(5))
+            .map(tick -> McpSchema.CallToolResult.builder().addTextContent("done").build())
+            .doOnSubscribe(s -> started.complete(null))
+            .doOnCancel(() -> cancelled.complete(null)));
+        var transportProvider = new CapturingTransportProvider();
+        McpServer.async(cancellations.decorate(transportProvider))
+            .serverInfo("test", "1.0.0")
+            .capabilities(McpSchema.ServerCapabilities.builder().tools(true).build())
+            .tools(slow)
+            .build();
+        var init = transportProvider.sessionFactory.startSession(new McpSchema.InitializeRequest(
+            ProtocolVersions.MCP_2025_03_26, McpSchema.ClientCapabilities.builder().build(),
+            new McpSchema.Implementation("client", "1.0.0")));
+        init.initResult().block();
+        session = init.session();
+    }
+
+    @Test
+    void cancelNotificationCancelsTheToolCall() throws Exception {
+        var transport = new RecordingTransport();
+        var response = session.responseStream(call(7), transport).toFuture();
+        started.get(2, TimeUnit.SECONDS);
+
+        session.accept(cancel(7)).block();
+
+        response.get(2, TimeUnit.SECONDS);
+        assertTrue(cancelled.isDone());
+        assertTrue(transport.messages.isEmpty(), "no response is sent for a cancelled request");
+        assertTrue(transport.closed);
+        assertEquals(1, cancellations.cancelled());
+    }
+
+    @Test
+    void cancelNotificationForOtherRequestIsIgnored() throws Exception {
+        var transport = new RecordingTransport();
+        session.responseStream(call(7), transport).subscribe();
+        started.get(2, TimeUnit.SECONDS);
+
+        session.accept(cancel(8)).block();
+
+        assertFalse(cancelled.isDone());
+        assertEquals(0, cancellations.cancelled());
+    }
+
+    private static McpSchema.JSONRPCRequest call(int id) {
+        return new McpSchema.JSONRPCRequest(McpSchema.JSONRPC_VERSION, McpSchema.METHOD_TOOLS_CALL, id,
+            Map.of("name", "slow", "arguments", Map.of()));
+    }
+
+    private static McpSchema.JSONRPCNotification cancel(int requestId) {
+        return new McpSchema.JSONRPCNotification(McpSchema.JSONRPC_VERSION, CallCancellations.METHOD_NOTIFICATION_CANCELLED,
+            Map.of("requestId", requestId, "reason", "user gave up"));
+    }
+
+    private static final class CapturingTransportProvider implements McpStreamableServerTransportProvider {
+
+        McpStreamableServerSession.Factory sessionFactory;
+
+        @Override
+        public void setSessionFactory(McpStreamableServerSession.Factory sessionFactory) {
+            this.sessionFactory = sessionFactory;
+        }
+
+        @Override
+        public Mono<Void> notifyClients(String method, Object params) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> closeGracefully() {
+            return Mono.empty();
+        }
+    }
+
+    private static final class RecordingTransport implements McpStreamableServerTransport {
+
+        final List<McpSchema.JSONRPCMessage> messages = new CopyOnWriteArrayList<>();
+        volatile boolean closed;
+
+        @Override
+        public Mono<Void> sendMessage(McpSchema.JSONRPCMessage message, String messageId) {
+            return sendMessage(message);
+        }
+
+        @Override
+        public Mono<Void> sendMessage(McpSchema.JSONRPCMessage message) {
+            return Mono.fromRunnable(() -> messages.add(message));
+        }
+
+        @Override
+        public <T> T unmarshalFrom(Object data, TypeReference<T> typeRef) {
+            return new ObjectMapper().convertValue(data, typeRef);
+        }
+
+        @Override
+        public Mono<Void> closeGracefully() {
+            return Mono.fromRunnable(() -> closed = true);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package mcp_demo.dispatch;
+
+import io.modelcontextprotocol.server.McpAsyncServerExchange;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.server.McpTransportContext;
+import io.modelcontextprotocol.spec.McpSchema;
+import mcp_demo.TestTools;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CallCoalescerTest {
+
+    private final AtomicInteger invocations = new AtomicInteger();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    private final AtomicInteger withExchange = new AtomicInteger();
+
+    private McpServerFeatures.AsyncToolSpecification slowTool() {
+        return TestTools.tool("slow", (exchange, toolReq) -> {
+            int n = invocations.incrementAndGet();
+            if (exchange != null) {
+                withExchange.incrementAndGet();
+            }
+            return Mono.just(McpSchema.CallToolResult.builder().addTextContent(String.valueOf(n)).build())
+                .delayElement(Duration.ofMillis(200))
+                .doOnCancel(() -> cancelled.set(true));
+        });
+    }
+
+    private static Mono<McpSchema.CallToolResult> call(McpServerFeatures.AsyncToolSpecification spec, Map<String, Object> args) {
+        return spec.callHandler().apply(null, new McpSchema.CallToolRequest("slow", args));
+    }
+
+    private static Mono<McpSchema.CallToolResult> call(McpServerFeatures.AsyncToolSpecification spec, String sessionId,
+            McpSchema.CallToolRequest request) {
+        var exchange = new McpAsyncServerExchange(sessionId, null, McpSchema.ClientCapabilities.builder().build(),
+            new McpSchema.Implementation("client", "1.0.0"), McpTransportContext.EMPTY);
+        return spec.callHandler().apply(exchange, request);
+    }
+
+    @Test
+    void concurrentIdenticalCallsShareOneExecution() {
+        var coalescer = new CallCoalescer();
+        var spec = coalescer.wrap(slowTool(), Set.of("simulateBlocking"));
+
+        var results = Flux.range(0, 100)
+            .flatMap(i -> call(spec, Map.of("a", 1, "b", 2, "simulateBlocking", i % 2 == 0)))
+            .collectList()
+            .block(Duration.ofSeconds(10));
+
+        assertEquals(100, results.size());
+        assertEquals(1, invocations.get());
+        assertEquals(1, coalescer.executions());
+        assertEquals(99, coalescer.coalesced());
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    @Test
+    void differentArgumentsAreNotCoalesced() {
+        var coalescer = new CallCoalescer();
+        var spec = coalescer.wrap(slowTool(), Set.of());
+
+        Flux.merge(call(spec, Map.of("a", 1)), call(spec, Map.of("a", 2)))
+            .collectList()
+            .block(Duration.ofSeconds(10));
+
+        assertEquals(2, invocations.get());
+    }
+
+    @Test
+    void callsOfDifferentSessionsShareOneExecutionWithoutTheirExchange() {
+        var coalescer = new CallCoalescer();
+        var spec = coalescer.wrap(slowTool(), Set.of());
+        var request = McpSchema.CallToolRequest.builder().name("slow").arguments(Map.of("a", 1)).build();
+
+        Flux.merge(call(spec, "one", request), call(spec, "two", request))
+            .collectList()
+            .block(Duration.ofSeconds(10));
+
+        assertEquals(1, invocations.get());
+        assertEquals(1, coalescer.coalesced());
+        assertEquals(0, withExchange.get(), "the shared execution must not use one caller's exchange");
+    }
+
+    @Test
+    void callsAskingForProgressRunOnTheirOwn() {
+        var coalescer = new CallCoalescer();
+        var spec = coalescer.wrap(slowTool(), Set.of());
+        var request = McpSchema.CallToolRequest.builder().name("slow").arguments(Map.of("a", 1)).build();
+        var withProgress = McpSchema.CallToolRequest.builder().name("slow").arguments(Map.of("a", 1))
+            .progressToken("token").build();
+
+        Flux.merge(call(spec, "one", request), call(spec, "one", withProgress))
+            .collectList()
+            .block(Duration.ofSeconds(10));
+
+        assertEquals(2, invocations.get());
+        assertEquals(1, withExchange.get());
+        assertEquals(0, coalescer.coalesced());
+    }
+
+    @Test
+    void executionIsCancelledWhenAllCallersLeave() {
+        var coalescer = new CallCoalescer();
+        var spec = coalescer.wrap(slowTool(), Set.of());
+
+        List<Disposable> callers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            callers.add(call(spec, Map.of("a", 1)).subscribe());
+        }
+        assertEquals(1, coalescer.inFlight());
+
+        callers.get(0).dispose();
+        callers.get(1).dispose();
+        assertFalse(cancelled.get(), "Execution must continue while a caller is still subscribed");
+
+        callers.get(2).dispose();
+        assertTrue(cancelled.get());
+        assertEquals(0, coalescer.inFlight());
+    }
+}
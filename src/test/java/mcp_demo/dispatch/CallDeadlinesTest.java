@@ -0,0 +1,91 @@
+package mcp_demo.dispatch;
+
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema;
+import mcp_demo.TestTools;
+import mcp_demo.metrics.ToolMetrics;
+import mcp_demo.metrics.ToolStats;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CallDeadlinesTest {
+
+    @Test
+    void clientCanShortenButNotExtendTheDeadline() {
+        assertEquals(1000, CallDeadlines.deadline(1000, null));
+        assertEquals(200, CallDeadlines.deadline(1000, Map.of(CallDeadlines.TIMEOUT_META, 200)));
+        assertEquals(1000, CallDeadlines.deadline(1000, Map.of(CallDeadlines.TIMEOUT_META, 5000L)));
+        assertEquals(1000, CallDeadlines.deadline(1000, Map.of(CallDeadlines.TIMEOUT_META, "soon")));
+        assertEquals(300, CallDeadlines.deadline(0, Map.of(CallDeadlines.TIMEOUT_META, 300)));
+        assertEquals(0, CallDeadlines.deadline(0, Map.of()));
+    }
+
+    @Test
+    void expiredDeadlineCancelsTheHandler() {
+        var cancelled = new CompletableFuture<Void>();
+        var metrics = new ToolMetrics();
+        var slow = TestTools.tool("slow", (exchange, toolReq) -> Mono.delay(Duration.ofSeconds(5))
+            .map(tick -> McpSchema.CallToolResult.builder().addTextContent("done").build())
+            .doOnCancel(() -> cancelled.complete(null)));
+        var spec = metrics.wrap(new CallDeadlines(5000).wrap(slow, 5000));
+
+        long start = System.nanoTime();
+        var error = assertThrows(McpError.class, () -> spec.callHandler()
+            .apply(null, new McpSchema.CallToolRequest("slow", Map.of(), Map.of(CallDeadlines.TIMEOUT_META, 100))).block());
+
+        assertTrue(System.nanoTime() - start < 2_000_000_000L, "the client timeout applies");
+        assertEquals(CallDeadlines.DEADLINE_EXCEEDED, error.getJsonRpcError().code());
+        assertTrue(cancelled.isDone());
+        ToolStats stats = metrics.tools().iterator().next();
+        assertEquals(1, stats.timeouts());
+        assertEquals(1, stats.errors());
+        assertEquals(0, stats.cancellations());
+    }
+
+    @Test
+    void expiredDeadlineInterruptsBlockingWorker() throws Exception {
+        var interrupted = new CompletableFuture<Boolean>();
+        var dispatcher = new BlockingToolDispatcher();
+        dispatcher.init();
+        try {
+            var spec = new CallDeadlines(100).wrap(dispatcher.offload(TestTools.tool("sleepy", (exchange, toolReq) -> {
+                try {
+                    Thread.sleep(5000);
+                    interrupted.complete(false);
+                } catch (InterruptedException e) {
+                    interrupted.complete(true);
+                }
+                return Mono.just(McpSchema.CallToolResult.builder().addTextContent("done").build());
+            })), 100);
+
+            var error = assertThrows(McpError.class, () -> spec.callHandler()
+                .apply(null, new McpSchema.CallToolRequest("sleepy", Map.of())).block());
+
+            assertTrue(CallDeadlines.isDeadlineExceeded(error));
+            assertTrue(interrupted.get(2, TimeUnit.SECONDS));
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void cancelledCallIsCounted() {
+        var metrics = new ToolMetrics();
+        var forever = TestTools.tool("forever", (exchange, toolReq) -> Mono.<McpSchema.CallToolResult>never());
+        var spec = metrics.wrap(new CallDeadlines(0).wrap(forever, 0));
+
+        spec.callHandler().apply(null, new McpSchema.CallToolRequest("forever", Map.of())).subscribe().dispose();
+
+        ToolStats stats = metrics.tools().iterator().next();
+        assertEquals(1, stats.cancellations());
+        assertEquals(0, stats.errors());
+        assertEquals(0, stats.inFlight());
+    }
+}
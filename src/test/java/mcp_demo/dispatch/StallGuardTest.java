@@ -0,0 +1,99 @@
+package mcp_demo.dispatch;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import mcp_demo.TestTools;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StallGuardTest {
+
+    private Vertx vertx;
+    private Context context;
+    private BlockingToolDispatcher dispatcher;
+    private StallGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+        context = vertx.getOrCreateContext();
+        dispatcher = new BlockingToolDispatcher();
+        dispatcher.init();
+        guard = new StallGuard(50, 10, 2);
+        guard.blockingToolDispatcher = dispatcher;
+        guard.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        guard.stop();
+        dispatcher.shutdown();
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+
+    @Test
+    void attributesStallsAndQuarantinesRepeatOffenders() throws Exception {
+        var sleepy = guard.wrap(tool("sleepy", 150));
+        var quick = guard.wrap(tool("quick", 0));
+
+        assertTrue(callOnEventLoop(sleepy));
+        assertTrue(callOnEventLoop(quick));
+        ToolStalls stalls = stalls("sleepy");
+        assertEquals(1, stalls.stalls());
+        assertFalse(stalls.quarantined());
+        assertTrue(stalls.maxStallNanos() >= TimeUnit.MILLISECONDS.toNanos(150));
+        assertTrue(stalls.lastStack().contains("Thread.sleep"), stalls.lastStack());
+        assertEquals(0, stalls("quick").stalls());
+
+        assertTrue(callOnEventLoop(sleepy));
+        assertEquals(2, stalls.stalls());
+        assertTrue(stalls.quarantined());
+
+        // Quarantined: the handler no longer runs on the event loop, and the loop is no longer stalled
+        assertFalse(callOnEventLoop(sleepy));
+        assertEquals(2, stalls.stalls());
+        assertFalse(stalls("quick").quarantined());
+    }
+
+    @Test
+    void ignoresCallsOffTheEventLoop() {
+        var sleepy = guard.wrap(tool("sleepy", 100));
+        sleepy.callHandler().apply(null, new McpSchema.CallToolRequest("sleepy", Map.of())).block();
+        assertEquals(0, stalls("sleepy").stalls());
+    }
+
+    /** Calls the tool from an event loop; true when its handler ran on the event loop. */
+    private boolean callOnEventLoop(McpServerFeatures.AsyncToolSpecification spec) throws Exception {
+        var result = new CompletableFuture<McpSchema.CallToolResult>();
+        context.runOnContext(v -> spec.callHandler().apply(null, new McpSchema.CallToolRequest(spec.tool().name(), Map.of()))
+            .subscribe(result::complete, result::completeExceptionally));
+        var text = (McpSchema.TextContent) result.get(5, TimeUnit.SECONDS).content().get(0);
+        // The result arrives before the guard has counted the stall; a later task on the same loop runs after that
+        var settled = new CompletableFuture<Void>();
+        context.runOnContext(v -> settled.complete(null));
+        settled.get(5, TimeUnit.SECONDS);
+        return Boolean.parseBoolean(text.text());
+    }
+
+    private ToolStalls stalls(String toolName) {
+        return guard.tools().stream().filter(tool -> tool.toolName().equals(toolName)).findFirst().orElseThrow();
+    }
+
+    private static McpServerFeatures.AsyncToolSpecification tool(String name, long sleepMs) {
+        return TestTools.tool(name, (exchange, toolReq) -> Mono.fromCallable(() -> {
+            boolean onEventLoop = Context.isOnEventLoopThread();
+            Thread.sleep(sleepMs);
+            return McpSchema.CallToolResult.builder().addTextContent(String.valueOf(onEventLoop)).build();
+        }));
+    }
+}
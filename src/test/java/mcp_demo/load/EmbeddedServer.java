@@ -0,0 +1,66 @@
+package mcp_demo.load;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import mcp_demo.MainVerticle;
+import org.jboss.weld.environment.se.Weld;
+import org.jboss.weld.environment.se.WeldContainer;
+
+/**
+ * Boots the full MCP server in-process on free ports, with {@link StandInPoolProducer} instead of MySQL.
+ */
+final class EmbeddedServer implements AutoCloseable {
+
+    private final WeldContainer container;
+    private final int port;
+    private final int adminPort;
+
+    private EmbeddedServer(WeldContainer container, int port, int adminPort) {
+        this.container = container;
+        this.port = port;
+        this.adminPort = adminPort;
+    }
+
+    static EmbeddedServer start() {
+        Weld weld = new Weld();
+        weld.addPackages(true, MainVerticle.class);
+        weld.addBeanClass(StandInPoolProducer.class);
+        WeldContainer container = weld.initialize();
+
+        int port = freePort();
+        int adminPort = freePort();
+        MainVerticle verticle = container.select(MainVerticle.class).get();
+        Vertx vertx = container.select(Vertx.class).get();
+        var options = new DeploymentOptions().setConfig(new JsonObject()
+            .put("port", port)
+            .put("adminPort", adminPort));
+        vertx.deployVerticle(verticle, options).toCompletionStage().toCompletableFuture().join();
+        return new EmbeddedServer(container, port, adminPort);
+    }
+
+    String mcpUrl() {
+        return "http://localhost:" + port + "/mcp";
+    }
+
+    String metricsUrl() {
+        return "http://localhost:" + adminPort + "/metrics";
+    }
+
+    @Override
+    public void close() {
+        container.close();
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
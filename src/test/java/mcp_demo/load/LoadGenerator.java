@@ -0,0 +1,214 @@
+package mcp_demo.load;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.transport.HttpClientStreamableHttpTransport;
+import io.vertx.core.json.JsonObject;
+import mcp_demo.metrics.LatencyHistogram;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Load-generation harness driving MCP tool calls over the streamable HTTP transport.
+ *
+ * Unless --url is given, the server is booted in-process with a stand-in for MySQL.
+ * Options (all --name=value):
+ * - clients: concurrent MCP client sessions (default 20)
+ * - duration: measured seconds (default 30)
+ * - warmup: seconds of load before measuring (default 5)
+ * - rate: total requests per second, open loop; 0 means closed loop, each client back to back (default 0)
+ * - mix: weighted request templates, see {@link ToolMix} (default calculator:1)
+ * - url: MCP endpoint of an already running server
+ * - out: file the JSON report is written to, in addition to stdout
+ *
+ * Run with ./gradlew loadTest -PloadArgs="--clients=50 --rate=2000 --mix=calculator:3,calculator-repeat:1"
+ */
+public class LoadGenerator {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private final int clients;
+    private final Duration duration;
+    private final Duration warmup;
+    private final int rate;
+    private final ToolMix mix;
+
+    private final List<McpAsyncClient> sessions = new ArrayList<>();
+    private final List<TemplateStats> stats = new ArrayList<>();
+    private final LatencyHistogram overall = new LatencyHistogram();
+    private volatile boolean measuring;
+
+    LoadGenerator(int clients, Duration duration, Duration warmup, int rate, ToolMix mix) {
+        this.clients = clients;
+        this.duration = duration;
+        this.warmup = warmup;
+        this.rate = rate;
+        this.mix = mix;
+        mix.names().forEach(name -> stats.add(new TemplateStats(name)));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        LoadGenerator generator = new LoadGenerator(
+            Integer.parseInt(options.getOrDefault("clients", "20")),
+            Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30"))),
+            Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5"))),
+            Integer.parseInt(options.getOrDefault("rate", "0")),
+            ToolMix.parse(options.getOrDefault("mix", "calculator:1")));
+
+        JsonObject report;
+        if (options.containsKey("url")) {
+            report = generator.run(options.get("url"));
+        } else {
+            try (EmbeddedServer server = EmbeddedServer.start()) {
+                report = generator.run(server.mcpUrl());
+            }
+        }
+
+        String json = report.encodePrettily();
+        System.out.println(json);
+        if (options.containsKey("out")) {
+            Path out = Path.of(options.get("out"));
+            if (out.getParent() != null) {
+                Files.createDirectories(out.getParent());
+            }
+            Files.writeString(out, json);
+        }
+        System.exit(0);
+    }
+
+    JsonObject run(String url) {
+        connect(url);
+        try {
+            long warmupEnd = System.nanoTime() + warmup.toNanos();
+            Mono<Void> load = rate > 0 ? openLoop(warmupEnd + duration.toNanos()) : closedLoop(warmupEnd + duration.toNanos());
+            Mono<Void> switchToMeasuring = Mono.delay(warmup).doOnNext(t -> measuring = true).then();
+            Mono.when(load, switchToMeasuring).block();
+            return report(url);
+        } finally {
+            sessions.forEach(client -> client.closeGracefully().onErrorResume(e -> Mono.empty()).block(Duration.ofSeconds(5)));
+        }
+    }
+
+    private void connect(String url) {
+        for (int i = 0; i < clients; i++) {
+            var transport = HttpClientStreamableHttpTransport.builder(url).build();
+            sessions.add(McpClient.async(transport).requestTimeout(REQUEST_TIMEOUT).build());
+        }
+        Flux.fromIterable(sessions).flatMap(McpAsyncClient::initialize).then().block(REQUEST_TIMEOUT);
+    }
+
+    private Mono<Void> closedLoop(long deadline) {
+        return Flux.fromIterable(sessions)
+            .flatMap(client -> Mono.defer(() -> call(client))
+                .repeat(() -> System.nanoTime() < deadline))
+            .then();
+    }
+
+    private Mono<Void> openLoop(long deadline) {
+        return Flux.interval(Duration.ofNanos(TimeUnit.SECONDS.toNanos(1) / rate))
+            .onBackpressureDrop()
+            .takeWhile(tick -> System.nanoTime() < deadline)
+            .flatMap(tick -> call(sessions.get((int) (tick % clients))), Integer.MAX_VALUE)
+            .then();
+    }
+
+    private Mono<Void> call(McpAsyncClient client) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int template = mix.pick(random);
+        TemplateStats templateStats = stats.get(template);
+        // Calls started during warmup are not reported, even when they complete later
+        boolean measured = measuring;
+        long start = System.nanoTime();
+        return client.callTool(mix.request(template, random))
+            .doOnNext(result -> templateStats.record(measured, start, Boolean.TRUE.equals(result.isError())))
+            .doOnError(e -> templateStats.record(measured, start, true))
+            .onErrorResume(e -> Mono.empty())
+            .then();
+    }
+
+    private JsonObject report(String url) {
+        JsonObject perTemplate = new JsonObject();
+        long ok = 0;
+        long errors = 0;
+        for (TemplateStats templateStats : stats) {
+            perTemplate.put(templateStats.name, summary(templateStats.latency.snapshot(),
+                templateStats.ok.sum(), templateStats.errors.sum()));
+            ok += templateStats.ok.sum();
+            errors += templateStats.errors.sum();
+        }
+
+        return new JsonObject()
+            .put("url", url)
+            .put("clients", clients)
+            .put("durationSeconds", duration.toSeconds())
+            .put("warmupSeconds", warmup.toSeconds())
+            .put("targetRate", rate)
+            .put("overall", summary(overall.snapshot(), ok, errors))
+            .put("templates", perTemplate);
+    }
+
+    private JsonObject summary(LatencyHistogram.Snapshot snapshot, long ok, long errors) {
+        long total = ok + errors;
+        return new JsonObject()
+            .put("requests", total)
+            .put("errors", errors)
+            .put("errorRate", total == 0 ? 0.0 : (double) errors / total)
+            .put("throughputPerSecond", (double) total / duration.toSeconds())
+            .put("latencyMs", new JsonObject()
+                .put("p50", millis(snapshot.valueAt(0.5)))
+                .put("p90", millis(snapshot.valueAt(0.9)))
+                .put("p99", millis(snapshot.valueAt(0.99)))
+                .put("max", millis(snapshot.maxNanos()))
+                .put("mean", snapshot.count() == 0 ? 0.0 : millis(snapshot.sumNanos() / snapshot.count())));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private final class TemplateStats {
+
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        private TemplateStats(String name) {
+            this.name = name;
+        }
+
+        private void record(boolean measured, long startNanos, boolean error) {
+            if (!measured) {
+                return;
+            }
+            long elapsed = System.nanoTime() - startNanos;
+            latency.record(elapsed);
+            overall.record(elapsed);
+            (error ? errors : ok).increment();
+        }
+    }
+}
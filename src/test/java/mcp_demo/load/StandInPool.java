@@ -0,0 +1,47 @@
+package mcp_demo.load;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Pool;
+
+/**
+ * In-memory stand-in for the MySQL {@link Pool}, so the server can run without a database.
+ *
+ * Every asynchronous operation succeeds immediately with a null result, and fluent calls
+ * (query(), preparedQuery(), ...) return further stand-ins. Good enough for tools that only
+ * fire-and-forget or health-check the pool; tools reading rows need a real MySQL.
+ */
+final class StandInPool {
+
+    private StandInPool() {
+    }
+
+    static Pool create() {
+        return proxy(Pool.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type) {
+        InvocationHandler handler = (self, method, args) -> {
+            Class<?> returnType = method.getReturnType();
+            return switch (method.getName()) {
+                case "toString" -> "StandInPool(" + type.getSimpleName() + ")";
+                case "hashCode" -> System.identityHashCode(self);
+                case "equals" -> self == args[0];
+                case "size" -> 0;
+                default -> {
+                    if (returnType == Future.class) {
+                        yield Future.succeededFuture();
+                    }
+                    if (returnType.isInterface()) {
+                        yield proxy(returnType);
+                    }
+                    yield null;
+                }
+            };
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+}
@@ -0,0 +1,23 @@
+package mcp_demo.load;
+
+import io.vertx.sqlclient.Pool;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+/**
+ * Replaces {@link mcp_demo.db.MySqlClientProducer} when the server is embedded by the load harness.
+ */
+@ApplicationScoped
+@Alternative
+@Priority(1)
+public class StandInPoolProducer {
+
+    @Produces
+    @Singleton
+    public Pool createStandInPool() {
+        return StandInPool.create();
+    }
+}
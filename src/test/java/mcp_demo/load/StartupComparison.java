@@ -0,0 +1,116 @@
+package mcp_demo.load;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Compares cold start of the server with the build-time container (MCP_CONTAINER=static) and with Weld
+ * (MCP_CONTAINER=weld). Each run starts mcp_demo.Main in a fresh JVM, reads its "Startup:" line and stops it.
+ * The modes alternate so that both see the same page cache and CPU conditions.
+ *
+ * Options (all --name=value):
+ * - runs: JVM starts per mode (default 5)
+ * - out: file the JSON report is written to, in addition to stdout
+ *
+ * Run with ./gradlew startupComparison -PstartupArgs="--runs=10"
+ */
+public class StartupComparison {
+
+    private static final List<String> MODES = List.of("static", "weld");
+    private static final Pattern STARTUP = Pattern.compile("Startup: \\w+ container wired in (\\d+)ms, serving (\\d+)ms after JVM start");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+
+        Map<String, List<long[]>> samples = new HashMap<>();
+        for (int i = 0; i < runs; i++) {
+            for (String mode : MODES) {
+                samples.computeIfAbsent(mode, m -> new ArrayList<>()).add(start(mode));
+            }
+        }
+
+        JsonObject report = new JsonObject().put("runs", runs);
+        for (String mode : MODES) {
+            List<long[]> results = samples.get(mode);
+            report.put(mode, new JsonObject()
+                .put("wiredMs", median(results, 0))
+                .put("servingMs", median(results, 1))
+                .put("servingMsSamples", new JsonArray(results.stream().map(r -> r[1]).toList())));
+        }
+
+        String json = report.encodePrettily();
+        System.out.println(json);
+        if (options.containsKey("out")) {
+            Path out = Path.of(options.get("out"));
+            if (out.getParent() != null) {
+                Files.createDirectories(out.getParent());
+            }
+            Files.writeString(out, json);
+        }
+    }
+
+    /** Starts the server in the given mode and returns {wired ms, serving ms after JVM start}. */
+    private static long[] start(String mode) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.add("--add-modules");
+        command.add("jdk.incubator.vector");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("mcp_demo.Main");
+        ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true);
+        builder.environment().put("MCP_CONTAINER", mode);
+        builder.environment().put("MCP_PORT", String.valueOf(freePort()));
+        builder.environment().put("MCP_ADMIN_PORT", String.valueOf(freePort()));
+
+        Process process = builder.start();
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            for (String line = output.readLine(); line != null; line = output.readLine()) {
+                Matcher matcher = STARTUP.matcher(line);
+                if (matcher.find()) {
+                    return new long[] {Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2))};
+                }
+            }
+            throw new IllegalStateException("Server in " + mode + " mode exited without starting");
+        } finally {
+            process.destroy();
+            process.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static long median(List<long[]> results, int index) {
+        long[] values = results.stream().mapToLong(r -> r[index]).sorted().toArray();
+        return values[values.length / 2];
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package mcp_demo.load;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+
+/**
+ * Weighted mix of request templates, parsed from "name:weight,name:weight".
+ *
+ * Templates:
+ * - calculator: non-blocking add with random operands (cache misses)
+ * - calculator-blocking: blocking add with random operands
+ * - calculator-repeat: the same add every time (cache hits / coalescing)
+ * - batch: batch_calculator with 1000 random pairs and mixed operations
+ */
+final class ToolMix {
+
+    private static final String[] OPERATIONS = {"add", "subtract", "multiply", "divide"};
+    private static final int BATCH_SIZE = 1000;
+
+    private static final Map<String, Function<ThreadLocalRandom, CallToolRequest>> TEMPLATES = new LinkedHashMap<>();
+
+    static {
+        TEMPLATES.put("calculator", random -> new CallToolRequest("calculator", Map.of(
+            "operation", OPERATIONS[random.nextInt(OPERATIONS.length)],
+            "a", random.nextInt(1_000_000),
+            "b", random.nextInt(1, 1_000_000))));
+        TEMPLATES.put("calculator-blocking", random -> new CallToolRequest("calculator", Map.of(
+            "operation", OPERATIONS[random.nextInt(OPERATIONS.length)],
+            "a", random.nextInt(1_000_000),
+            "b", random.nextInt(1, 1_000_000),
+            "simulateBlocking", true)));
+        TEMPLATES.put("calculator-repeat", random -> new CallToolRequest("calculator", Map.of(
+            "operation", "add",
+            "a", 41,
+            "b", 1)));
+        TEMPLATES.put("batch", random -> {
+            List<String> operations = new ArrayList<>(BATCH_SIZE);
+            List<Double> a = new ArrayList<>(BATCH_SIZE);
+            List<Double> b = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                operations.add(OPERATIONS[random.nextInt(OPERATIONS.length)]);
+                a.add(random.nextDouble(1_000_000));
+                b.add(random.nextDouble(1, 1_000_000));
+            }
+            return new CallToolRequest("batch_calculator", Map.of("operations", operations, "a", a, "b", b));
+        });
+    }
+
+    private final List<String> names = new ArrayList<>();
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    private ToolMix(Map<String, Integer> weights) {
+        cumulativeWeights = new int[weights.size()];
+        int sum = 0;
+        int i = 0;
+        for (var entry : weights.entrySet()) {
+            names.add(entry.getKey());
+            sum += entry.getValue();
+            cumulativeWeights[i++] = sum;
+        }
+        totalWeight = sum;
+    }
+
+    static ToolMix parse(String spec) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] nameAndWeight = part.trim().split(":");
+            String name = nameAndWeight[0];
+            if (!TEMPLATES.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown template '" + name + "', expected one of " + TEMPLATES.keySet());
+            }
+            weights.put(name, nameAndWeight.length > 1 ? Integer.parseInt(nameAndWeight[1]) : 1);
+        }
+        return new ToolMix(weights);
+    }
+
+    List<String> names() {
+        return names;
+    }
+
+    /** Picks a template by weight; returns its index in {@link #names()}. */
+    int pick(ThreadLocalRandom random) {
+        int r = random.nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) {
+                return i;
+            }
+        }
+        return cumulativeWeights.length - 1;
+    }
+
+    CallToolRequest request(int template, ThreadLocalRandom random) {
+        return TEMPLATES.get(names.get(template)).apply(random);
+    }
+}
@@ -0,0 +1,229 @@
+package mcp_demo.load;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.transport.HttpClientStreamableHttpTransport;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.vertx.core.json.JsonObject;
+import mcp_demo.capture.CapturedCall;
+import mcp_demo.metrics.LatencyHistogram;
+import mcp_demo.transport.JsonCodec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Replays a capture file (see mcp_demo.capture.TrafficCapture) against an MCP server and reports latency per tool.
+ *
+ * Calls keep the session they were captured in: each captured session gets its own MCP client session, up to
+ * --sessions, past which captured sessions share them. At a finite speed every call is issued at its captured offset
+ * divided by the speed, whether or not earlier calls have completed, and the report includes how late calls were
+ * issued ("scheduleLagMs"): a replay is only faithful to the capture while that lag stays small.
+ *
+ * Unless --url is given, the server is booted in-process with a stand-in for MySQL.
+ * Options (all --name=value):
+ * - file: capture file (required)
+ * - speed: multiple of the captured rate, e.g. 1 or 10, or max to issue calls as fast as responses allow (default 1)
+ * - concurrency: calls in flight at speed max (default 64)
+ * - sessions: most MCP client sessions opened (default 100)
+ * - url: MCP endpoint of an already running server
+ * - out: file the JSON report is written to, in addition to stdout
+ *
+ * Run with ./gradlew replay -PreplayArgs="--file=capture.jsonl.gz --speed=10"
+ */
+public class TrafficReplay {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+    private static final String MAX = "max";
+
+    private final List<CapturedCall> calls;
+    private final double speed;
+    private final int concurrency;
+    private final int maxSessions;
+
+    private final List<McpAsyncClient> sessions = new ArrayList<>();
+    private final Map<String, Integer> sessionSlots = new HashMap<>();
+    private final Map<String, ToolStats> stats = new LinkedHashMap<>();
+    private final LatencyHistogram overall = new LatencyHistogram();
+    private final LatencyHistogram scheduleLag = new LatencyHistogram();
+
+    /**
+     * @param speed multiple of the captured rate, 0 for as fast as possible
+     */
+    TrafficReplay(List<CapturedCall> calls, double speed, int concurrency, int maxSessions) {
+        this.calls = calls;
+        this.speed = speed;
+        this.concurrency = concurrency;
+        this.maxSessions = maxSessions;
+        for (CapturedCall call : calls) {
+            stats.computeIfAbsent(call.tool(), ToolStats::new);
+            sessionSlots.computeIfAbsent(String.valueOf(call.sessionId()), id -> sessionSlots.size() % maxSessions);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadGenerator.parse(args);
+        if (!options.containsKey("file")) {
+            throw new IllegalArgumentException("--file=<capture file> is required");
+        }
+        String speed = options.getOrDefault("speed", "1");
+        TrafficReplay replay = new TrafficReplay(
+            CapturedCall.read(Path.of(options.get("file")), new JsonCodec().mapper()),
+            MAX.equalsIgnoreCase(speed) ? 0 : Double.parseDouble(speed),
+            Integer.parseInt(options.getOrDefault("concurrency", "64")),
+            Integer.parseInt(options.getOrDefault("sessions", "100")));
+
+        JsonObject report;
+        if (options.containsKey("url")) {
+            report = replay.run(options.get("url"));
+        } else {
+            try (EmbeddedServer server = EmbeddedServer.start()) {
+                report = replay.run(server.mcpUrl());
+            }
+        }
+        report.put("file", options.get("file"));
+
+        String json = report.encodePrettily();
+        System.out.println(json);
+        if (options.containsKey("out")) {
+            Path out = Path.of(options.get("out"));
+            if (out.getParent() != null) {
+                Files.createDirectories(out.getParent());
+            }
+            Files.writeString(out, json);
+        }
+        System.exit(0);
+    }
+
+    JsonObject run(String url) {
+        connect(url);
+        try {
+            long start = System.nanoTime();
+            (speed > 0 ? timed(start) : asFastAsPossible()).block();
+            return report(url, System.nanoTime() - start);
+        } finally {
+            sessions.forEach(client -> client.closeGracefully().onErrorResume(e -> Mono.empty()).block(Duration.ofSeconds(5)));
+        }
+    }
+
+    private void connect(String url) {
+        int count = Math.min(maxSessions, sessionSlots.size());
+        for (int i = 0; i < count; i++) {
+            var transport = HttpClientStreamableHttpTransport.builder(url).build();
+            sessions.add(McpClient.async(transport).requestTimeout(REQUEST_TIMEOUT).build());
+        }
+        Flux.fromIterable(sessions).flatMap(McpAsyncClient::initialize).then().block(REQUEST_TIMEOUT);
+    }
+
+    // Each call is due at its offset from the first call divided by the speed, measured from the start: a call
+    // issued late does not push the ones after it back
+    private Mono<Void> timed(long start) {
+        long firstOffsetMicros = calls.isEmpty() ? 0 : calls.get(0).offsetMicros();
+        return Flux.fromIterable(calls)
+            .concatMap(call -> {
+                long due = start + (long) ((call.offsetMicros() - firstOffsetMicros) * 1000 / speed);
+                long wait = due - System.nanoTime();
+                Mono<CapturedCall> next = Mono.just(call);
+                return (wait > 0 ? next.delayElement(Duration.ofNanos(wait)) : next)
+                    .doOnNext(c -> scheduleLag.record(Math.max(0, System.nanoTime() - due)));
+            })
+            .flatMap(this::call, Integer.MAX_VALUE)
+            .then();
+    }
+
+    private Mono<Void> asFastAsPossible() {
+        return Flux.fromIterable(calls)
+            .flatMap(this::call, concurrency)
+            .then();
+    }
+
+    private Mono<Void> call(CapturedCall call) {
+        McpAsyncClient client = sessions.get(sessionSlots.get(String.valueOf(call.sessionId())));
+        ToolStats toolStats = stats.get(call.tool());
+        long start = System.nanoTime();
+        return client.callTool(new CallToolRequest(call.tool(), call.arguments()))
+            .doOnNext(result -> toolStats.record(start, Boolean.TRUE.equals(result.isError())))
+            .doOnError(e -> toolStats.record(start, true))
+            .onErrorResume(e -> Mono.empty())
+            .then();
+    }
+
+    private JsonObject report(String url, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        JsonObject perTool = new JsonObject();
+        long ok = 0;
+        long errors = 0;
+        for (ToolStats toolStats : stats.values()) {
+            perTool.put(toolStats.name, summary(toolStats.latency.snapshot(), toolStats.ok.sum(), toolStats.errors.sum(), seconds));
+            ok += toolStats.ok.sum();
+            errors += toolStats.errors.sum();
+        }
+        long capturedMicros = calls.isEmpty() ? 0 : calls.get(calls.size() - 1).offsetMicros() - calls.get(0).offsetMicros();
+
+        JsonObject report = new JsonObject()
+            .put("url", url)
+            .put("speed", speed > 0 ? (Object) speed : MAX)
+            .put("calls", calls.size())
+            .put("capturedSessions", sessionSlots.size())
+            .put("sessions", sessions.size())
+            .put("capturedSeconds", capturedMicros / 1e6)
+            .put("replaySeconds", seconds)
+            .put("overall", summary(overall.snapshot(), ok, errors, seconds))
+            .put("tools", perTool);
+        if (speed > 0) {
+            LatencyHistogram.Snapshot lag = scheduleLag.snapshot();
+            report.put("scheduleLagMs", new JsonObject()
+                .put("p50", millis(lag.valueAt(0.5)))
+                .put("p99", millis(lag.valueAt(0.99)))
+                .put("max", millis(lag.maxNanos())));
+        }
+        return report;
+    }
+
+    private static JsonObject summary(LatencyHistogram.Snapshot snapshot, long ok, long errors, double seconds) {
+        long total = ok + errors;
+        return new JsonObject()
+            .put("requests", total)
+            .put("errors", errors)
+            .put("errorRate", total == 0 ? 0.0 : (double) errors / total)
+            .put("throughputPerSecond", seconds == 0 ? 0.0 : total / seconds)
+            .put("latencyMs", new JsonObject()
+                .put("p50", millis(snapshot.valueAt(0.5)))
+                .put("p90", millis(snapshot.valueAt(0.9)))
+                .put("p99", millis(snapshot.valueAt(0.99)))
+                .put("max", millis(snapshot.maxNanos()))
+                .put("mean", snapshot.count() == 0 ? 0.0 : millis(snapshot.sumNanos() / snapshot.count())));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private final class ToolStats {
+
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        private ToolStats(String name) {
+            this.name = name;
+        }
+
+        private void record(long startNanos, boolean error) {
+            long elapsed = System.nanoTime() - startNanos;
+            latency.record(elapsed);
+            overall.record(elapsed);
+            (error ? errors : ok).increment();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package mcp_demo.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void bucketBoundsContainTheirValues() {
+        for (long v : new long[] {0, 1, 31, 32, 33, 63, 64, 65, 1_000, 123_456_789, 5_000_000_000L}) {
+            int index = LatencyHistogram.index(v);
+            assertTrue(LatencyHistogram.upperBound(index) >= v, "upper bound below " + v);
+            assertTrue(index == 0 || LatencyHistogram.upperBound(index - 1) < v, "previous bucket already covers " + v);
+        }
+    }
+
+    @Test
+    void percentilesAreWithinRelativeError() {
+        var histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        var snapshot = histogram.snapshot();
+        assertEquals(10_000, snapshot.count());
+        assertEquals(10_000_000L, snapshot.maxNanos());
+        assertEquals(5_000_000, snapshot.valueAt(0.5), 5_000_000 * 0.04);
+        assertEquals(9_900_000, snapshot.valueAt(0.99), 9_900_000 * 0.04);
+        assertEquals(9_990_000, snapshot.valueAt(0.999), 9_990_000 * 0.04);
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        assertEquals(0, new LatencyHistogram().snapshot().valueAt(0.99));
+    }
+}
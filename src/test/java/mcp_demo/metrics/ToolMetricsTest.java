@@ -0,0 +1,36 @@
+package mcp_demo.metrics;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import mcp_demo.TestTools;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ToolMetricsTest {
+
+    @Test
+    void recordsCallsErrorsAndLatency() {
+        var metrics = new ToolMetrics();
+        var spec = metrics.wrap(TestTools.tool("flaky", (exchange, toolReq) -> switch ((String) toolReq.arguments().get("mode")) {
+            case "ok" -> Mono.just(McpSchema.CallToolResult.builder().addTextContent("ok").isError(false).build());
+            case "isError" -> Mono.just(McpSchema.CallToolResult.builder().addTextContent("bad").isError(true).build());
+            default -> throw new IllegalStateException("boom");
+        }));
+
+        for (String mode : new String[] {"ok", "ok", "isError", "throw"}) {
+            spec.callHandler().apply(null, new McpSchema.CallToolRequest("flaky", Map.of("mode", mode)))
+                .onErrorResume(e -> Mono.empty())
+                .block();
+        }
+
+        ToolStats stats = metrics.tools().iterator().next();
+        assertEquals("flaky", stats.toolName());
+        assertEquals(4, stats.calls());
+        assertEquals(2, stats.errors());
+        assertEquals(0, stats.inFlight());
+        assertEquals(4, stats.latency().snapshot().count());
+    }
+}
@@ -0,0 +1,253 @@
+package mcp_demo.processor;
+
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Pool;
+import jakarta.enterprise.inject.Default;
+import jakarta.enterprise.inject.Instance;
+import mcp_demo.MainVerticle;
+import mcp_demo.cdi.BeanContainer;
+import mcp_demo.cdi.GeneratedContainer;
+import mcp_demo.cdi.ToolProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BeanRegistryProcessorTest {
+
+    @TempDir
+    Path classes;
+
+    @Test
+    void wiresFieldsProducersAndLifecycle() throws Exception {
+        var diagnostics = compile(Map.of(
+            "sample/Log.java", """
+                package sample;
+                import java.util.ArrayList;
+                import java.util.List;
+                @jakarta.enterprise.context.ApplicationScoped
+                public class Log {
+                    public static final List<String> EVENTS = new ArrayList<>();
+                }
+                """,
+            "sample/Clock.java", """
+                package sample;
+                @jakarta.enterprise.context.ApplicationScoped
+                public class Clock {
+                    @jakarta.inject.Inject Log log;
+                    @jakarta.annotation.PostConstruct void start() { Log.EVENTS.add("clock started"); }
+                    @jakarta.annotation.PreDestroy void stop() { Log.EVENTS.add("clock stopped"); }
+                    @jakarta.enterprise.inject.Produces public StringBuilder buffer(Log log) { return new StringBuilder("produced"); }
+                    void release(@jakarta.enterprise.inject.Disposes StringBuilder buffer) { Log.EVENTS.add("buffer disposed"); }
+                }
+                """,
+            "sample/EchoTool.java", """
+                package sample;
+                @jakarta.enterprise.context.ApplicationScoped
+                @mcp_demo.cdi.McpTool
+                public class EchoTool implements mcp_demo.cdi.ToolProvider {
+                    @jakarta.inject.Inject StringBuilder buffer;
+                    public io.modelcontextprotocol.server.McpServerFeatures.AsyncToolSpecification getToolSpec() { return null; }
+                }
+                """,
+            "sample/Server.java", """
+                package sample;
+                @jakarta.enterprise.context.ApplicationScoped
+                public class Server {
+                    @jakarta.inject.Inject Clock clock;
+                    @jakarta.inject.Inject @mcp_demo.cdi.McpTool jakarta.enterprise.inject.Instance<mcp_demo.cdi.ToolProvider> tools;
+                }
+                """));
+        assertTrue(diagnostics.isEmpty(), diagnostics::toString);
+
+        try (var loader = new ChildFirstClassLoader(classes)) {
+            var events = (List<?>) loader.loadClass("sample.Log").getField("EVENTS").get(null);
+            var container = (BeanContainer) loader.loadClass(GeneratedContainer.class.getName()).getConstructor().newInstance();
+            Object server = container.select(loader.loadClass("sample.Server"));
+            Object clock = field(server, "clock");
+            assertSame(container.select(loader.loadClass("sample.Clock")), clock);
+            assertSame(container.select(loader.loadClass("sample.Log")), field(clock, "log"));
+
+            var tools = new ArrayList<Object>();
+            ((Iterable<?>) field(server, "tools")).forEach(tools::add);
+            assertEquals(1, tools.size());
+            assertEquals("produced", field(tools.get(0), "buffer").toString());
+            assertEquals(List.of("clock started"), events);
+
+            container.close();
+            // Reverse order of creation: the buffer was produced after the clock was created
+            assertEquals(List.of("clock started", "buffer disposed", "clock stopped"), events);
+        }
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void honorsScopesAndSelectsFromInstances() throws Exception {
+        var diagnostics = compile(Map.of(
+            "sample/Counter.java", "package sample; @jakarta.inject.Singleton public class Counter { public int created; }",
+            "sample/PlainTool.java", """
+                package sample;
+                @mcp_demo.cdi.McpTool
+                public class PlainTool implements mcp_demo.cdi.ToolProvider {
+                    @jakarta.inject.Inject Counter counter;
+                    @jakarta.annotation.PostConstruct void init() { counter.created++; }
+                    public io.modelcontextprotocol.server.McpServerFeatures.AsyncToolSpecification getToolSpec() { return null; }
+                }
+                """,
+            "sample/Helper.java", """
+                package sample;
+                @jakarta.enterprise.context.ApplicationScoped
+                public class Helper implements mcp_demo.cdi.ToolProvider {
+                    public io.modelcontextprotocol.server.McpServerFeatures.AsyncToolSpecification getToolSpec() { return null; }
+                }
+                """,
+            "sample/Server.java", """
+                package sample;
+                @jakarta.enterprise.context.ApplicationScoped
+                public class Server {
+                    @jakarta.inject.Inject Counter counter;
+                    @jakarta.inject.Inject @jakarta.enterprise.inject.Any jakarta.enterprise.inject.Instance<mcp_demo.cdi.ToolProvider> tools;
+                }
+                """));
+        assertTrue(diagnostics.isEmpty(), diagnostics::toString);
+
+        try (var loader = new ChildFirstClassLoader(classes)) {
+            var container = (BeanContainer) loader.loadClass(GeneratedContainer.class.getName()).getConstructor().newInstance();
+            Object server = container.select(loader.loadClass("sample.Server"));
+            Class plainTool = loader.loadClass("sample.PlainTool");
+            Object counter = field(server, "counter");
+            assertSame(container.select(loader.loadClass("sample.Counter")), counter);
+
+            // An @McpTool without a scope is dependent: a new instance each time
+            assertNotSame(container.select(plainTool), container.select(plainTool));
+            assertEquals(2, counter.getClass().getField("created").getInt(counter));
+
+            // Instances only create beans when they are got
+            var tools = (Instance<Object>) field(server, "tools");
+            assertEquals(2, tools.stream().count());
+            assertInstanceOf(plainTool, tools.select(plainTool).get());
+            assertEquals("sample.Helper", tools.select(Default.Literal.INSTANCE).get().getClass().getName());
+            assertTrue(tools.select(loader.loadClass("sample.Counter")).isUnsatisfied());
+            assertEquals(4, counter.getClass().getField("created").getInt(counter));
+            container.close();
+        }
+    }
+
+    @Test
+    void rejectsUnsupportedScopes() throws IOException {
+        var diagnostics = compile(Map.of(
+            "sample/PerRequest.java", "package sample; @jakarta.enterprise.context.RequestScoped public class PerRequest {}"));
+
+        assertTrue(diagnostics.stream().anyMatch(d -> d.contains("Unsupported scope @jakarta.enterprise.context.RequestScoped")),
+            diagnostics::toString);
+    }
+
+    @Test
+    void reportsUnsatisfiedAndAmbiguousDependencies() throws IOException {
+        var diagnostics = compile(Map.of(
+            "sample/A.java", "package sample; @jakarta.enterprise.context.ApplicationScoped public class A implements Runnable { public void run() {} }",
+            "sample/B.java", "package sample; @jakarta.enterprise.context.ApplicationScoped public class B implements Runnable { public void run() {} }",
+            "sample/C.java", """
+                package sample;
+                @jakarta.enterprise.context.ApplicationScoped
+                public class C {
+                    @jakarta.inject.Inject Runnable task;
+                    @jakarta.inject.Inject java.time.Clock clock;
+                }
+                """));
+
+        assertTrue(diagnostics.stream().anyMatch(d -> d.contains("Ambiguous dependency: 2 beans of type java.lang.Runnable")), diagnostics::toString);
+        assertTrue(diagnostics.stream().anyMatch(d -> d.contains("Unsatisfied dependency: no bean of type java.time.Clock")), diagnostics::toString);
+    }
+
+    @Test
+    void rejectsMcpToolThatIsNoToolProvider() throws IOException {
+        var diagnostics = compile(Map.of(
+            "sample/NotATool.java", "package sample; @jakarta.enterprise.context.ApplicationScoped @mcp_demo.cdi.McpTool public class NotATool {}"));
+
+        assertTrue(diagnostics.stream().anyMatch(d -> d.contains("@McpTool beans must implement mcp_demo.cdi.ToolProvider")), diagnostics::toString);
+    }
+
+    @Test
+    void generatedContainerWiresTheServer() throws ReflectiveOperationException {
+        try (var container = new GeneratedContainer()) {
+            MainVerticle verticle = container.select(MainVerticle.class);
+            var tools = new ArrayList<String>();
+            for (Object provider : (Iterable<?>) field(verticle, "toolProviders")) {
+                tools.add(((ToolProvider) provider).getToolSpec().tool().name());
+            }
+            assertEquals(List.of("batch_calculator", "calculator", "expression"), tools);
+            assertSame(container.select(Pool.class), container.pool());
+            assertNotNull(container.select(Vertx.class));
+        }
+    }
+
+    /** Compiles the sources with the processor into the temp dir and returns the error diagnostics. */
+    private List<String> compile(Map<String, String> sources) throws IOException {
+        var compiler = javax.tools.ToolProvider.getSystemJavaCompiler();
+        var collector = new DiagnosticCollector<JavaFileObject>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(collector, null, null)) {
+            var units = sources.entrySet().stream()
+                .map(entry -> new SimpleJavaFileObject(URI.create("string:///" + entry.getKey()), JavaFileObject.Kind.SOURCE) {
+                    @Override
+                    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                        return entry.getValue();
+                    }
+                })
+                .toList();
+            var task = compiler.getTask(null, fileManager, collector,
+                List.of("-d", classes.toString(), "-classpath", System.getProperty("java.class.path")),
+                null, units);
+            task.setProcessors(List.of(new BeanRegistryProcessor()));
+            task.call();
+        }
+        return collector.getDiagnostics().stream()
+            .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+            .map(d -> d.getMessage(null))
+            .toList();
+    }
+
+    private static Object field(Object bean, String name) throws ReflectiveOperationException {
+        Field field = bean.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(bean);
+    }
+
+    /** Loads the freshly compiled classes before the test classpath, which has its own GeneratedContainer. */
+    private static final class ChildFirstClassLoader extends URLClassLoader {
+
+        ChildFirstClassLoader(Path classes) throws IOException {
+            super(new URL[] {classes.toUri().toURL()}, BeanRegistryProcessorTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded == null) {
+                    try {
+                        loaded = findClass(name);
+                    } catch (ClassNotFoundException e) {
+                        return super.loadClass(name, resolve);
+                    }
+                }
+                return loaded;
+            }
+        }
+    }
+}
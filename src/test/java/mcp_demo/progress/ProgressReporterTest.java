@@ -0,0 +1,107 @@
+package mcp_demo.progress;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.modelcontextprotocol.server.McpAsyncServerExchange;
+import io.modelcontextprotocol.server.McpTransportContext;
+import io.modelcontextprotocol.spec.McpLoggableSession;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProgressReporterTest {
+
+    @Test
+    void isNoOpWithoutProgressToken() {
+        RecordingSession session = new RecordingSession();
+        ProgressReporter progress = ProgressReporter.of(session.exchange(), new McpSchema.CallToolRequest("tool", Map.of()));
+
+        assertFalse(progress.isRequested());
+        progress.progress(1, 2.0, "half").block();
+        progress.report(2, 2.0, null);
+
+        assertTrue(session.notifications.isEmpty());
+    }
+
+    @Test
+    void sendsIncreasingProgressForTheRequestToken() {
+        RecordingSession session = new RecordingSession();
+        ProgressReporter progress = ProgressReporter.of(session.exchange(), request(7));
+
+        progress.progress(0, 10.0, "Partial result: 42.0").block();
+        progress.progress(5, 10.0, null).block();
+        progress.progress(5, 10.0, null).block();
+        progress.progress(3, 10.0, null).block();
+        progress.report(10, 10.0, null);
+
+        assertEquals(List.of(0.0, 5.0, 10.0), session.notifications.stream().map(McpSchema.ProgressNotification::progress).toList());
+        McpSchema.ProgressNotification first = session.notifications.get(0);
+        assertEquals("7", first.progressToken());
+        assertEquals(10.0, first.total());
+        assertEquals("Partial result: 42.0", first.message());
+    }
+
+    @Test
+    void failedNotificationDoesNotFailTheCall() {
+        RecordingSession session = new RecordingSession();
+        session.failure = new IllegalStateException("stream closed");
+        ProgressReporter progress = ProgressReporter.of(session.exchange(), request("t"));
+
+        assertDoesNotThrow(() -> progress.progress(1, null, null).block());
+    }
+
+    public static McpSchema.CallToolRequest request(Object progressToken) {
+        return new McpSchema.CallToolRequest("tool", Map.of(), Map.of("progressToken", progressToken));
+    }
+
+    /** Session recording the progress notifications sent through its exchange. */
+    public static final class RecordingSession implements McpLoggableSession {
+
+        public final List<McpSchema.ProgressNotification> notifications = new CopyOnWriteArrayList<>();
+        public volatile RuntimeException failure;
+
+        public McpAsyncServerExchange exchange() {
+            return new McpAsyncServerExchange("test-session", this, McpSchema.ClientCapabilities.builder().build(),
+                new McpSchema.Implementation("test", "1.0.0"), McpTransportContext.EMPTY);
+        }
+
+        @Override
+        public <T> Mono<T> sendRequest(String method, Object requestParams, TypeReference<T> typeRef) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> sendNotification(String method, Object params) {
+            if (failure != null) {
+                return Mono.error(failure);
+            }
+            if (McpSchema.METHOD_NOTIFICATION_PROGRESS.equals(method)) {
+                notifications.add((McpSchema.ProgressNotification) params);
+            }
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> closeGracefully() {
+            return Mono.empty();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void setMinLoggingLevel(McpSchema.LoggingLevel minLoggingLevel) {
+        }
+
+        @Override
+        public boolean isNotificationForLevelAllowed(McpSchema.LoggingLevel loggingLevel) {
+            return false;
+        }
+    }
+}
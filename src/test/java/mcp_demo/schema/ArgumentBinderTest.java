@@ -0,0 +1,147 @@
+package mcp_demo.schema;
+
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArgumentBinderTest {
+
+    private static final McpSchema.Tool TOOL = McpSchema.Tool.builder()
+        .name("sample")
+        .inputSchema("""
+            {
+              "type": "object",
+              "properties": {
+                "operation": {"type": "string", "enum": ["add", "subtract"]},
+                "x": {"type": "number"},
+                "count": {"type": "integer"},
+                "verbose": {"type": "boolean", "default": false},
+                "tags": {"type": "array"}
+              },
+              "required": ["operation", "x"],
+              "additionalProperties": false
+            }
+            """)
+        .build();
+
+    private final ArgumentBinder binder = ArgumentBinder.compile(TOOL);
+
+    @Test
+    void bindsTypedValuesAndDefaults() throws InvalidArgumentsException {
+        ToolArguments args = binder.bind(Map.of("operation", "subtract", "x", 2.5, "count", 3, "tags", List.of("a")));
+
+        assertEquals("subtract", args.getString(binder.index("operation")));
+        assertEquals(1, args.getEnumOrdinal(binder.index("operation")));
+        assertEquals(2.5, args.getDouble(binder.index("x")));
+        assertEquals(3, args.getLong(binder.index("count")));
+        assertFalse(args.getBoolean(binder.index("verbose")));
+        assertTrue(args.isPresent(binder.index("verbose")));
+        assertEquals(List.of("a"), args.get(binder.index("tags")));
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertInvalid(Map.of("x", 1), "missing required argument 'operation'");
+        assertInvalid(Map.of("operation", "multiply", "x", 1), "'operation' must be one of");
+        assertInvalid(Map.of("operation", "add", "x", "1"), "'x' must be a number");
+        assertInvalid(Map.of("operation", "add", "x", 1, "count", 1.5), "'count' must be an integer");
+        assertInvalid(Map.of("operation", "add", "x", 1, "verbose", "yes"), "'verbose' must be a boolean");
+        assertInvalid(Map.of("operation", "add", "x", 1, "extra", 1), "unknown argument 'extra'");
+    }
+
+    @Test
+    void comparesEnumValuesAsJson() throws InvalidArgumentsException {
+        ArgumentBinder levels = ArgumentBinder.compile(McpSchema.Tool.builder()
+            .name("levels")
+            .inputSchema("""
+                {
+                  "type": "object",
+                  "properties": {
+                    "level": {"type": "number", "enum": [1, 2.5]},
+                    "range": {"type": "array", "enum": [[0, 10]]}
+                  }
+                }
+                """)
+            .build());
+        int level = levels.index("level");
+
+        assertEquals(0, levels.bind(Map.of("level", 1L)).getEnumOrdinal(level));
+        assertEquals(0, levels.bind(Map.of("level", 1.0)).getEnumOrdinal(level));
+        assertEquals(1, levels.bind(Map.of("level", 2.5)).getEnumOrdinal(level));
+        assertEquals(0, levels.bind(Map.of("range", List.of(0.0, 10L))).getEnumOrdinal(levels.index("range")));
+        assertThrows(InvalidArgumentsException.class, () -> levels.bind(Map.of("level", 2)));
+    }
+
+    @Test
+    void bindsTheValueOfNonStringEnums() throws InvalidArgumentsException {
+        ArgumentBinder levels = ArgumentBinder.compile(McpSchema.Tool.builder()
+            .name("levels")
+            .inputSchema("""
+                {
+                  "type": "object",
+                  "properties": {
+                    "level": {"type": "number", "enum": [1, 2.5]},
+                    "step": {"type": "integer", "enum": [10, 20]},
+                    "range": {"type": "array", "enum": [[0, 10]]}
+                  }
+                }
+                """)
+            .build());
+
+        ToolArguments args = levels.bind(Map.of("level", 2.5, "step", 20, "range", List.of(0, 10)));
+
+        assertEquals(2.5, args.getDouble(levels.index("level")));
+        assertEquals(20, args.getLong(levels.index("step")));
+        assertEquals(1, args.getEnumOrdinal(levels.index("step")));
+        assertEquals(List.of(0, 10), args.get(levels.index("range")));
+    }
+
+    @Test
+    void keepsIntegersBeyondDoublePrecisionExact() throws InvalidArgumentsException {
+        long large = (1L << 53) + 1;
+        int count = binder.index("count");
+
+        assertEquals(large, binder.bind(Map.of("operation", "add", "x", 1, "count", large)).getLong(count));
+        assertEquals(Long.MAX_VALUE, binder.bind(Map.of("operation", "add", "x", 1, "count", Long.MAX_VALUE)).getLong(count));
+        assertInvalid(Map.of("operation", "add", "x", 1, "count", BigInteger.ONE.shiftLeft(63)), "'count' must be an integer");
+        assertInvalid(Map.of("operation", "add", "x", 1, "count", 0x1p63), "'count' must be an integer");
+    }
+
+    @Test
+    void rejectsNonFiniteIntegers() {
+        assertInvalid(Map.of("operation", "add", "x", 1, "count", Double.POSITIVE_INFINITY), "'count' must be an integer");
+        assertInvalid(Map.of("operation", "add", "x", 1, "count", Double.NEGATIVE_INFINITY), "'count' must be an integer");
+        assertInvalid(Map.of("operation", "add", "x", 1, "count", Double.NaN), "'count' must be an integer");
+    }
+
+    @Test
+    void invalidCallsNeverReachTheHandler() {
+        AtomicBoolean called = new AtomicBoolean();
+        var handler = ArgumentBinder.handler(binder, (exchange, args, progress) -> {
+            called.set(true);
+            return Mono.just(McpSchema.CallToolResult.builder().addTextContent("ok").build());
+        });
+
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("operation", "add");
+        McpError error = assertThrows(McpError.class,
+            () -> handler.apply(null, new McpSchema.CallToolRequest("sample", arguments)).block());
+
+        assertEquals(McpSchema.ErrorCodes.INVALID_PARAMS, error.getJsonRpcError().code());
+        assertFalse(called.get());
+    }
+
+    private void assertInvalid(Map<String, Object> arguments, String expectedMessage) {
+        InvalidArgumentsException e = assertThrows(InvalidArgumentsException.class, () -> binder.bind(arguments));
+        assertTrue(e.getMessage().contains(expectedMessage), e.getMessage());
+    }
+}
@@ -0,0 +1,126 @@
+package mcp_demo.tools;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import mcp_demo.progress.ProgressReporterTest.RecordingSession;
+import mcp_demo.schema.InvalidArgumentsException;
+import mcp_demo.schema.ToolArguments;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchCalculatorToolTest {
+
+    private final BatchCalculatorTool tool = new BatchCalculatorTool();
+
+    @Test
+    void appliesOneOperationToEveryPair() throws InvalidArgumentsException {
+        double[] results = tool.evaluate(bind(Map.of("operation", "multiply", "a", List.of(1, 2.5, -3), "b", List.of(4, 2, 0.5))));
+
+        assertArrayEquals(new double[] {4, 5, -1.5}, results);
+    }
+
+    @Test
+    void appliesPerElementOperations() throws InvalidArgumentsException {
+        double[] results = tool.evaluate(bind(Map.of(
+            "operations", List.of("add", "add", "subtract", "divide", "add"),
+            "a", List.of(1, 2, 3, 8, 5),
+            "b", List.of(1, 1, 1, 2, 5))));
+
+        assertArrayEquals(new double[] {2, 3, 2, 4, 10}, results);
+    }
+
+    @Test
+    void vectorAndScalarKernelsAgree() {
+        ArithmeticKernel best = ArithmeticKernel.best();
+        ArithmeticKernel scalar = new ScalarArithmeticKernel();
+        Random random = new Random(42);
+        // Odd length so the vector kernel also runs its scalar tail
+        double[] a = random.doubles(1027).toArray();
+        double[] b = random.doubles(1027).map(d -> d + 0.5).toArray();
+
+        for (int operation = ArithmeticKernel.ADD; operation <= ArithmeticKernel.DIVIDE; operation++) {
+            double[] expected = new double[a.length];
+            double[] actual = new double[a.length];
+            scalar.apply(operation, a, b, expected, 3, a.length);
+            best.apply(operation, a, b, actual, 3, a.length);
+            assertArrayEquals(expected, actual, best.name() + " operation " + operation);
+        }
+    }
+
+    @Test
+    void chunksLargeResults() throws Exception {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < BatchCalculatorTool.CHUNK_SIZE + 10; i++) {
+            values.add(i);
+        }
+        McpSchema.CallToolResult result = call(Map.of("operation", "add", "a", values, "b", values));
+
+        assertFalse(result.isError());
+        assertEquals(2, result.content().size());
+        String first = ((McpSchema.TextContent) result.content().get(0)).text();
+        String second = ((McpSchema.TextContent) result.content().get(1)).text();
+        assertTrue(first.startsWith("[0.0,2.0,4.0,"));
+        assertEquals("[2048.0,2050.0,2052.0,2054.0,2056.0,2058.0,2060.0,2062.0,2064.0,2066.0]", second);
+    }
+
+    @Test
+    void reportsChunksAsProgressAndReturnsAllValues() {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 2 * BatchCalculatorTool.CHUNK_SIZE + 10; i++) {
+            values.add(i);
+        }
+        RecordingSession session = new RecordingSession();
+        var request = new McpSchema.CallToolRequest("batch_calculator",
+            Map.of("operation", "add", "a", values, "b", values), Map.of("progressToken", "p1"));
+        int[] notifiedBeforeResult = {-1};
+
+        McpSchema.CallToolResult result = tool.getToolSpec().callHandler().apply(session.exchange(), request)
+            .doOnNext(r -> notifiedBeforeResult[0] = session.notifications.size())
+            .block();
+
+        assertEquals(3, notifiedBeforeResult[0]);
+        List<McpSchema.ProgressNotification> notifications = session.notifications;
+        assertEquals(List.of(1024.0, 2048.0, 2058.0), notifications.stream().map(McpSchema.ProgressNotification::progress).toList());
+        assertTrue(notifications.stream().allMatch(n -> n.total() == 2058.0 && "p1".equals(n.progressToken())));
+        assertEquals(List.of("Chunk 1 of 3", "Chunk 2 of 3", "Chunk 3 of 3"),
+            notifications.stream().map(McpSchema.ProgressNotification::message).toList());
+        assertEquals(3, result.content().size());
+        assertTrue(((McpSchema.TextContent) result.content().get(0)).text().startsWith("[0.0,2.0,4.0,"));
+        assertEquals("[4096.0,4098.0,4100.0,4102.0,4104.0,4106.0,4108.0,4110.0,4112.0,4114.0]",
+            ((McpSchema.TextContent) result.content().get(2)).text());
+    }
+
+    @Test
+    void encodesNonFiniteResultsAsNull() throws Exception {
+        McpSchema.CallToolResult result = call(Map.of("operation", "divide", "a", List.of(1, 4), "b", List.of(0, 2)));
+
+        assertEquals("[null,2.0]", ((McpSchema.TextContent) result.content().get(0)).text());
+    }
+
+    @Test
+    void rejectsInvalidBatches() {
+        assertInvalid(Map.of("operation", "add", "a", List.of(1, 2), "b", List.of(1)), "same length");
+        assertInvalid(Map.of("operation", "add", "a", List.of(1, "x"), "b", List.of(1, 2)), "a[1] must be a number");
+        assertInvalid(Map.of("operations", List.of("add", "pow"), "a", List.of(1, 2), "b", List.of(1, 2)), "operations[1]");
+        assertInvalid(Map.of("operations", List.of("add"), "a", List.of(1, 2), "b", List.of(1, 2)), "operations must have");
+        assertInvalid(Map.of("a", List.of(1), "b", List.of(1)), "Either operation or operations");
+    }
+
+    private void assertInvalid(Map<String, Object> arguments, String message) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> tool.evaluate(bind(arguments)));
+        assertTrue(e.getMessage().contains(message), e.getMessage());
+    }
+
+    private McpSchema.CallToolResult call(Map<String, Object> arguments) {
+        return tool.getToolSpec().callHandler().apply(null, new McpSchema.CallToolRequest("batch_calculator", arguments)).block();
+    }
+
+    private static ToolArguments bind(Map<String, Object> arguments) throws InvalidArgumentsException {
+        return BatchCalculatorTool.BINDER.bind(arguments);
+    }
+}
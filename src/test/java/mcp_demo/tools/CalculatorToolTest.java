@@ -0,0 +1,48 @@
+package mcp_demo.tools;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import mcp_demo.progress.ProgressReporterTest.RecordingSession;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CalculatorToolTest {
+
+    @Test
+    void streamsPartialResultAndProgressBeforeCompleting() {
+        for (boolean blocking : new boolean[] {false, true}) {
+            CalculatorTool tool = new CalculatorTool();
+            tool.delayMs = 100;
+            tool.progressIntervalMs = 40;
+            RecordingSession session = new RecordingSession();
+            var request = new McpSchema.CallToolRequest("calculator",
+                Map.of("operation", "add", "a", 40, "b", 2, "simulateBlocking", blocking), Map.of("progressToken", "p1"));
+
+            McpSchema.CallToolResult result = tool.getToolSpec().callHandler().apply(session.exchange(), request).block();
+
+            assertEquals(List.of("42.0", blocking ? "Delay type: BLOCKING (Thread.sleep)" : "Delay type: NON-BLOCKING (Mono.delayElement)"),
+                result.content().stream().map(content -> ((McpSchema.TextContent) content).text()).toList());
+            List<McpSchema.ProgressNotification> notifications = session.notifications;
+            assertEquals(List.of(0.0, 40.0, 80.0, 100.0), notifications.stream().map(McpSchema.ProgressNotification::progress).toList(),
+                "blocking=" + blocking);
+            assertEquals("Partial result: 42.0", notifications.get(0).message());
+            assertTrue(notifications.stream().allMatch(n -> n.total() == 100.0 && "p1".equals(n.progressToken())));
+        }
+    }
+
+    @Test
+    void sendsNothingWithoutProgressToken() {
+        CalculatorTool tool = new CalculatorTool();
+        tool.delayMs = 20;
+        RecordingSession session = new RecordingSession();
+
+        tool.getToolSpec().callHandler()
+            .apply(session.exchange(), new McpSchema.CallToolRequest("calculator", Map.of("operation", "add", "a", 1, "b", 2)))
+            .block();
+
+        assertTrue(session.notifications.isEmpty());
+    }
+}
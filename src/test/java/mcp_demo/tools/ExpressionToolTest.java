@@ -0,0 +1,81 @@
+package mcp_demo.tools;
+
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpressionToolTest {
+
+    private final ExpressionTool tool = new ExpressionTool(2);
+
+    @Test
+    void followsPrecedenceAndAssociativity() {
+        assertEquals(7, eval("1 + 2 * 3"));
+        assertEquals(9, eval("(1 + 2) * 3"));
+        assertEquals(2, eval("8 / 2 / 2"));
+        assertEquals(512, eval("2 ^ 3 ^ 2"));
+        assertEquals(-4, eval("-2^2"));
+        assertEquals(0.25, eval("2^-2"));
+        assertEquals(1, eval("7 % 3"));
+        assertEquals(1.5e3, eval("1.5e3"));
+        assertEquals(Math.PI, eval("pi"));
+    }
+
+    @Test
+    void bindsVariablesAndCallsFunctions() {
+        var expression = Expression.compile("sqrt(x^2 + y^2) + max(x, y, 1) - min(z)");
+        assertEquals(List.of("x", "y", "z"), expression.variables());
+        assertEquals(5 + 4 - 10, expression.evaluate(Map.of("x", 3, "y", 4.0, "z", 10)));
+        assertEquals(5 + 4 - 10, expression.evaluate(new double[] {3, 4, 10}));
+        assertEquals(Math.atan2(1, 2) + Math.hypot(3, 4) + Math.rint(2.5), eval("atan2(1, 2) + hypot(3, 4) + round(2.5)"));
+    }
+
+    @Test
+    void reportsWhereAnExpressionIsInvalid() {
+        assertEquals("Expected ')' but reached the end at position 6",
+            assertThrows(IllegalArgumentException.class, () -> Expression.compile("(1 + 2")).getMessage());
+        assertTrue(assertThrows(IllegalArgumentException.class, () -> Expression.compile("1 + * 2")).getMessage()
+            .startsWith("Unexpected '*' at position 4"));
+        assertTrue(assertThrows(IllegalArgumentException.class, () -> Expression.compile("nope(1)")).getMessage()
+            .startsWith("Unknown function nope"));
+        assertTrue(assertThrows(IllegalArgumentException.class, () -> Expression.compile("pow(1)")).getMessage()
+            .startsWith("pow takes 2 argument(s), got 1"));
+        assertThrows(IllegalArgumentException.class, () -> Expression.compile("-".repeat(Expression.MAX_DEPTH + 1) + "1"));
+        assertEquals("No value for variable x",
+            assertThrows(IllegalArgumentException.class, () -> Expression.compile("x + 1").evaluate(Map.of())).getMessage());
+    }
+
+    @Test
+    void reusesCompiledExpressionsUpToTheCacheSize() {
+        Expression first = tool.compiled("a * b");
+        assertSame(first, tool.compiled("a * b"));
+        tool.compiled("a + b");
+        tool.compiled("a - b");
+        // Least recently used: "a * b" was evicted
+        assertNotSame(first, tool.compiled("a * b"));
+        assertEquals(1, tool.hits());
+        assertEquals(4, tool.misses());
+    }
+
+    @Test
+    void answersInvalidExpressionsWithInvalidParams() {
+        var error = assertThrows(McpError.class, () -> call(Map.of("expression", "1 +")));
+        assertEquals(McpSchema.ErrorCodes.INVALID_PARAMS, error.getJsonRpcError().code());
+
+        var result = call(Map.of("expression", "x / y", "variables", Map.of("x", 1, "y", 4)));
+        assertEquals("0.25", ((McpSchema.TextContent) result.content().get(0)).text());
+    }
+
+    private static double eval(String source) {
+        return Expression.compile(source).evaluate(new double[0]);
+    }
+
+    private McpSchema.CallToolResult call(Map<String, Object> arguments) {
+        return tool.getToolSpec().callHandler().apply(null, new McpSchema.CallToolRequest("expression", arguments)).block();
+    }
+}
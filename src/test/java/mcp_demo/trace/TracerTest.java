@@ -0,0 +1,157 @@
+package mcp_demo.trace;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import mcp_demo.TestTools;
+import mcp_demo.dispatch.AdmissionController;
+import mcp_demo.dispatch.CallDeadlines;
+import mcp_demo.progress.ProgressReporter;
+import mcp_demo.progress.ProgressReporterTest;
+import mcp_demo.progress.ProgressReporterTest.RecordingSession;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TracerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @Test
+    void writesStartEventsAndEndOfEachCallAsJsonLines() throws Exception {
+        var tracer = tracer(TraceLevel.DEBUG, 1.0, 16);
+        tracer.start();
+        var spec = tracer.wrap(tool());
+        spec.callHandler().apply(null, new McpSchema.CallToolRequest("traced", Map.of())).block();
+        tracer.stop();
+
+        List<JsonNode> lines = lines();
+        assertEquals(3, lines.size());
+        assertEquals("start", lines.get(0).get("event").asText());
+        assertEquals("traced.step", lines.get(1).get("event").asText());
+        assertEquals("debug", lines.get(1).get("level").asText());
+        assertEquals("with \"quotes\"", lines.get(1).get("detail").asText());
+        assertEquals(42, lines.get(1).get("value").asLong());
+        assertEquals("end", lines.get(2).get("event").asText());
+        assertEquals("ok", lines.get(2).get("outcome").asText());
+        assertTrue(lines.get(2).has("durationMicros"));
+        for (JsonNode line : lines) {
+            assertEquals("traced", line.get("tool").asText());
+            assertEquals(16, line.get("trace").asText().length());
+            assertEquals(lines.get(0).get("span").asText(), line.get("span").asText());
+        }
+        assertEquals(3, tracer.written());
+    }
+
+    @Test
+    void skipsDebugEventsAtInfoAndUnsampledCalls() throws Exception {
+        var info = tracer(TraceLevel.INFO, 1.0, 16);
+        info.start();
+        info.wrap(tool()).callHandler().apply(null, new McpSchema.CallToolRequest("traced", Map.of())).block();
+        info.stop();
+        assertEquals(List.of("start", "end"), lines().stream().map(line -> line.get("event").asText()).toList());
+
+        out.reset();
+        var unsampled = tracer(TraceLevel.DEBUG, 0.0, 16);
+        unsampled.start();
+        unsampled.wrap(tool()).callHandler().apply(null, new McpSchema.CallToolRequest("traced", Map.of())).block();
+        unsampled.stop();
+        assertEquals(0, out.size());
+
+        var off = tracer(TraceLevel.OFF, 1.0, 16);
+        var spec = tool();
+        assertSame(spec, off.wrap(spec));
+    }
+
+    @Test
+    void dropsEventsWhenTheWriterFallsALapBehind() throws Exception {
+        var tracer = tracer(TraceLevel.INFO, 1.0, 4);
+        var spec = tracer.wrap(tool());
+        // Not started yet: nothing drains the ring. Each call records two events
+        for (int i = 0; i < 3; i++) {
+            spec.callHandler().apply(null, new McpSchema.CallToolRequest("traced", Map.of())).block();
+        }
+        assertEquals(2, tracer.dropped());
+
+        tracer.start();
+        tracer.stop();
+        assertEquals(4, lines().size());
+        assertEquals(4, tracer.written());
+    }
+
+    @Test
+    void handlerEventsSurviveAdmissionControlAndDeadlines() throws Exception {
+        var tracer = tracer(TraceLevel.DEBUG, 1.0, 16);
+        tracer.start();
+        // Wrapped as in MainVerticle: admission control subscribes to the handler itself
+        var spec = tracer.wrap(new CallDeadlines().wrap(new AdmissionController().wrap(tool()), 5000));
+        spec.callHandler().apply(null, new McpSchema.CallToolRequest("traced", Map.of())).block();
+        tracer.stop();
+
+        assertEquals(List.of("start", "traced.step", "end"), lines().stream().map(line -> line.get("event").asText()).toList());
+    }
+
+    @Test
+    void recordsFailedProgressNotificationsOnTheSpan() throws Exception {
+        var tracer = tracer(TraceLevel.INFO, 1.0, 16);
+        tracer.start();
+        RecordingSession session = new RecordingSession();
+        session.failure = new IllegalStateException("stream closed");
+        var spec = tracer.wrap(TestTools.tool("traced", (exchange, toolReq) -> ProgressReporter.of(exchange, toolReq)
+            .progress(3, null, null)
+            .then(Mono.just(McpSchema.CallToolResult.builder().addTextContent("ok").build()))));
+        spec.callHandler().apply(session.exchange(), ProgressReporterTest.request("p1")).block();
+        tracer.stop();
+
+        JsonNode failed = lines().get(1);
+        assertEquals("progress.failed", failed.get("event").asText());
+        assertEquals("p1", failed.get("detail").asText());
+        assertEquals(3, failed.get("value").asLong());
+    }
+
+    @Test
+    void ringKeepsOrderAcrossLaps() {
+        var ring = new TraceRing(3);
+        assertEquals(4, ring.capacity());
+        var values = new ArrayList<Long>();
+        for (long i = 0; i < 10; i++) {
+            assertTrue(ring.offer(TraceRing.EVENT, TraceLevel.INFO, 1, 2, "t", "n", null, i));
+            ring.drain(slot -> values.add(slot.value), 1);
+        }
+        assertEquals(10, values.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, values.get(i));
+        }
+    }
+
+    private Tracer tracer(TraceLevel level, double sampleRate, int capacity) {
+        return new Tracer(level, sampleRate, capacity, new PrintStream(out, true, StandardCharsets.UTF_8));
+    }
+
+    private List<JsonNode> lines() throws Exception {
+        var lines = new ArrayList<JsonNode>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(mapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+
+    private static McpServerFeatures.AsyncToolSpecification tool() {
+        return TestTools.tool("traced", (exchange, toolReq) -> Mono.deferContextual(context -> {
+            Span.current(context).event(TraceLevel.DEBUG, "traced.step", "with \"quotes\"", 42);
+            return Mono.just(McpSchema.CallToolResult.builder().addTextContent("ok").build());
+        }));
+    }
+}
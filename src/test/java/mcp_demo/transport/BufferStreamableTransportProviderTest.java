@@ -0,0 +1,210 @@
+package mcp_demo.transport;
+
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.transport.HttpClientStreamableHttpTransport;
+import io.modelcontextprotocol.server.McpServer;
+import io.modelcontextprotocol.spec.HttpHeaders;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.ProtocolVersions;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import mcp_demo.TestTools;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BufferStreamableTransportProviderTest {
+
+    private static final int COMPRESS_MIN_BYTES = 1024;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final JsonCodec codec = new JsonCodec();
+    private final TransportErrors errors = new TransportErrors();
+    private final HttpClient http = HttpClient.newHttpClient();
+    private Vertx vertx;
+    private String url;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        var repeat = TestTools.tool("repeat", (exchange, request) -> Mono.just(McpSchema.CallToolResult.builder()
+            .addTextContent("x".repeat(((Number) request.arguments().get("times")).intValue()))
+            .build()));
+        var progress = TestTools.tool("progress", (exchange, request) -> exchange
+            .progressNotification(new McpSchema.ProgressNotification("token", 0.5, 1.0, "half way"))
+            .then(Mono.just(McpSchema.CallToolResult.builder().addTextContent("done").build())));
+
+        vertx = Vertx.vertx();
+        var transport = new BufferStreamableTransportProvider(vertx, codec, new SharedDataSessionStore(vertx, 60_000),
+            "/mcp", COMPRESS_MIN_BYTES, MAX_BODY_BYTES, errors);
+        McpServer.async(transport)
+            .serverInfo("test", "1.0.0")
+            .capabilities(McpSchema.ServerCapabilities.builder().tools(true).build())
+            .tools(repeat, progress)
+            .build();
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        url = "http://localhost:" + port + "/mcp";
+        var verticle = new McpHttpVerticle(port, transport, true, router -> router.get("/ping").handler(ctx -> ctx.end("pong")));
+        vertx.deployVerticle(verticle).toCompletionStage().toCompletableFuture().join();
+    }
+
+    @AfterEach
+    void tearDown() {
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+
+    @Test
+    void sdkClientCallsToolsOverJsonAndEventStreamResponses() {
+        var received = new CopyOnWriteArrayList<McpSchema.ProgressNotification>();
+        var client = McpClient.async(HttpClientStreamableHttpTransport.builder(url).build())
+            .requestTimeout(Duration.ofSeconds(5))
+            .progressConsumer(notification -> Mono.fromRunnable(() -> received.add(notification)))
+            .build();
+        try {
+            client.initialize().block();
+
+            var repeated = client.callTool(new McpSchema.CallToolRequest("repeat", Map.of("times", 3))).block();
+            assertEquals("xxx", ((McpSchema.TextContent) repeated.content().get(0)).text());
+
+            var progressed = client.callTool(McpSchema.CallToolRequest.builder()
+                .name("progress").arguments(Map.of()).progressToken("token").build()).block();
+            assertEquals("done", ((McpSchema.TextContent) progressed.content().get(0)).text());
+            assertEquals(1, received.size());
+            assertEquals("half way", received.get(0).message());
+        } finally {
+            client.closeGracefully().block();
+        }
+    }
+
+    @Test
+    void answersWithJsonUnlessProgressComesFirst() throws Exception {
+        String session = initialize();
+
+        var plain = post(session, call("repeat", Map.of("times", 3)), false);
+        assertEquals("application/json", plain.headers().firstValue("Content-Type").orElseThrow());
+        var response = codec.mapper().readValue(plain.body(), McpSchema.JSONRPCResponse.class);
+        assertEquals(2, ((Number) response.id()).intValue());
+
+        var streamed = post(session, call("progress", Map.of()), false);
+        assertEquals("text/event-stream", streamed.headers().firstValue("Content-Type").orElseThrow());
+        String events = new String(streamed.body(), StandardCharsets.UTF_8);
+        assertTrue(events.startsWith("event: message\n"), events);
+        assertTrue(events.indexOf("notifications/progress") < events.indexOf("\"result\""), events);
+    }
+
+    @Test
+    void compressesOnlyLargeJsonBodies() throws Exception {
+        String session = initialize();
+
+        var small = post(session, call("repeat", Map.of("times", 10)), true);
+        assertTrue(small.headers().firstValue("Content-Encoding").filter(e -> e.contains("gzip")).isEmpty());
+
+        var large = post(session, call("repeat", Map.of("times", 20_000)), true);
+        assertEquals("gzip", large.headers().firstValue("Content-Encoding").orElseThrow());
+        assertTrue(large.body().length < COMPRESS_MIN_BYTES);
+        try (var in = new GZIPInputStream(new java.io.ByteArrayInputStream(large.body()))) {
+            var response = codec.mapper().readValue(in, McpSchema.JSONRPCResponse.class);
+            var result = codec.mapper().convertValue(response.result(), McpSchema.CallToolResult.class);
+            assertEquals(20_000, ((McpSchema.TextContent) result.content().get(0)).text().length());
+        }
+    }
+
+    @Test
+    void servesMountedRoutesNextToTheEndpoint() throws Exception {
+        var ping = http.send(HttpRequest.newBuilder(URI.create(url.replace("/mcp", "/ping"))).build(),
+            HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, ping.statusCode());
+        assertEquals("pong", ping.body());
+
+        var other = http.send(HttpRequest.newBuilder(URI.create(url.replace("/mcp", "/other"))).build(),
+            HttpResponse.BodyHandlers.discarding());
+        assertEquals(404, other.statusCode());
+    }
+
+    @Test
+    void countsEventBusFailuresAsTransportErrors() throws Exception {
+        vertx.eventBus().publish("mcp.notify", Buffer.buffer("not json"));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (errors.count() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, errors.count());
+    }
+
+    @Test
+    void rejectsUnknownSessions() throws Exception {
+        var response = post("no-such-session", call("repeat", Map.of("times", 1)), false);
+        assertEquals(404, response.statusCode());
+        var error = codec.mapper().readValue(response.body(), McpSchema.JSONRPCResponse.class);
+        assertEquals(McpSchema.ErrorCodes.INVALID_REQUEST, error.error().code());
+    }
+
+    @Test
+    void rejectsBodiesOverTheLimit() throws Exception {
+        String session = initialize();
+
+        var tooLarge = post(session, call("repeat", Map.of("times", 1, "padding", "x".repeat(MAX_BODY_BYTES))), false);
+        assertEquals(413, tooLarge.statusCode());
+        var error = codec.mapper().readValue(tooLarge.body(), McpSchema.JSONRPCResponse.class);
+        assertEquals(McpSchema.ErrorCodes.INVALID_REQUEST, error.error().code());
+
+        // Without a Content-Length the body is counted as it arrives
+        var streamed = HttpRequest.newBuilder(URI.create(url))
+            .header("Content-Type", "application/json")
+            .header("Accept", "application/json, text/event-stream")
+            .header(HttpHeaders.MCP_SESSION_ID, session)
+            .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new java.io.ByteArrayInputStream(new byte[2 * MAX_BODY_BYTES])))
+            .build();
+        assertEquals(413, http.send(streamed, HttpResponse.BodyHandlers.ofByteArray()).statusCode());
+
+        var fits = post(session, call("repeat", Map.of("times", 1)), false);
+        assertEquals(200, fits.statusCode());
+    }
+
+    private String initialize() throws Exception {
+        var initialize = new McpSchema.JSONRPCRequest(McpSchema.JSONRPC_VERSION, McpSchema.METHOD_INITIALIZE, 1,
+            new McpSchema.InitializeRequest(ProtocolVersions.MCP_2025_03_26, McpSchema.ClientCapabilities.builder().build(),
+                new McpSchema.Implementation("client", "1.0.0")));
+        var response = post(null, initialize, false);
+        assertEquals(200, response.statusCode());
+        return response.headers().firstValue(HttpHeaders.MCP_SESSION_ID).orElseThrow();
+    }
+
+    private static McpSchema.JSONRPCRequest call(String tool, Map<String, Object> arguments) {
+        return new McpSchema.JSONRPCRequest(McpSchema.JSONRPC_VERSION, McpSchema.METHOD_TOOLS_CALL, 2,
+            Map.of("name", tool, "arguments", arguments, "_meta", Map.of("progressToken", "token")));
+    }
+
+    private HttpResponse<byte[]> post(String session, McpSchema.JSONRPCMessage message, boolean gzip) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create(url))
+            .header("Content-Type", "application/json")
+            .header("Accept", "application/json, text/event-stream")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(codec.mapper().writeValueAsBytes(message)));
+        if (session != null) {
+            request.header(HttpHeaders.MCP_SESSION_ID, session);
+        }
+        if (gzip) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
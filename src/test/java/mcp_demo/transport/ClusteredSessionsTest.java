@@ -0,0 +1,225 @@
+package mcp_demo.transport;
+
+import io.modelcontextprotocol.server.McpServer;
+import io.modelcontextprotocol.spec.HttpHeaders;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.ProtocolVersions;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import mcp_demo.TestTools;
+import mcp_demo.dispatch.CallCancellations;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two transport nodes in one JVM, each with its own clustered Vertx (Hazelcast, joined over TCP on the loopback
+ * interface), MCP server and port. Sessions, notifications and cancellations only reach the other node through
+ * the cluster's map and event bus.
+ */
+public class ClusteredSessionsTest {
+
+    private static final String HAZELCAST_CONFIG = "vertx.hazelcast.config";
+    private static final String LOOPBACK_CLUSTER = """
+        <hazelcast xmlns="http://www.hazelcast.com/schema/config">
+          <properties>
+            <property name="hazelcast.phone.home.enabled">false</property>
+            <property name="hazelcast.logging.type">none</property>
+          </properties>
+          <network>
+            <join>
+              <multicast enabled="false"/>
+              <tcp-ip enabled="true">
+                <interface>127.0.0.1</interface>
+              </tcp-ip>
+            </join>
+            <interfaces enabled="true">
+              <interface>127.0.0.1</interface>
+            </interfaces>
+          </network>
+          <multimap name="__vertx.subs">
+            <backup-count>1</backup-count>
+            <value-collection-type>SET</value-collection-type>
+          </multimap>
+        </hazelcast>
+        """;
+
+    private static Path clusterConfig;
+
+    private final JsonCodec codec = new JsonCodec();
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final CompletableFuture<Void> started = new CompletableFuture<>();
+    private final CompletableFuture<Void> cancelled = new CompletableFuture<>();
+    private Vertx vertxA;
+    private Vertx vertxB;
+    private Node a;
+    private Node b;
+
+    @BeforeAll
+    static void configureCluster() throws IOException {
+        clusterConfig = Files.createTempFile("cluster", ".xml");
+        Files.writeString(clusterConfig, LOOPBACK_CLUSTER);
+        System.setProperty(HAZELCAST_CONFIG, clusterConfig.toString());
+    }
+
+    @AfterAll
+    static void removeClusterConfig() throws IOException {
+        System.clearProperty(HAZELCAST_CONFIG);
+        Files.deleteIfExists(clusterConfig);
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        vertxA = clusteredVertx();
+        vertxB = clusteredVertx();
+        a = node(vertxA);
+        b = node(vertxB);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Vertx vertx : new Vertx[] {vertxA, vertxB}) {
+            if (vertx != null) {
+                vertx.close().toCompletionStage().toCompletableFuture().join();
+            }
+        }
+    }
+
+    @Test
+    void sessionOutlivesTheNodeThatStartedIt() throws Exception {
+        String session = initialize(a);
+        assertEquals("hi", text(post(b, session, call(2, "echo"))));
+
+        a.transport.closeGracefully().block();
+
+        assertEquals(503, post(a, session, call(3, "echo")).statusCode());
+        assertEquals("hi", text(post(b, session, call(4, "echo"))));
+
+        assertEquals(200, http.send(request(b, session).DELETE().build(), HttpResponse.BodyHandlers.discarding()).statusCode());
+        assertEquals(404, post(b, session, call(5, "echo")).statusCode());
+    }
+
+    @Test
+    void cancellationReachesTheNodeRunningTheCall() throws Exception {
+        String session = initialize(a);
+        var call = http.sendAsync(request(a, session)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(codec.mapper().writeValueAsBytes(call(2, "slow")))).build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        started.get(2, TimeUnit.SECONDS);
+
+        var cancel = new McpSchema.JSONRPCNotification(McpSchema.JSONRPC_VERSION, CallCancellations.METHOD_NOTIFICATION_CANCELLED,
+            Map.of("requestId", 2));
+        assertEquals(202, post(b, session, cancel).statusCode());
+
+        cancelled.get(2, TimeUnit.SECONDS);
+        call.get(2, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void serverNotificationsReachTheListeningStreamOnAnyNode() throws Exception {
+        String session = initialize(a);
+        var stream = http.send(request(b, session).header("Accept", "text/event-stream").GET().build(),
+            HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, stream.statusCode());
+
+        a.transport.notifyClients(McpSchema.METHOD_NOTIFICATION_TOOLS_LIST_CHANGED, null).block();
+
+        var lines = stream.body().iterator();
+        assertEquals("event: message", lines.next());
+        String line = lines.next();
+        while (!line.startsWith("data: ")) {
+            line = lines.next();
+        }
+        assertTrue(line.contains(McpSchema.METHOD_NOTIFICATION_TOOLS_LIST_CHANGED), line);
+        stream.body().close();
+    }
+
+    /** A Vertx joined to the others through the Hazelcast cluster manager found on the classpath. */
+    private static Vertx clusteredVertx() {
+        var options = new VertxOptions();
+        options.getEventBusOptions().setHost("127.0.0.1");
+        return Vertx.builder().with(options).buildClustered().toCompletionStage().toCompletableFuture().join();
+    }
+
+    private Node node(Vertx vertx) throws IOException {
+        var echo = TestTools.tool("echo",
+            (exchange, request) -> Mono.just(McpSchema.CallToolResult.builder().addTextContent("hi").build()));
+        var slow = TestTools.tool("slow", (exchange, request) -> Mono.delay(Duration.ofSeconds(5))
+            .map(tick -> McpSchema.CallToolResult.builder().addTextContent("done").build())
+            .doOnSubscribe(s -> started.complete(null))
+            .doOnCancel(() -> cancelled.complete(null)));
+
+        var transport = new BufferStreamableTransportProvider(vertx, codec, new SharedDataSessionStore(vertx, 60_000),
+            "/mcp", -1, 1 << 20, new TransportErrors());
+        McpServer.async(new CallCancellations().decorate(transport))
+            .serverInfo("test", "1.0.0")
+            .capabilities(McpSchema.ServerCapabilities.builder().tools(true).build())
+            .tools(echo, slow)
+            .build();
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        vertx.deployVerticle(new McpHttpVerticle(port, transport, false)).toCompletionStage().toCompletableFuture().join();
+        return new Node(transport, "http://localhost:" + port + "/mcp");
+    }
+
+    private String initialize(Node node) throws Exception {
+        var initialize = new McpSchema.JSONRPCRequest(McpSchema.JSONRPC_VERSION, McpSchema.METHOD_INITIALIZE, 1,
+            new McpSchema.InitializeRequest(ProtocolVersions.MCP_2025_03_26, McpSchema.ClientCapabilities.builder().build(),
+                new McpSchema.Implementation("client", "1.0.0")));
+        var response = post(node, null, initialize);
+        assertEquals(200, response.statusCode());
+        return response.headers().firstValue(HttpHeaders.MCP_SESSION_ID).orElseThrow();
+    }
+
+    private static McpSchema.JSONRPCRequest call(int id, String tool) {
+        return new McpSchema.JSONRPCRequest(McpSchema.JSONRPC_VERSION, McpSchema.METHOD_TOOLS_CALL, id,
+            Map.of("name", tool, "arguments", Map.of()));
+    }
+
+    private String text(HttpResponse<byte[]> response) throws IOException {
+        assertEquals(200, response.statusCode());
+        var result = codec.mapper().convertValue(
+            codec.mapper().readValue(response.body(), McpSchema.JSONRPCResponse.class).result(), McpSchema.CallToolResult.class);
+        return ((McpSchema.TextContent) result.content().get(0)).text();
+    }
+
+    private HttpResponse<byte[]> post(Node node, String session, McpSchema.JSONRPCMessage message) throws Exception {
+        return http.send(request(node, session)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(codec.mapper().writeValueAsBytes(message))).build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static HttpRequest.Builder request(Node node, String session) {
+        var request = HttpRequest.newBuilder(URI.create(node.url))
+            .header("Content-Type", "application/json")
+            .header("Accept", "application/json, text/event-stream")
+            .timeout(Duration.ofSeconds(5));
+        if (session != null) {
+            request.header(HttpHeaders.MCP_SESSION_ID, session);
+        }
+        return request;
+    }
+
+    private record Node(BufferStreamableTransportProvider transport, String url) {
+    }
+}